@@ -0,0 +1,90 @@
+package no.nofuzz.gs1.benchmark;
+
+import no.nofuzz.gs1.ai.CharacterSet;
+import no.nofuzz.gs1.model.Gs1Result;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import no.nofuzz.gs1.scan.ScanKernel;
+import no.nofuzz.gs1.scan.ScanKernels;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and vector scan kernels across value lengths to find the
+ * crossover point. The vector kernel is only available on Java 21+; on older
+ * runtimes "preferred" measures the scalar kernel again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class ScanKernelBenchmark {
+
+    private static final byte FNC1 = 29;
+
+    @Param({"8", "16", "32", "64", "128", "256", "1024"})
+    private int length;
+
+    @Param({"scalar", "preferred"})
+    private String kernelName;
+
+    private ScanKernel kernel;
+
+    private byte[] numeric;
+    private byte[] cset82;
+    private byte[] fnc1AtEnd;
+    private byte[] longPayload;
+
+    private Gs1Parser parser;
+
+    @Setup
+    public void setup() {
+        kernel = kernelName.equals("scalar") ? ScanKernels.scalar() : ScanKernels.preferred();
+
+        numeric = new byte[length];
+        cset82 = new byte[length];
+        fnc1AtEnd = new byte[length];
+        String digits = "0123456789";
+        String mixed = "ABCxyz012-./_%&";
+        for (int i = 0; i < length; i++) {
+            numeric[i] = (byte) digits.charAt(i % digits.length());
+            cset82[i] = (byte) mixed.charAt(i % mixed.length());
+            fnc1AtEnd[i] = (byte) 'A';
+        }
+        fnc1AtEnd[length - 1] = FNC1;
+
+        // AI 240 allows up to 30 characters
+        String reference = "X".repeat(Math.min(length, 30));
+        longPayload = ((char) FNC1 + "0109501101530003" + "10ABC123" + (char) FNC1 + "240" + reference)
+                .getBytes(StandardCharsets.ISO_8859_1);
+
+        parser = Gs1Parser.defaultParser();
+    }
+
+    @Benchmark
+    public int indexOfFnc1() {
+        return kernel.indexOf(fnc1AtEnd, 0, fnc1AtEnd.length, FNC1);
+    }
+
+    @Benchmark
+    public int validateNumeric() {
+        return kernel.indexOfInvalid(numeric, 0, numeric.length, CharacterSet.NUMERIC);
+    }
+
+    @Benchmark
+    public int validateCset82() {
+        return kernel.indexOfInvalid(cset82, 0, cset82.length, CharacterSet.CSET82);
+    }
+
+    /**
+     * End-to-end parse of byte input, which uses the preferred kernel regardless
+     * of the {@code kernelName} parameter.
+     */
+    @Benchmark
+    public Gs1Result parseLongPayload() {
+        return parser.parse(longPayload);
+    }
+}
@@ -0,0 +1,34 @@
+#!/bin/sh
+# Builds the gs1 runtime image: a jlink image with only the modules the CLI
+# uses, the shaded jar, the launcher, and a class-data archive recorded from a
+# training run. Invoked by the fast-start profile in gs1-cli/pom.xml.
+#
+# Usage: build-image.sh <java.home> <shaded jar> <source dir> <output dir>
+set -eu
+
+java_home="$1"
+jar="$2"
+src="$3"
+image="$4"
+
+rm -rf "$image"
+"$java_home/bin/jlink" \
+    --add-modules java.base,jdk.httpserver \
+    --strip-debug --no-header-files --no-man-pages --compress=2 \
+    --output "$image"
+# Base archive of the JDK classes, which the application archive builds on
+"$image/bin/java" -Xshare:dump -Xlog:cds=off > /dev/null
+
+mkdir -p "$image/app"
+cp "$jar" "$image/app/gs1-cli.jar"
+cp "$src/gs1" "$image/bin/gs1"
+chmod +x "$image/bin/gs1"
+
+# The archive holds every class the training run loads, including StandardAis
+# and its lambda proxies, so later runs map them instead of loading them.
+"$image/bin/java" -XX:ArchiveClassesAtExit="$image/app/gs1.jsa" -Xlog:cds=off -Xlog:cds+dynamic=off \
+    -jar "$image/app/gs1-cli.jar" --quiet batch --in "$src/training.txt" --out /dev/null --errors /dev/null \
+    --format jsonl 2> /dev/null || [ $? -eq 1 ]
+
+# Fails the build if the launcher cannot start with the archive
+"$image/bin/gs1" --quiet parse "(01)09501101530003(17)251231(10)ABC" > /dev/null
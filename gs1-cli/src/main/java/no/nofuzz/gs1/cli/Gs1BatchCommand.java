@@ -0,0 +1,366 @@
+package no.nofuzz.gs1.cli;
+
+import no.nofuzz.gs1.exception.Gs1ParseError;
+import no.nofuzz.gs1.parser.Gs1ParseContext;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import no.nofuzz.gs1.scan.AsciiCharSequence;
+import no.nofuzz.gs1.scan.ScanKernels;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code gs1 batch} command: parses newline-delimited element strings from a
+ * stream and writes one output record per element string, in input order.
+ *
+ * <p>The calling thread reads the input in blocks of about {@link #BLOCK_SIZE}
+ * bytes cut at line boundaries. Each block is parsed and formatted on a worker
+ * thread into its own output buffers, and a writer thread writes the finished
+ * buffers in block order. Reading, parsing and writing therefore overlap, while
+ * at most {@code 2 * threads} blocks are held in memory.
+ *
+ * <p>Successful lines go to the output and failed lines to the error stream, each
+ * tagged with its 1-based input line number:
+ * <ul>
+ *   <li>{@code jsonl}: {@code {"line":1,"ok":true,"elements":{"01":"09501101530003"}}}, one object per line;
+ *       errors as {@code {"line":2,"ok":false,"error":{...}}}.</li>
+ *   <li>{@code csv} and {@code tsv}: one {@code line,ai,value} row per element, after a
+ *       header row; errors as {@code line,code,position,ai,message} rows.</li>
+ * </ul>
+ */
+final class Gs1BatchCommand {
+
+    static final int BLOCK_SIZE = 1 << 20;
+    // As in Gs1FileProcessor: binary input or a runaway line fails instead of exhausting the heap
+    static final int MAX_LINE_LENGTH = 1 << 20;
+
+    enum Format {
+        JSONL, CSV, TSV;
+
+        static Format of(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * @param lines the number of non-empty input lines
+     * @param errors the number of lines that failed to parse
+     * @param bytes the number of input bytes
+     * @param nanos the elapsed time
+     */
+    record Summary(long lines, long errors, long bytes, long nanos) {
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+            return String.format(Locale.ROOT, "%d lines, %d errors in %.3f s (%.0f lines/s, %.1f MB/s)",
+                    lines, errors, seconds, lines / seconds, bytes / 1e6 / seconds);
+        }
+    }
+
+    // One block of input and, once parsed, its formatted output
+    private static final class Block {
+        final byte[] bytes;
+        final int length;
+        final long firstLine;
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final ByteArrayOutputStream errorOutput = new ByteArrayOutputStream();
+        long lines;
+        long errors;
+
+        Block(byte[] bytes, int length, long firstLine) {
+            this.bytes = bytes;
+            this.length = length;
+            this.firstLine = firstLine;
+        }
+    }
+
+    private final Gs1Parser parser;
+    private final Format format;
+    private final int threads;
+
+    Gs1BatchCommand(Gs1Parser parser, Format format, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        this.parser = parser;
+        this.format = format;
+        this.threads = threads;
+    }
+
+    /**
+     * Parses every line of {@code in}. Neither stream is closed; both outputs are flushed.
+     *
+     * @param in the newline-delimited element strings
+     * @param out receives the successfully parsed lines
+     * @param errors receives the lines that failed to parse
+     * @return the line and error counts
+     * @throws IOException if reading or writing fails
+     */
+    Summary run(InputStream in, OutputStream out, OutputStream errors) throws IOException {
+        long start = System.nanoTime();
+        AtomicInteger workerCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "gs1-batch-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<Future<Block>> queue = new ArrayBlockingQueue<>(threads * 2);
+        Writer writer = new Writer(queue, out, errors);
+        Thread writerThread = new Thread(writer, "gs1-batch-writer");
+        writerThread.start();
+
+        long bytes = 0;
+        try {
+            writeHeaders(out, errors);
+            long line = 1;
+            byte[] buffer = new byte[BLOCK_SIZE];
+            int filled = 0;
+            while (writer.failure == null) {
+                int n = in.readNBytes(buffer, filled, buffer.length - filled);
+                filled += n;
+                bytes += n;
+                boolean eof = filled < buffer.length;
+
+                int end = eof ? filled : lastLineEnd(buffer, filled);
+                if (end < 0) {
+                    // A single line longer than the buffer
+                    if (filled > MAX_LINE_LENGTH) {
+                        throw new IOException("Line " + line + " is longer than " + MAX_LINE_LENGTH + " bytes");
+                    }
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    continue;
+                }
+                if (end > 0) {
+                    Block block = new Block(buffer, end, line);
+                    line += countLines(buffer, end);
+                    queue.put(workers.submit(() -> parse(block)));
+                }
+                if (eof) {
+                    break;
+                }
+                byte[] next = new byte[Math.max(BLOCK_SIZE, filled - end)];
+                System.arraycopy(buffer, end, next, 0, filled - end);
+                filled -= end;
+                buffer = next;
+            }
+            queue.put(Writer.END);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } finally {
+            writerThread.interrupt();
+            workers.shutdownNow();
+        }
+        if (writer.failure != null) {
+            throw writer.failure;
+        }
+        return new Summary(writer.lineCount, writer.errorCount, bytes, System.nanoTime() - start);
+    }
+
+    private void writeHeaders(OutputStream out, OutputStream errors) throws IOException {
+        if (format == Format.JSONL) {
+            return;
+        }
+        String separator = format == Format.CSV ? "," : "\t";
+        out.write(String.join(separator, "line", "ai", "value\n").getBytes(StandardCharsets.US_ASCII));
+        errors.write(String.join(separator, "line", "code", "position", "ai", "message\n")
+                .getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Block parse(Block block) {
+        AsciiCharSequence text = AsciiCharSequence.of(block.bytes, 0, block.length);
+        Gs1ParseContext context = new Gs1ParseContext();
+        StringBuilder sb = new StringBuilder(256);
+        byte[] encoded = new byte[256];
+        long line = block.firstLine;
+        int pos = 0;
+        while (pos < block.length) {
+            int newline = ScanKernels.indexOf(text, '\n', pos, block.length);
+            int end = newline < 0 ? block.length : newline;
+            int next = newline < 0 ? block.length : newline + 1;
+            if (end > pos && text.charAt(end - 1) == '\r') {
+                end--;
+            }
+            if (end > pos) {
+                block.lines++;
+                Gs1ParseError error = parser.tryParse(text.subSequence(pos, end), context);
+                sb.setLength(0);
+                if (error == null) {
+                    formatResult(sb, line, context);
+                    encoded = write(sb, encoded, block.output);
+                } else {
+                    block.errors++;
+                    formatError(sb, line, error);
+                    encoded = write(sb, encoded, block.errorOutput);
+                }
+            }
+            line++;
+            pos = next;
+        }
+        return block;
+    }
+
+    private void formatResult(StringBuilder sb, long line, Gs1ParseContext context) {
+        if (format == Format.JSONL) {
+            Gs1Json.appendResult(sb, line, context).append('\n');
+            return;
+        }
+        char separator = format == Format.CSV ? ',' : '\t';
+        context.forEach((ai, value) -> {
+            sb.append(line).append(separator).append(ai).append(separator);
+            appendField(sb, String.valueOf(value));
+            sb.append('\n');
+        });
+    }
+
+    private void formatError(StringBuilder sb, long line, Gs1ParseError error) {
+        if (format == Format.JSONL) {
+            Gs1Json.appendError(sb, line, error).append('\n');
+            return;
+        }
+        char separator = format == Format.CSV ? ',' : '\t';
+        sb.append(line).append(separator).append(error.getCode().name()).append(separator)
+                .append(error.getPosition()).append(separator);
+        appendField(sb, error.getAi() == null ? "" : error.getAi());
+        sb.append(separator);
+        appendField(sb, error.getMessage());
+        sb.append('\n');
+    }
+
+    // CSV fields are quoted when needed (RFC 4180); TSV has no quoting, so separators and line breaks are escaped
+    private void appendField(StringBuilder sb, String value) {
+        if (format == Format.TSV) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\t' -> sb.append("\\t");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\\' -> sb.append("\\\\");
+                    default -> sb.append(c);
+                }
+            }
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    // Output is ISO-8859-1 like the input, so each char is one byte
+    private static byte[] write(StringBuilder sb, byte[] encoded, ByteArrayOutputStream out) {
+        int length = sb.length();
+        if (encoded.length < length) {
+            encoded = new byte[Math.max(length, encoded.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            encoded[i] = (byte) sb.charAt(i);
+        }
+        out.write(encoded, 0, length);
+        return encoded;
+    }
+
+    // Returns the number of lines started in buffer[0, end), counting an unterminated last line
+    private static long countLines(byte[] buffer, int end) {
+        long lines = 0;
+        for (int i = 0; i < end; i++) {
+            if (buffer[i] == '\n') {
+                lines++;
+            }
+        }
+        return end > 0 && buffer[end - 1] != '\n' ? lines + 1 : lines;
+    }
+
+    // Returns the offset after the last newline in buffer[0, filled), or -1 if there is none
+    private static int lastLineEnd(byte[] buffer, int filled) {
+        for (int i = filled - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the blocks in order as their parse completes, while the reader and
+     * workers move on to the next blocks.
+     */
+    private static final class Writer implements Runnable {
+        static final Future<Block> END = CompletableFuture.completedFuture(null);
+
+        private final BlockingQueue<Future<Block>> queue;
+        private final OutputStream out;
+        private final OutputStream errors;
+        volatile IOException failure;
+        long lineCount;
+        long errorCount;
+
+        Writer(BlockingQueue<Future<Block>> queue, OutputStream out, OutputStream errors) {
+            this.queue = queue;
+            this.out = out;
+            this.errors = errors;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Future<Block> next;
+                while ((next = queue.take()) != END) {
+                    if (failure != null) {
+                        // Keeps taking so the reader never blocks on a full queue
+                        continue;
+                    }
+                    try {
+                        Block block = next.get();
+                        block.output.writeTo(out);
+                        block.errorOutput.writeTo(errors);
+                        lineCount += block.lines;
+                        errorCount += block.errors;
+                    } catch (IOException e) {
+                        failure = e;
+                    } catch (ExecutionException e) {
+                        failure = new IOException("Parsing failed: " + e.getCause(), e.getCause());
+                    }
+                }
+                if (failure == null) {
+                    out.flush();
+                    errors.flush();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -2,46 +2,267 @@ package no.nofuzz.gs1.cli;
 
 import no.nofuzz.gs1.parser.Gs1Parser;
 
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
 public class Gs1Cli {
 
     private static final String VERSION = "0.1.0";
 
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: gs1 [--quiet] <command> ...",
+            "       gs1 parse \"<barcode>\"",
+            "       gs1 serve [--tcp <port>] [--read-timeout <seconds>] [--max-pending <lines>] [--max-connections <n>]",
+            "                 [--http <port>] [--batch-window <micros>] [--max-batch <n>]",
+            "                 [--drain-timeout <seconds>] [--strict]",
+            "                 On Java 17 each TCP connection holds a platform thread, so --max-connections",
+            "                 defaults to 256 there instead of 10000 and should stay in the low thousands",
+            "       gs1 batch [--in <file>|-] [--out <file>|-] [--errors <file>|-] [--format jsonl|csv|tsv]",
+            "                 [--threads <n>] [--strict]");
+
     public static void main(String[] args) {
-        printBanner();
+        // --quiet (or -q) may appear anywhere and suppresses the banner, for scripts and hooks
+        List<String> arguments = new ArrayList<>(List.of(args));
+        boolean quiet = arguments.removeIf(arg -> arg.equals("--quiet") || arg.equals("-q"));
+        args = arguments.toArray(new String[0]);
+
+        String command = args.length > 0 ? args[0] : "";
+        if (!quiet) {
+            // batch may write its output to stdout, so the banner must not
+            printBanner("batch".equals(command) ? System.err : System.out);
+        }
 
-        if (args.length < 2 || !"parse".equals(args[0])) {
-            System.out.println("Usage: gs1 parse \"<barcode>\"");
-            System.exit(2);
+        int status = switch (command) {
+            case "parse" -> parse(args);
+            case "serve" -> serve(args);
+            case "batch" -> batch(args);
+            default -> usage();
+        };
+        if (status != 0) {
+            System.exit(status);
         }
+    }
 
+    private static int parse(String[] args) {
+        if (args.length < 2) {
+            return usage();
+        }
         try {
             var result = Gs1Parser.defaultParser().parse(args[1]);
             System.out.println(result.asMap());
+            return 0;
         } catch (Exception e) {
             System.err.println(e.getMessage());
-            System.exit(1);
-        }
-    }
-
-    private static void printBanner() {
-        System.out.println("╔════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                   GS1 Toolkit v" + VERSION + "                        ║");
-        System.out.println("║                                                                ║");
-        System.out.println("║  FREE for personal, educational, and evaluation use            ║");
-        System.out.println("║                                                                ║");
-        System.out.println("║  ⚠️  COMMERCIAL LICENSE REQUIRED for business use              ║");
-        System.out.println("║                                                                ║");
-        System.out.println("║  Commercial use includes:                                      ║");
-        System.out.println("║    • Production systems in for-profit organizations            ║");
-        System.out.println("║    • Internal business applications                            ║");
-        System.out.println("║    • Revenue-generating products or services                   ║");
-        System.out.println("║                                                                ║");
-        System.out.println("║  License pricing: $1000/year per legal entity                  ║");
-        System.out.println("║  60-day free trial available                                   ║");
-        System.out.println("║                                                                ║");
-        System.out.println("║  Contact: estromsnes@gmail.com                                 ║");
-        System.out.println("║  Website: https://nofuzz.no/gs1-toolkit                        ║");
-        System.out.println("╚════════════════════════════════════════════════════════════════╝");
-        System.out.println();
+            return 1;
+        }
+    }
+
+    private static int serve(String[] args) {
+        Map<String, String> options = options(args, Set.of("--strict"),
+                Set.of("--tcp", "--http", "--read-timeout", "--max-pending", "--max-connections", "--drain-timeout",
+                        "--batch-window", "--max-batch"));
+        if (options == null || !(options.containsKey("--tcp") || options.containsKey("--http"))) {
+            return usage();
+        }
+
+        Gs1Parser parser = options.containsKey("--strict") ? Gs1Parser.strictParser() : Gs1Parser.defaultParser();
+        List<AutoCloseable> servers = new ArrayList<>();
+        Runnable closeAll = () -> servers.forEach(Gs1Cli::closeQuietly);
+        try {
+            if (options.containsKey("--tcp")) {
+                Gs1TcpServer.Builder builder = Gs1TcpServer.builder(parser)
+                        .port(Integer.parseInt(options.get("--tcp")));
+                if (options.containsKey("--read-timeout")) {
+                    builder.readTimeout(Duration.ofSeconds(Long.parseLong(options.get("--read-timeout"))));
+                }
+                if (options.containsKey("--max-pending")) {
+                    builder.maxPending(Integer.parseInt(options.get("--max-pending")));
+                }
+                if (options.containsKey("--max-connections")) {
+                    builder.maxConnections(Integer.parseInt(options.get("--max-connections")));
+                }
+                if (options.containsKey("--drain-timeout")) {
+                    builder.drainTimeout(Duration.ofSeconds(Long.parseLong(options.get("--drain-timeout"))));
+                }
+                Gs1TcpServer server = builder.build().start();
+                servers.add(server);
+                System.out.println("Listening on tcp port " + server.port() + threading());
+            }
+            if (options.containsKey("--http")) {
+                Gs1HttpServer.Builder builder = Gs1HttpServer.builder(parser)
+                        .port(Integer.parseInt(options.get("--http")));
+                if (options.containsKey("--batch-window")) {
+                    builder.batchWindow(Duration.ofNanos(Long.parseLong(options.get("--batch-window")) * 1000));
+                }
+                if (options.containsKey("--max-batch")) {
+                    builder.maxBatch(Integer.parseInt(options.get("--max-batch")));
+                }
+                if (options.containsKey("--drain-timeout")) {
+                    builder.drainTimeout(Duration.ofSeconds(Long.parseLong(options.get("--drain-timeout"))));
+                }
+                Gs1HttpServer server = builder.build().start();
+                servers.add(server);
+                System.out.println("Listening on http port " + server.port() + threading());
+            }
+        } catch (IllegalArgumentException e) {
+            closeAll.run();
+            System.err.println(e.getMessage());
+            return usage();
+        } catch (IOException e) {
+            closeAll.run();
+            System.err.println("Cannot listen: " + e.getMessage());
+            return 1;
+        }
+
+        // Ctrl-C and SIGTERM drain the open connections before the JVM exits
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            closeAll.run();
+            stopped.countDown();
+        }, "gs1-shutdown"));
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            closeAll.run();
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    static int batch(String[] args) {
+        Map<String, String> options = options(args, Set.of("--strict"),
+                Set.of("--in", "--out", "--errors", "--format", "--threads"));
+        if (options == null) {
+            return usage();
+        }
+
+        Gs1BatchCommand command;
+        try {
+            command = new Gs1BatchCommand(
+                    options.containsKey("--strict") ? Gs1Parser.strictParser() : Gs1Parser.defaultParser(),
+                    Gs1BatchCommand.Format.of(options.getOrDefault("--format", "jsonl")),
+                    Integer.parseInt(options.getOrDefault("--threads",
+                            String.valueOf(Runtime.getRuntime().availableProcessors()))));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return usage();
+        }
+
+        String in = options.getOrDefault("--in", "-");
+        String out = options.getOrDefault("--out", "-");
+        String errors = options.getOrDefault("--errors", "-");
+        // The standard streams outlive the command, so they are only flushed, never closed
+        try (InputStream input = "-".equals(in) ? unclosable(System.in) : Files.newInputStream(Path.of(in));
+             OutputStream output = new BufferedOutputStream(
+                     "-".equals(out) ? unclosable(System.out) : Files.newOutputStream(Path.of(out)),
+                     Gs1BatchCommand.BLOCK_SIZE);
+             OutputStream errorOutput = new BufferedOutputStream(
+                     "-".equals(errors) ? unclosable(System.err) : Files.newOutputStream(Path.of(errors)),
+                     1 << 16)) {
+            Gs1BatchCommand.Summary summary = command.run(input, output, errorOutput);
+            errorOutput.flush();
+            System.err.println(summary);
+            return summary.errors() == 0 ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static InputStream unclosable(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static OutputStream unclosable(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    private static String threading() {
+        return ServerThreads.virtualThreadsAvailable() ? " (virtual threads)" : " (thread pool)";
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            System.err.println("Error during shutdown: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses value-less {@code flags} and {@code --name value} pairs following the command.
+     *
+     * @return the options, or null if an option is unknown or missing its value
+     */
+    private static Map<String, String> options(String[] args, Set<String> flags, Set<String> valued) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String name = args[i];
+            if (flags.contains(name)) {
+                options.put(name, "true");
+            } else if (valued.contains(name) && i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                System.err.println("Unknown or incomplete option: " + name);
+                return null;
+            }
+        }
+        return options;
+    }
+
+    private static int usage() {
+        // Standard output may be the data channel, as for batch --out -
+        System.err.println(USAGE);
+        return 2;
+    }
+
+    private static void printBanner(PrintStream out) {
+        out.println("╔════════════════════════════════════════════════════════════════╗");
+        out.println("║                   GS1 Toolkit v" + VERSION + "                        ║");
+        out.println("║                                                                ║");
+        out.println("║  FREE for personal, educational, and evaluation use            ║");
+        out.println("║                                                                ║");
+        out.println("║  ⚠️  COMMERCIAL LICENSE REQUIRED for business use              ║");
+        out.println("║                                                                ║");
+        out.println("║  Commercial use includes:                                      ║");
+        out.println("║    • Production systems in for-profit organizations            ║");
+        out.println("║    • Internal business applications                            ║");
+        out.println("║    • Revenue-generating products or services                   ║");
+        out.println("║                                                                ║");
+        out.println("║  License pricing: $1000/year per legal entity                  ║");
+        out.println("║  60-day free trial available                                   ║");
+        out.println("║                                                                ║");
+        out.println("║  Contact: estromsnes@gmail.com                                 ║");
+        out.println("║  Website: https://nofuzz.no/gs1-toolkit                        ║");
+        out.println("╚════════════════════════════════════════════════════════════════╝");
+        out.println();
     }
 }
\ No newline at end of file
@@ -0,0 +1,492 @@
+package no.nofuzz.gs1.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import no.nofuzz.gs1.scan.AsciiCharSequence;
+import no.nofuzz.gs1.scan.ScanKernels;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP parse service built on the JDK's {@code com.sun.net.httpserver}.
+ *
+ * <ul>
+ *   <li>{@code POST /parse} with the element string as body, or
+ *       {@code GET /parse?scan=...} (FNC1 as {@code %1D}): responds with one JSON
+ *       object as written by {@link Gs1Json}, status 200, or 422 if the element
+ *       string is invalid.</li>
+ *   <li>{@code POST /parse/batch} with newline-delimited element strings, or a JSON
+ *       array of strings when the body starts with {@code [}: responds with a
+ *       JSON array holding one object per element string, in order.</li>
+ *   <li>{@code GET /health}: {@code {"status":"UP"}}, or status 503 while draining.</li>
+ *   <li>{@code GET /metrics}: counters in the Prometheus text format.</li>
+ * </ul>
+ *
+ * <p>Exchanges run on virtual threads on Java 21 and later, and on a bounded pool of
+ * platform threads on Java 17 (see {@link ServerThreads}).
+ * Single scans are not parsed on the request thread: concurrent requests are
+ * coalesced by a {@link MicroBatcher} into batches collected over
+ * {@link Builder#batchWindow(Duration)} and parsed on the common fork/join pool.
+ * Batch requests are parsed with {@link Gs1Parser#parseAll(List)}.
+ */
+public final class Gs1HttpServer implements AutoCloseable {
+
+    private static final int MAX_BODY = 16 << 20;
+    private static final long SCAN_TIMEOUT_SECONDS = 30;
+
+    private final Gs1Parser parser;
+    private final InetAddress bindAddress;
+    private final int requestedPort;
+    private final Duration batchWindow;
+    private final int maxBatch;
+    private final Duration drainTimeout;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder scans = new LongAdder();
+    private final LongAdder scanErrors = new LongAdder();
+    private final LongAdder batchRequests = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final long startNanos = System.nanoTime();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private MicroBatcher batcher;
+    private volatile boolean draining;
+
+    private Gs1HttpServer(Builder builder) {
+        this.parser = builder.parser;
+        this.bindAddress = builder.bindAddress;
+        this.requestedPort = builder.port;
+        this.batchWindow = builder.batchWindow;
+        this.maxBatch = builder.maxBatch;
+        this.drainTimeout = builder.drainTimeout;
+    }
+
+    /**
+     * Creates a builder for a server that parses with {@code parser}.
+     *
+     * @param parser the parser to use
+     * @return a new builder
+     */
+    public static Builder builder(Gs1Parser parser) {
+        return new Builder(parser);
+    }
+
+    /**
+     * Binds the port and starts serving.
+     *
+     * @return this server
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalStateException if the server was already started
+     */
+    public synchronized Gs1HttpServer start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        server = HttpServer.create(new InetSocketAddress(bindAddress, requestedPort), 1024);
+        executor = ServerThreads.perTaskExecutor("gs1-http", ServerThreads.MAX_PLATFORM_THREADS);
+        batcher = new MicroBatcher(parser, ForkJoinPool.commonPool(), batchWindow.toNanos(), maxBatch);
+        server.setExecutor(executor);
+        server.createContext("/parse", exchange -> handle(exchange, this::parseOne));
+        server.createContext("/parse/batch", exchange -> handle(exchange, this::parseBatch));
+        server.createContext("/health", exchange -> handle(exchange, this::health));
+        server.createContext("/metrics", exchange -> handle(exchange, this::metrics));
+        server.start();
+        return this;
+    }
+
+    /**
+     * @return the bound port, useful when the server was started on port 0
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Blocks until the server has been closed and drained.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    /**
+     * Stops accepting connections, waits up to the drain timeout for open
+     * exchanges to finish, then releases the batcher and threads.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (draining || server == null) {
+                return;
+            }
+            draining = true;
+        }
+        try {
+            server.stop((int) Math.max(0, drainTimeout.toSeconds()));
+            batcher.close();
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        requests.increment();
+        // Closed only after the error response, which try-with-resources would close first
+        try {
+            handler.handle(exchange);
+        } catch (RuntimeException e) {
+            serverErrors.increment();
+            respond(exchange, 500, Gs1Json.appendError(new StringBuilder(), "INTERNAL_ERROR", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void parseOne(HttpExchange exchange) throws IOException {
+        if (!exactPath(exchange, "/parse")) {
+            return;
+        }
+        CharSequence input;
+        switch (exchange.getRequestMethod()) {
+            case "POST" -> {
+                byte[] body = readBody(exchange);
+                if (body == null) {
+                    return;
+                }
+                int end = body.length;
+                while (end > 0 && (body[end - 1] == '\n' || body[end - 1] == '\r')) {
+                    end--;
+                }
+                input = AsciiCharSequence.of(body, 0, end);
+            }
+            case "GET" -> {
+                input = queryParameter(exchange.getRequestURI().getRawQuery(), "scan");
+                if (input == null) {
+                    badRequest(exchange, "Missing query parameter 'scan'");
+                    return;
+                }
+            }
+            default -> {
+                methodNotAllowed(exchange, "GET, POST");
+                return;
+            }
+        }
+
+        Gs1ParseOutcome outcome;
+        try {
+            outcome = batcher.submit(input).get(SCAN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            serverErrors.increment();
+            respond(exchange, 503, Gs1Json.appendError(new StringBuilder(), "UNAVAILABLE", "Interrupted"));
+            return;
+        } catch (TimeoutException e) {
+            serverErrors.increment();
+            respond(exchange, 503, Gs1Json.appendError(new StringBuilder(), "UNAVAILABLE", "Timed out"));
+            return;
+        } catch (ExecutionException e) {
+            serverErrors.increment();
+            if (e.getCause() instanceof MicroBatcher.ClosedException) {
+                respond(exchange, 503, Gs1Json.appendError(new StringBuilder(), "UNAVAILABLE", "Server is shutting down"));
+            } else {
+                // A failure of the parser itself, such as a bug in a value parser
+                respond(exchange, 500, Gs1Json.appendError(new StringBuilder(), "INTERNAL_ERROR",
+                        String.valueOf(e.getCause().getMessage())));
+            }
+            return;
+        }
+
+        scans.increment();
+        if (outcome.isSuccess()) {
+            respond(exchange, 200, Gs1Json.appendResult(new StringBuilder(), outcome.getResult()));
+        } else {
+            scanErrors.increment();
+            respond(exchange, 422, Gs1Json.appendError(new StringBuilder(), outcome.getError()));
+        }
+    }
+
+    private void parseBatch(HttpExchange exchange) throws IOException {
+        if (!exactPath(exchange, "/parse/batch")) {
+            return;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            methodNotAllowed(exchange, "POST");
+            return;
+        }
+        byte[] body = readBody(exchange);
+        if (body == null) {
+            return;
+        }
+
+        List<? extends CharSequence> inputs;
+        AsciiCharSequence text = AsciiCharSequence.of(body, 0, body.length);
+        int first = 0;
+        while (first < body.length && Character.isWhitespace(body[first])) {
+            first++;
+        }
+        if (first < body.length && body[first] == '[') {
+            try {
+                inputs = Gs1Json.parseStringArray(new String(body, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                badRequest(exchange, "Invalid JSON array: " + e.getMessage());
+                return;
+            }
+        } else {
+            inputs = lines(text);
+        }
+
+        batchRequests.increment();
+        List<Gs1ParseOutcome> outcomes = parser.parseAll(inputs);
+        StringBuilder sb = new StringBuilder(outcomes.size() * 96 + 2).append('[');
+        long errors = 0;
+        for (int i = 0; i < outcomes.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            Gs1ParseOutcome outcome = outcomes.get(i);
+            if (outcome.isSuccess()) {
+                Gs1Json.appendResult(sb, outcome.getResult());
+            } else {
+                errors++;
+                Gs1Json.appendError(sb, outcome.getError());
+            }
+        }
+        scans.add(outcomes.size());
+        scanErrors.add(errors);
+        respond(exchange, 200, sb.append(']'));
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        if (!exactPath(exchange, "/health")) {
+            return;
+        }
+        if (draining) {
+            respond(exchange, 503, new StringBuilder("{\"status\":\"DRAINING\"}"));
+        } else {
+            respond(exchange, 200, new StringBuilder("{\"status\":\"UP\"}"));
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        if (!exactPath(exchange, "/metrics")) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(1024);
+        metric(sb, "gs1_http_requests_total", "counter", "HTTP requests received", requests.sum());
+        metric(sb, "gs1_http_client_errors_total", "counter", "Requests rejected as invalid", clientErrors.sum());
+        metric(sb, "gs1_http_server_errors_total", "counter", "Requests that failed in the server", serverErrors.sum());
+        metric(sb, "gs1_scans_total", "counter", "Element strings parsed", scans.sum());
+        metric(sb, "gs1_scan_errors_total", "counter", "Element strings that failed to parse", scanErrors.sum());
+        metric(sb, "gs1_batch_requests_total", "counter", "Requests to the batch endpoint", batchRequests.sum());
+        metric(sb, "gs1_microbatches_total", "counter", "Micro-batches of single scans", batcher.batches.sum());
+        metric(sb, "gs1_microbatch_scans_total", "counter", "Single scans parsed in micro-batches", batcher.scans.sum());
+        metric(sb, "gs1_uptime_seconds", "gauge", "Seconds since the server started",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos));
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void metric(StringBuilder sb, String name, String type, String help, long value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n')
+                .append(name).append(' ').append(value).append('\n');
+    }
+
+    // Splits the body into lines without copying, skipping blank lines
+    private static List<CharSequence> lines(AsciiCharSequence text) {
+        List<CharSequence> lines = new ArrayList<>();
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            int newline = ScanKernels.indexOf(text, '\n', pos, length);
+            int end = newline < 0 ? length : newline;
+            int next = newline < 0 ? length : newline + 1;
+            if (end > pos && text.charAt(end - 1) == '\r') {
+                end--;
+            }
+            if (end > pos) {
+                lines.add(text.subSequence(pos, end));
+            }
+            pos = next;
+        }
+        return lines;
+    }
+
+    private static String queryParameter(String rawQuery, String name) {
+        if (rawQuery == null) {
+            return null;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private boolean exactPath(HttpExchange exchange, String path) throws IOException {
+        if (exchange.getRequestURI().getPath().equals(path)) {
+            return true;
+        }
+        clientErrors.increment();
+        respond(exchange, 404, Gs1Json.appendError(new StringBuilder(), "NOT_FOUND", "No such endpoint"));
+        return false;
+    }
+
+    // Reads the request body, or responds with 413 and returns null if it is too large
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY + 1);
+            if (body.length > MAX_BODY) {
+                clientErrors.increment();
+                respond(exchange, 413, Gs1Json.appendError(new StringBuilder(), "PAYLOAD_TOO_LARGE",
+                        "Request body exceeds " + MAX_BODY + " bytes"));
+                return null;
+            }
+            return body;
+        }
+    }
+
+    private void badRequest(HttpExchange exchange, String message) throws IOException {
+        clientErrors.increment();
+        respond(exchange, 400, Gs1Json.appendError(new StringBuilder(), "BAD_REQUEST", message));
+    }
+
+    private void methodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        clientErrors.increment();
+        exchange.getResponseHeaders().set("Allow", allowed);
+        respond(exchange, 405, Gs1Json.appendError(new StringBuilder(), "METHOD_NOT_ALLOWED",
+                "Use " + allowed));
+    }
+
+    private static void respond(HttpExchange exchange, int status, StringBuilder json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Builder for {@link Gs1HttpServer}.
+     */
+    public static final class Builder {
+        private final Gs1Parser parser;
+        private InetAddress bindAddress;
+        private int port;
+        private Duration batchWindow = Duration.ofNanos(200_000);
+        private int maxBatch = 256;
+        private Duration drainTimeout = Duration.ofSeconds(10);
+
+        private Builder(Gs1Parser parser) {
+            this.parser = Objects.requireNonNull(parser, "parser");
+        }
+
+        /**
+         * @param port the port to listen on; 0 picks a free port
+         * @return this builder
+         */
+        public Builder port(int port) {
+            if (port < 0 || port > 65535) {
+                throw new IllegalArgumentException("Invalid port: " + port);
+            }
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param address the address to bind to; null (the default) binds all interfaces
+         * @return this builder
+         */
+        public Builder bindAddress(InetAddress address) {
+            this.bindAddress = address;
+            return this;
+        }
+
+        /**
+         * Sets how long the first single-scan request of a micro-batch waits for
+         * others to join it. Zero batches only requests that are already queued.
+         * Defaults to 200 microseconds.
+         *
+         * @param window the batching window
+         * @return this builder
+         */
+        public Builder batchWindow(Duration window) {
+            if (window.isNegative()) {
+                throw new IllegalArgumentException("Batch window must not be negative: " + window);
+            }
+            this.batchWindow = window;
+            return this;
+        }
+
+        /**
+         * @param maxBatch the largest number of single scans in a micro-batch; defaults to 256
+         * @return this builder
+         */
+        public Builder maxBatch(int maxBatch) {
+            if (maxBatch <= 0) {
+                throw new IllegalArgumentException("Max batch must be positive: " + maxBatch);
+            }
+            this.maxBatch = maxBatch;
+            return this;
+        }
+
+        /**
+         * @param timeout how long {@link Gs1HttpServer#close()} waits for open exchanges
+         * @return this builder
+         */
+        public Builder drainTimeout(Duration timeout) {
+            if (timeout.isNegative()) {
+                throw new IllegalArgumentException("Drain timeout must not be negative: " + timeout);
+            }
+            this.drainTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * @return a new, not yet started server
+         */
+        public Gs1HttpServer build() {
+            return new Gs1HttpServer(this);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package no.nofuzz.gs1.cli;
+
+import no.nofuzz.gs1.exception.Gs1ParseError;
+import no.nofuzz.gs1.model.Gs1Decimal;
+import no.nofuzz.gs1.model.Gs1Result;
+import no.nofuzz.gs1.parser.Gs1ParseContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Writes parse results and errors as single-line JSON objects, and reads the
+ * JSON arrays of element strings accepted by the HTTP batch endpoint.
+ *
+ * <p>A result is written as {@code {"ok":true,"elements":{"01":"09501101530003","17":"2025-12-31"}}}
+ * with elements in input order; counts and variable measures are JSON numbers,
+ * everything else is a string. An error is written as
+ * {@code {"ok":false,"error":{"code":"INVALID_FORMAT","position":0,"ai":"10","message":"..."}}}.
+ * Output is pure ASCII: other characters are escaped.
+ */
+final class Gs1Json {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Gs1Json() {
+    }
+
+    static StringBuilder appendResult(StringBuilder sb, Gs1ParseContext context) {
+        return appendElements(sb, -1, context::forEach);
+    }
+
+    static StringBuilder appendResult(StringBuilder sb, Gs1Result result) {
+        return appendElements(sb, -1, result::forEach);
+    }
+
+    /**
+     * Writes a result tagged with its input line, as {@code {"line":12,"ok":true,...}}.
+     */
+    static StringBuilder appendResult(StringBuilder sb, long line, Gs1ParseContext context) {
+        return appendElements(sb, line, context::forEach);
+    }
+
+    static StringBuilder appendError(StringBuilder sb, Gs1ParseError error) {
+        return appendError(sb, -1, error);
+    }
+
+    /**
+     * Writes an error tagged with its input line, as {@code {"line":12,"ok":false,...}}.
+     */
+    static StringBuilder appendError(StringBuilder sb, long line, Gs1ParseError error) {
+        open(sb, line).append("\"ok\":false,\"error\":{\"code\":\"").append(error.getCode().name())
+                .append("\",\"position\":").append(error.getPosition())
+                .append(",\"ai\":");
+        if (error.getAi() == null) {
+            sb.append("null");
+        } else {
+            appendString(sb, error.getAi());
+        }
+        sb.append(",\"message\":");
+        appendString(sb, error.getMessage());
+        return sb.append("}}");
+    }
+
+    /**
+     * Writes an error that is not a parse error, such as an oversized line.
+     */
+    static StringBuilder appendError(StringBuilder sb, String code, String message) {
+        sb.append("{\"ok\":false,\"error\":{\"code\":\"").append(code)
+                .append("\",\"position\":-1,\"ai\":null,\"message\":");
+        appendString(sb, message);
+        return sb.append("}}");
+    }
+
+    private static StringBuilder open(StringBuilder sb, long line) {
+        sb.append('{');
+        if (line >= 0) {
+            sb.append("\"line\":").append(line).append(',');
+        }
+        return sb;
+    }
+
+    private static StringBuilder appendElements(StringBuilder sb, long line, Consumer<BiConsumer<String, Object>> elements) {
+        open(sb, line).append("\"ok\":true,\"elements\":{");
+        int start = sb.length();
+        elements.accept((ai, value) -> {
+            if (sb.length() > start) {
+                sb.append(',');
+            }
+            appendString(sb, ai);
+            sb.append(':');
+            appendValue(sb, value);
+        });
+        return sb.append("}}");
+    }
+
+    /**
+     * Parses a JSON array of strings, such as {@code ["(01)09501101530003", "(10)ABC"]}.
+     *
+     * @param json the JSON text
+     * @return the strings in array order
+     * @throws IllegalArgumentException if {@code json} is not an array of strings
+     */
+    static List<String> parseStringArray(CharSequence json) {
+        List<String> strings = new ArrayList<>();
+        int[] pos = {skipWhitespace(json, 0)};
+        expect(json, pos, '[');
+        pos[0] = skipWhitespace(json, pos[0]);
+        if (pos[0] < json.length() && json.charAt(pos[0]) == ']') {
+            pos[0]++;
+        } else {
+            while (true) {
+                pos[0] = skipWhitespace(json, pos[0]);
+                strings.add(parseString(json, pos));
+                pos[0] = skipWhitespace(json, pos[0]);
+                if (pos[0] < json.length() && json.charAt(pos[0]) == ',') {
+                    pos[0]++;
+                    continue;
+                }
+                expect(json, pos, ']');
+                break;
+            }
+        }
+        if (skipWhitespace(json, pos[0]) != json.length()) {
+            throw new IllegalArgumentException("Unexpected content after array at position " + pos[0]);
+        }
+        return strings;
+    }
+
+    private static String parseString(CharSequence json, int[] pos) {
+        expect(json, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        int i = pos[0];
+        while (true) {
+            if (i >= json.length()) {
+                throw new IllegalArgumentException("Unterminated string");
+            }
+            char c = json.charAt(i++);
+            if (c == '"') {
+                break;
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (i >= json.length()) {
+                throw new IllegalArgumentException("Unterminated string");
+            }
+            char escape = json.charAt(i++);
+            switch (escape) {
+                case '"', '\\', '/' -> sb.append(escape);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (i + 4 > json.length()) {
+                        throw new IllegalArgumentException("Invalid unicode escape at position " + i);
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(json, i, i + 4, 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid unicode escape at position " + i);
+                    }
+                    i += 4;
+                }
+                default -> throw new IllegalArgumentException("Invalid escape at position " + (i - 1));
+            }
+        }
+        pos[0] = i;
+        return sb.toString();
+    }
+
+    private static void expect(CharSequence json, int[] pos, char c) {
+        if (pos[0] >= json.length() || json.charAt(pos[0]) != c) {
+            throw new IllegalArgumentException("Expected '" + c + "' at position " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    private static int skipWhitespace(CharSequence json, int i) {
+        while (i < json.length() && (json.charAt(i) == ' ' || json.charAt(i) == '\n'
+                || json.charAt(i) == '\r' || json.charAt(i) == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    static void appendValue(StringBuilder sb, Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Gs1Decimal) {
+            sb.append(value);
+        } else {
+            appendString(sb, String.valueOf(value));
+        }
+    }
+
+    static void appendString(StringBuilder sb, CharSequence s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c >= 0x20 && c < 0x7F) {
+                sb.append(c);
+            } else {
+                sb.append("\\u").append(HEX[c >> 12 & 0xF]).append(HEX[c >> 8 & 0xF])
+                        .append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,441 @@
+package no.nofuzz.gs1.cli;
+
+import no.nofuzz.gs1.exception.Gs1ParseError;
+import no.nofuzz.gs1.parser.Gs1ParseContext;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import no.nofuzz.gs1.scan.AsciiCharSequence;
+import no.nofuzz.gs1.scan.ScanKernels;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line-protocol TCP server for scanner ingestion.
+ *
+ * <p>Each connection sends one element string per line ({@code \n} or
+ * {@code \r\n}, FNC1 as byte 29) and receives one JSON line per element string,
+ * in order, as written by {@link Gs1Json}. Empty lines are ignored.
+ *
+ * <p>Each connection is served by its own thread: a virtual thread on Java 21 and
+ * later, a pooled platform thread on Java 17 (see {@link ServerThreads}), where
+ * {@link Builder#maxConnections(int)} defaults to far fewer connections. Lines are
+ * parsed in place from the read buffer into a context owned by the connection.
+ *
+ * <p>Responses to pipelined lines are written in batches of up to
+ * {@link Builder#maxPending(int)} and always flushed before the connection waits
+ * for more input. A client that stops reading responses therefore blocks its own
+ * connection once the socket buffers fill, and the server stops reading from it;
+ * memory per connection stays bounded by the read buffer.
+ *
+ * <p>{@link #close()} drains: it stops accepting, lets every connection answer the
+ * lines it has already received, and closes connections that have not finished
+ * within the drain timeout.
+ */
+public final class Gs1TcpServer implements AutoCloseable {
+
+    private final Gs1Parser parser;
+    private final InetAddress bindAddress;
+    private final int requestedPort;
+    private final int readTimeoutMillis;
+    private final int maxPending;
+    private final int maxLineLength;
+    private final int maxConnections;
+    private final Semaphore connectionPermits;
+    private final Duration drainTimeout;
+
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private ExecutorService executor;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+    private volatile boolean closing;
+
+    private Gs1TcpServer(Builder builder) {
+        this.parser = builder.parser;
+        this.bindAddress = builder.bindAddress;
+        this.requestedPort = builder.port;
+        this.readTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, builder.readTimeout.toMillis());
+        this.maxPending = builder.maxPending;
+        this.maxLineLength = builder.maxLineLength;
+        this.maxConnections = builder.maxConnections;
+        this.connectionPermits = new Semaphore(builder.maxConnections);
+        this.drainTimeout = builder.drainTimeout;
+    }
+
+    /**
+     * Creates a builder for a server that parses with {@code parser}.
+     *
+     * @param parser the parser to use
+     * @return a new builder
+     */
+    public static Builder builder(Gs1Parser parser) {
+        return new Builder(parser);
+    }
+
+    /**
+     * Binds the server socket and starts accepting connections.
+     *
+     * @return this server
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalStateException if the server was already started
+     */
+    public synchronized Gs1TcpServer start() throws IOException {
+        if (serverSocket != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(bindAddress, requestedPort), 1024);
+        serverSocket = socket;
+        executor = ServerThreads.perTaskExecutor("gs1-tcp", maxConnections);
+        acceptor = new Thread(this::acceptLoop, "gs1-tcp-acceptor");
+        acceptor.start();
+        return this;
+    }
+
+    /**
+     * @return the bound port, useful when the server was started on port 0
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the number of open connections
+     */
+    public int activeConnections() {
+        return connections.size();
+    }
+
+    /**
+     * Blocks until the server has been closed and drained.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    /**
+     * Stops accepting connections and drains the open ones: each connection
+     * answers the lines it has already received and is then closed. Connections
+     * still open after the drain timeout are closed forcibly.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closing || serverSocket == null) {
+                return;
+            }
+            closing = true;
+        }
+        closeQuietly(serverSocket);
+        for (Socket socket : connections) {
+            try {
+                // Reads see end of stream once the buffered input is consumed
+                socket.shutdownInput();
+            } catch (IOException e) {
+                closeQuietly(socket);
+            }
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                connections.forEach(Gs1TcpServer::closeQuietly);
+                executor.shutdownNow();
+            }
+            acceptor.join(drainTimeout.toMillis());
+        } catch (InterruptedException e) {
+            connections.forEach(Gs1TcpServer::closeQuietly);
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closing) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (closing) {
+                    return;
+                }
+                // For example out of file descriptors; back off instead of spinning
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            if (!connectionPermits.tryAcquire()) {
+                reject(socket);
+                continue;
+            }
+            connections.add(socket);
+            try {
+                executor.execute(() -> serve(socket));
+            } catch (RuntimeException e) {
+                // Rejected because the server is shutting down
+                connections.remove(socket);
+                connectionPermits.release();
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void reject(Socket socket) {
+        try (socket) {
+            StringBuilder sb = Gs1Json.appendError(new StringBuilder(), "SERVER_BUSY",
+                    "Too many connections").append('\n');
+            socket.getOutputStream().write(sb.toString().getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            // The client is gone; nothing to report
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setSoTimeout(readTimeoutMillis);
+            socket.setTcpNoDelay(true);
+            new Connection(socket.getInputStream(), socket.getOutputStream()).run();
+        } catch (SocketTimeoutException | SocketException e) {
+            // Idle timeout, reset by the client or closed on forced shutdown
+        } catch (IOException e) {
+            // The connection is lost; other connections are unaffected
+        } finally {
+            connections.remove(socket);
+            connectionPermits.release();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * The read-parse-respond loop of one connection.
+     */
+    private final class Connection {
+        private final InputStream in;
+        private final OutputStream out;
+        private final Gs1ParseContext context = new Gs1ParseContext();
+        private final StringBuilder json = new StringBuilder(256);
+        private byte[] buffer = new byte[Math.min(8192, maxLineLength + 2)];
+        private byte[] encoded = new byte[256];
+        private int pending;
+
+        Connection(InputStream in, OutputStream out) {
+            this.in = in;
+            this.out = new BufferedOutputStream(out, 16384);
+        }
+
+        void run() throws IOException {
+            int start = 0;
+            int end = 0;
+            while (true) {
+                AsciiCharSequence window = AsciiCharSequence.of(buffer, start, end - start);
+                int newline = ScanKernels.indexOf(window, '\n', 0, window.length());
+                if (newline >= 0) {
+                    respond(start, start + newline);
+                    start += newline + 1;
+                    continue;
+                }
+
+                // Out of complete lines: flush before blocking on the next read
+                flush();
+                if (end - start > maxLineLength) {
+                    write(Gs1Json.appendError(json, "LINE_TOO_LONG",
+                            "Line exceeds " + maxLineLength + " bytes"));
+                    flush();
+                    return;
+                }
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                }
+                if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxLineLength + 2));
+                }
+                int n = in.read(buffer, end, buffer.length - end);
+                if (n < 0) {
+                    if (end > start) {
+                        respond(start, end);
+                    }
+                    flush();
+                    return;
+                }
+                end += n;
+            }
+        }
+
+        private void respond(int start, int end) throws IOException {
+            if (end > start && buffer[end - 1] == '\r') {
+                end--;
+            }
+            if (end == start) {
+                return;
+            }
+            Gs1ParseError error = parser.tryParse(AsciiCharSequence.of(buffer, start, end - start), context);
+            write(error == null ? Gs1Json.appendResult(json, context) : Gs1Json.appendError(json, error));
+            if (pending >= maxPending) {
+                flush();
+            }
+        }
+
+        private void write(StringBuilder sb) throws IOException {
+            sb.append('\n');
+            int length = sb.length();
+            if (encoded.length < length) {
+                encoded = new byte[Math.max(length, encoded.length * 2)];
+            }
+            // Gs1Json output is ASCII
+            for (int i = 0; i < length; i++) {
+                encoded[i] = (byte) sb.charAt(i);
+            }
+            out.write(encoded, 0, length);
+            sb.setLength(0);
+            pending++;
+        }
+
+        private void flush() throws IOException {
+            if (pending > 0) {
+                out.flush();
+                pending = 0;
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link Gs1TcpServer}.
+     */
+    public static final class Builder {
+        private final Gs1Parser parser;
+        private InetAddress bindAddress;
+        private int port;
+        private Duration readTimeout = Duration.ofMinutes(5);
+        private int maxPending = 64;
+        private int maxLineLength = 4096;
+        private int maxConnections = ServerThreads.defaultMaxConnections();
+        private Duration drainTimeout = Duration.ofSeconds(10);
+
+        private Builder(Gs1Parser parser) {
+            this.parser = Objects.requireNonNull(parser, "parser");
+        }
+
+        /**
+         * @param port the port to listen on; 0 picks a free port
+         * @return this builder
+         */
+        public Builder port(int port) {
+            if (port < 0 || port > 65535) {
+                throw new IllegalArgumentException("Invalid port: " + port);
+            }
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param address the address to bind to; null (the default) binds all interfaces
+         * @return this builder
+         */
+        public Builder bindAddress(InetAddress address) {
+            this.bindAddress = address;
+            return this;
+        }
+
+        /**
+         * @param timeout how long a connection may stay idle before it is closed; zero disables the timeout
+         * @return this builder
+         */
+        public Builder readTimeout(Duration timeout) {
+            this.readTimeout = requireNonNegative(timeout, "Read timeout");
+            return this;
+        }
+
+        /**
+         * @param maxPending the number of responses buffered for a pipelining client before they are flushed
+         * @return this builder
+         */
+        public Builder maxPending(int maxPending) {
+            this.maxPending = requirePositive(maxPending, "Max pending");
+            return this;
+        }
+
+        /**
+         * @param maxLineLength the longest accepted line in bytes; longer lines close the connection
+         * @return this builder
+         */
+        public Builder maxLineLength(int maxLineLength) {
+            this.maxLineLength = requirePositive(maxLineLength, "Max line length");
+            return this;
+        }
+
+        /**
+         * @param maxConnections the number of concurrent connections; further clients are rejected.
+         *                       Defaults to 10,000 on Java 21 and later and to 256 on Java 17,
+         *                       where each connection holds a platform thread
+         * @return this builder
+         */
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = requirePositive(maxConnections, "Max connections");
+            return this;
+        }
+
+        /**
+         * @param timeout how long {@link Gs1TcpServer#close()} waits for connections to drain
+         * @return this builder
+         */
+        public Builder drainTimeout(Duration timeout) {
+            this.drainTimeout = requireNonNegative(timeout, "Drain timeout");
+            return this;
+        }
+
+        /**
+         * @return a new, not yet started server
+         */
+        public Gs1TcpServer build() {
+            return new Gs1TcpServer(this);
+        }
+
+        private static int requirePositive(int value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+            return value;
+        }
+
+        private static Duration requireNonNegative(Duration value, String name) {
+            if (value.isNegative()) {
+                throw new IllegalArgumentException(name + " must not be negative: " + value);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package no.nofuzz.gs1.cli;
+
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import no.nofuzz.gs1.parser.Gs1Parser;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent single-scan requests into batches.
+ *
+ * <p>A collector thread takes the first queued request, waits up to the window
+ * for more (or until the batch is full) and hands the batch to the executor as a
+ * single task. Request threads block on their own future only, so the cost of
+ * scheduling is paid once per batch rather than once per scan, while the next
+ * batch is collected as the previous one is parsed.
+ */
+final class MicroBatcher implements AutoCloseable {
+
+    private final Gs1Parser parser;
+    private final Executor executor;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread collector;
+    // Orders queueing against closing, so nothing is queued after the collector's final drain
+    private final Object lock = new Object();
+    private volatile boolean closed;
+
+    final LongAdder batches = new LongAdder();
+    final LongAdder scans = new LongAdder();
+
+    /**
+     * Fails the requests that were not parsed because the batcher was closed.
+     */
+    static final class ClosedException extends IllegalStateException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        ClosedException() {
+            super("Batcher is closed");
+        }
+    }
+
+    private record Request(CharSequence input, CompletableFuture<Gs1ParseOutcome> outcome) {
+    }
+
+    MicroBatcher(Gs1Parser parser, Executor executor, long windowNanos, int maxBatch) {
+        this.parser = parser;
+        this.executor = executor;
+        this.windowNanos = windowNanos;
+        this.maxBatch = maxBatch;
+        this.collector = new Thread(this::collect, "gs1-http-batcher");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    /**
+     * Queues {@code input} for the next batch.
+     *
+     * @return the outcome, completed once the batch has been parsed
+     */
+    CompletableFuture<Gs1ParseOutcome> submit(CharSequence input) {
+        CompletableFuture<Gs1ParseOutcome> outcome = new CompletableFuture<>();
+        synchronized (lock) {
+            if (!closed) {
+                queue.add(new Request(input, outcome));
+                return outcome;
+            }
+        }
+        outcome.completeExceptionally(new ClosedException());
+        return outcome;
+    }
+
+    private void collect() {
+        List<Request> batch = new ArrayList<>(maxBatch);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    // Take whatever is already queued before waiting out the window
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(List.copyOf(batch));
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Fail whatever is left so no request thread waits forever
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.outcome().completeExceptionally(new ClosedException());
+        }
+    }
+
+    private void dispatch(List<Request> batch) {
+        batches.increment();
+        scans.add(batch.size());
+        try {
+            executor.execute(() -> {
+                for (Request request : batch) {
+                    try {
+                        request.outcome().complete(parser.tryParse(request.input()));
+                    } catch (Throwable t) {
+                        // Errors too, so the rest of the batch is still parsed
+                        request.outcome().completeExceptionally(t);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(request -> request.outcome().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Stops accepting requests after the queued ones have been dispatched.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        try {
+            collector.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
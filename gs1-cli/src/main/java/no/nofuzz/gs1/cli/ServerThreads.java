@@ -0,0 +1,95 @@
+package no.nofuzz.gs1.cli;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors that run one task per connection.
+ *
+ * <p>On Java 21 and later each task gets its own virtual thread, so thousands of
+ * mostly idle scanner connections cost little more than their sockets. The
+ * toolkit targets Java 17, so the virtual thread API is looked up reflectively;
+ * on Java 17 a bounded pool of daemon platform threads is used instead. A platform
+ * thread per connection stops scaling at a few thousand connections, so servers
+ * default to {@link #defaultMaxConnections()} concurrent connections there.
+ */
+final class ServerThreads {
+
+    /** The most platform threads a fallback pool starts, unless a server asks for more. */
+    static final int MAX_PLATFORM_THREADS = 256;
+
+    private static final boolean VIRTUAL = virtualThreadFactory("probe") != null;
+
+    private ServerThreads() {
+    }
+
+    /**
+     * @param name the prefix for thread names
+     * @param maxPlatformThreads the size of the platform thread pool used before Java 21;
+     *                           further tasks wait for a free thread
+     * @return an executor that starts a new virtual thread per task if possible, or
+     *         else runs tasks on at most {@code maxPlatformThreads} pooled threads
+     */
+    static ExecutorService perTaskExecutor(String name, int maxPlatformThreads) {
+        ExecutorService virtual = virtualPerTaskExecutor(name);
+        if (virtual != null) {
+            return virtual;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxPlatformThreads, maxPlatformThreads,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Idle threads exit, as in a cached pool
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * @return true if tasks run on virtual threads
+     */
+    static boolean virtualThreadsAvailable() {
+        return VIRTUAL;
+    }
+
+    /**
+     * @return the default number of concurrent connections: 10,000 on virtual
+     *         threads, {@link #MAX_PLATFORM_THREADS} on platform threads
+     */
+    static int defaultMaxConnections() {
+        return VIRTUAL ? 10_000 : MAX_PLATFORM_THREADS;
+    }
+
+    private static ExecutorService virtualPerTaskExecutor(String name) {
+        ThreadFactory factory = virtualThreadFactory(name);
+        if (factory == null) {
+            return null;
+        }
+        try {
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // Thread.ofVirtual().name(name + "-", 1).factory(), or null before Java 21
+    private static ThreadFactory virtualThreadFactory(String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates {@code no.nofuzz.gs1.ai.StandardAiTable} from the AI dictionary in
+ * {@code src/main/gs1/standard-ais.txt}; see that file for its format.
+ *
+ * <p>Run as a single-file program during generate-sources:
+ * <pre>
+ * java src/build/GenerateStandardAis.java src/main/gs1/standard-ais.txt target/generated-sources/gs1
+ * </pre>
+ */
+public final class GenerateStandardAis {
+
+    private static final Pattern LINE = Pattern.compile(
+            "(?<ai>\\d{2,4})(?:-(?<last>\\d{2,4}))?\\s+(?<set>[NAXY])(?<range>\\.\\.)?(?<length>\\d+)(?<csum>,csum)?"
+                    + "(?:\\s+(?<type>date|int|measure))?\\s*(?:#\\s*(?<title>.*))?");
+
+    private static final Map<String, String> CHARACTER_SETS = Map.of(
+            "N", "NUMERIC", "A", "ALPHANUMERIC", "X", "CSET82", "Y", "CSET39");
+
+    private static final Map<String, String> TYPES = Map.of(
+            "", "STRING", "date", "DATE", "int", "INTEGER", "measure", "MEASURE");
+
+    private static final int COLUMNS = 12;
+
+    private record Ai(String code, int fixedLength, int maxLength, String characterSet, boolean checkDigit,
+                      String type, String title) {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: GenerateStandardAis <dictionary> <output directory>");
+            System.exit(2);
+        }
+        Path dictionary = Path.of(args[0]);
+        Map<String, Ai> ais = read(dictionary);
+
+        Path output = Path.of(args[1], "no", "nofuzz", "gs1", "ai", "StandardAiTable.java");
+        String source = generate(ais.values().stream().sorted(Comparator.comparing(Ai::code)).toList());
+        Files.createDirectories(output.getParent());
+        // Left untouched when unchanged, so the compiler can skip it
+        if (!Files.exists(output) || !Files.readString(output, StandardCharsets.UTF_8).equals(source)) {
+            Files.writeString(output, source, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, Ai> read(Path dictionary) throws IOException {
+        Map<String, Ai> ais = new TreeMap<>();
+        List<String> lines = Files.readAllLines(dictionary, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            Matcher m = LINE.matcher(line);
+            if (!m.matches()) {
+                throw error(dictionary, i, "cannot parse \"" + line + "\"");
+            }
+
+            String first = m.group("ai");
+            String last = m.group("last") != null ? m.group("last") : first;
+            String prefix = first.substring(0, first.length() - 1);
+            if (last.length() != first.length() || !last.startsWith(prefix) || last.compareTo(first) < 0) {
+                throw error(dictionary, i, "a range must only vary the last digit: " + first + "-" + last);
+            }
+
+            int length = Integer.parseInt(m.group("length"));
+            boolean variable = m.group("range") != null;
+            String type = m.group("type") != null ? m.group("type") : "";
+            if (length < 1 || length > Byte.MAX_VALUE) {
+                throw error(dictionary, i, "unsupported length " + length);
+            }
+            if (!type.isEmpty() && !m.group("set").equals("N")) {
+                throw error(dictionary, i, type + " values must be numeric");
+            }
+
+            for (char d = first.charAt(first.length() - 1); d <= last.charAt(last.length() - 1); d++) {
+                String code = prefix + d;
+                Ai ai = new Ai(code, variable ? 0 : length, length, CHARACTER_SETS.get(m.group("set")),
+                        m.group("csum") != null, TYPES.get(type), m.group("title"));
+                if (ais.putIfAbsent(code, ai) != null) {
+                    throw error(dictionary, i, "AI " + code + " is defined twice");
+                }
+            }
+        }
+        return ais;
+    }
+
+    private static IllegalArgumentException error(Path dictionary, int line, String message) {
+        return new IllegalArgumentException(dictionary + ":" + (line + 1) + ": " + message);
+    }
+
+    private static String generate(List<Ai> ais) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package no.nofuzz.gs1.ai;\n\n");
+        sb.append("// Generated from src/main/gs1/standard-ais.txt by src/build/GenerateStandardAis.java. Do not edit.\n\n");
+        sb.append("/**\n");
+        sb.append(" * The standard AIs as parallel arrays, indexed by ordinal in ascending code order.\n");
+        sb.append(" */\n");
+        sb.append("final class StandardAiTable {\n\n");
+        sb.append("    static final byte STRING = 0;\n");
+        sb.append("    static final byte DATE = 1;\n");
+        sb.append("    static final byte INTEGER = 2;\n");
+        sb.append("    static final byte MEASURE = 3;\n\n");
+
+        sb.append("    static final String[] CODES = {\n");
+        for (Ai ai : ais) {
+            sb.append("            \"").append(ai.code()).append("\",");
+            if (ai.title() != null) {
+                sb.append(" // ").append(ai.title());
+            }
+            sb.append('\n');
+        }
+        sb.append("    };\n\n");
+
+        sb.append("    // 0 for variable-length AIs\n");
+        array(sb, "byte", "FIXED_LENGTHS", ais.stream().map(ai -> String.valueOf(ai.fixedLength())).toList());
+        array(sb, "byte", "MAX_LENGTHS", ais.stream().map(ai -> String.valueOf(ai.maxLength())).toList());
+        array(sb, "CharacterSet", "CHARACTER_SETS", ais.stream().map(ai -> "CharacterSet." + ai.characterSet()).toList());
+        array(sb, "boolean", "CHECK_DIGITS", ais.stream().map(ai -> String.valueOf(ai.checkDigit())).toList());
+        array(sb, "byte", "TYPES", ais.stream().map(Ai::type).toList());
+
+        sb.append("    private StandardAiTable() {}\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static void array(StringBuilder sb, String type, String name, List<String> values) {
+        sb.append("    static final ").append(type).append("[] ").append(name).append(" = {");
+        List<String> row = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            row.add(values.get(i));
+            if (row.size() == COLUMNS || i == values.size() - 1) {
+                sb.append("\n            ").append(String.join(", ", row)).append(',');
+                row.clear();
+            }
+        }
+        sb.append("\n    };\n\n");
+    }
+}
@@ -1,21 +1,327 @@
 package no.nofuzz.gs1.ai;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
+/**
+ * Immutable set of Application Identifiers known to a parser.
+ *
+ * <p>Besides lookup by code, every registered AI is assigned a stable ordinal
+ * (its position in ascending code order). Numeric AI codes of 2, 3 and 4 digits
+ * are additionally compiled into direct-indexed tables keyed by the numeric value
+ * of the code, so that the AI at a given input position can be resolved without
+ * allocating candidate substrings or probing the map. Other codes, such as
+ * custom AIs with letters, are only held in the map.
+ *
+ * <p>{@link #withOverrides(Map)} derives a registry from an existing one without
+ * recompiling it: the derived registry shares the lookup tables of its base and
+ * copies them only when the overrides add codes. AIs added this way get ordinals
+ * after those of the base, in ascending code order among themselves.
+ */
 public class AiRegistry {
 
-    private final Map<String, ApplicationIdentifier> registry;
+    private static final int NO_AI = 0;
+
+    private final Map<String, Integer> ordinals;
+    private final String[] codes;
+    private final ApplicationIdentifier[] definitions;
+
+    // Ordinal + 1 of the AI registered for each 2, 3 and 4 digit code, NO_AI if none
+    private final short[] twoDigitAis;
+    private final short[] threeDigitAis;
+    private final short[] fourDigitAis;
+    // Whether some codes of 2 to 4 characters are not numeric, so longestMatch must also probe the map
+    private final boolean hasMapOnlyCodes;
+
+    // Built on first call to asMap()
+    private volatile Map<String, ApplicationIdentifier> registry;
 
     public AiRegistry(Map<String, ApplicationIdentifier> registry) {
+        this(sortedCodes(registry), registry);
+    }
+
+    private AiRegistry(String[] codes, Map<String, ApplicationIdentifier> registry) {
+        this(codes, Arrays.stream(codes).map(registry::get).toArray(ApplicationIdentifier[]::new));
         this.registry = Map.copyOf(registry);
     }
 
+    /**
+     * Creates a registry from parallel arrays, without building a map.
+     *
+     * @param codes the AI codes in ascending order, without duplicates
+     * @param definitions the AI registered for each code; not copied
+     */
+    AiRegistry(String[] codes, ApplicationIdentifier[] definitions) {
+        checkSize(codes.length);
+        this.codes = codes.clone();
+        this.definitions = definitions;
+        this.twoDigitAis = new short[100];
+        this.threeDigitAis = new short[1_000];
+        this.fourDigitAis = new short[10_000];
+
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int ordinal = 0; ordinal < codes.length; ordinal++) {
+            ordinals.put(codes[ordinal], ordinal);
+            compile(codes[ordinal], ordinal);
+        }
+        this.ordinals = Map.copyOf(ordinals);
+        this.hasMapOnlyCodes = Arrays.stream(codes).anyMatch(AiRegistry::isMapOnly);
+    }
+
+    private static String[] sortedCodes(Map<String, ApplicationIdentifier> registry) {
+        String[] codes = Map.copyOf(registry).keySet().toArray(new String[0]);
+        Arrays.sort(codes);
+        return codes;
+    }
+
+    private AiRegistry(AiRegistry base, Map<String, ApplicationIdentifier> overrides) {
+        String[] added = overrides.keySet().stream()
+                .filter(code -> base.ordinal(code) < 0)
+                .sorted()
+                .toArray(String[]::new);
+        checkSize(base.codes.length + added.length);
+
+        this.codes = Arrays.copyOf(base.codes, base.codes.length + added.length);
+        System.arraycopy(added, 0, codes, base.codes.length, added.length);
+        this.definitions = Arrays.copyOf(base.definitions, codes.length);
+        for (Map.Entry<String, ApplicationIdentifier> override : overrides.entrySet()) {
+            int ordinal = base.ordinal(override.getKey());
+            if (ordinal >= 0) {
+                definitions[ordinal] = override.getValue();
+            }
+        }
+
+        this.hasMapOnlyCodes = base.hasMapOnlyCodes || Arrays.stream(added).anyMatch(AiRegistry::isMapOnly);
+        if (added.length == 0) {
+            this.twoDigitAis = base.twoDigitAis;
+            this.threeDigitAis = base.threeDigitAis;
+            this.fourDigitAis = base.fourDigitAis;
+            this.ordinals = base.ordinals;
+            return;
+        }
+        this.twoDigitAis = base.twoDigitAis.clone();
+        this.threeDigitAis = base.threeDigitAis.clone();
+        this.fourDigitAis = base.fourDigitAis.clone();
+        Map<String, Integer> ordinals = new HashMap<>(base.ordinals);
+        for (int ordinal = base.codes.length; ordinal < codes.length; ordinal++) {
+            definitions[ordinal] = overrides.get(codes[ordinal]);
+            ordinals.put(codes[ordinal], ordinal);
+            compile(codes[ordinal], ordinal);
+        }
+        this.ordinals = Map.copyOf(ordinals);
+    }
+
+    private static void checkSize(int size) {
+        if (size >= Short.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Registry cannot hold more than " + (Short.MAX_VALUE - 1) + " AIs"
+            );
+        }
+    }
+
+    // Codes that longestMatch can resolve, but only through the map
+    private static boolean isMapOnly(String code) {
+        return code.length() >= 2 && code.length() <= 4 && numericValue(code, 0, code.length()) < 0;
+    }
+
+    private void compile(String code, int ordinal) {
+        if (code.length() < 2 || code.length() > 4) {
+            return; // only reachable through find()
+        }
+
+        int value = numericValue(code, 0, code.length());
+        if (value < 0) {
+            return;
+        }
+
+        short slot = (short) (ordinal + 1);
+        switch (code.length()) {
+            case 2 -> twoDigitAis[value] = slot;
+            case 3 -> threeDigitAis[value] = slot;
+            default -> fourDigitAis[value] = slot;
+        }
+    }
+
+    /**
+     * Returns a registry holding the AIs of this registry and {@code overrides}. An
+     * override replaces the AI registered for the same code; ordinals of the AIs
+     * of this registry are kept.
+     *
+     * @param overrides the AIs to add or replace, keyed by code
+     * @return the derived registry, or this registry if {@code overrides} is empty
+     */
+    public AiRegistry withOverrides(Map<String, ApplicationIdentifier> overrides) {
+        for (Map.Entry<String, ApplicationIdentifier> override : overrides.entrySet()) {
+            Objects.requireNonNull(override.getKey(), "code");
+            Objects.requireNonNull(override.getValue(), "ai");
+        }
+        return overrides.isEmpty() ? this : new AiRegistry(this, overrides);
+    }
+
     public Optional<ApplicationIdentifier> find(String ai) {
-        return Optional.ofNullable(registry.get(ai));
+        int ordinal = ordinal(ai);
+        return ordinal >= 0 ? Optional.of(definitions[ordinal]) : Optional.empty();
     }
 
     public Map<String, ApplicationIdentifier> asMap() {
-        return registry;
+        Map<String, ApplicationIdentifier> m = registry;
+        if (m == null) {
+            Map<String, ApplicationIdentifier> entries = new HashMap<>();
+            for (int ordinal = 0; ordinal < codes.length; ordinal++) {
+                entries.put(codes[ordinal], definitions[ordinal]);
+            }
+            m = Map.copyOf(entries);
+            registry = m;
+        }
+        return m;
+    }
+
+    /**
+     * Returns the number of registered AIs. Ordinals range from 0 (inclusive)
+     * to this value (exclusive).
+     *
+     * @return the number of registered AIs
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Returns the ordinal of the given AI code. Numeric codes of 2 to 4 digits are
+     * resolved through the prefix tables without hashing.
+     *
+     * @param ai the AI code
+     * @return the ordinal, or -1 if the AI is not registered
+     */
+    public int ordinal(String ai) {
+        return ordinal(ai, 0, ai.length());
+    }
+
+    /**
+     * Returns the ordinal of the AI code found in {@code input} between {@code from}
+     * (inclusive) and {@code to} (exclusive). Numeric codes of 2 to 4 digits are
+     * resolved through the prefix tables without allocation.
+     *
+     * @param input the input holding the AI code
+     * @param from the start of the code
+     * @param to the end of the code
+     * @return the ordinal, or -1 if the AI is not registered
+     */
+    public int ordinal(CharSequence input, int from, int to) {
+        int length = to - from;
+        if (length >= 2 && length <= 4) {
+            int value = numericValue(input, from, to);
+            if (value >= 0) {
+                short[] table = length == 2 ? twoDigitAis : length == 3 ? threeDigitAis : fourDigitAis;
+                return table[value] - 1;
+            }
+        }
+        Integer ordinal = ordinals.get(input.subSequence(from, to).toString());
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Returns the AI code registered at the given ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the AI code
+     */
+    public String code(int ordinal) {
+        return codes[ordinal];
+    }
+
+    /**
+     * Returns the AI definition registered at the given ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the AI definition
+     */
+    public ApplicationIdentifier get(int ordinal) {
+        return definitions[ordinal];
+    }
+
+    /**
+     * Resolves the longest registered AI starting at {@code pos}.
+     *
+     * <p>Candidates of 4, 3 and 2 digits are considered, longest first. The lookup
+     * uses the precompiled prefix tables and performs no allocation. If the registry
+     * holds codes of 2 to 4 characters that are not numeric, candidates of 4, 3 and
+     * 2 characters are considered instead, longest first, and those that are not
+     * numeric are looked up in the map.
+     *
+     * @param input the input to inspect
+     * @param pos the position where the AI would start
+     * @return the ordinal of the matching AI, or -1 if no registered AI starts at {@code pos}
+     */
+    public int longestMatch(CharSequence input, int pos) {
+        return hasMapOnlyCodes ? longestAnyMatch(input, pos) : longestNumericMatch(input, pos);
+    }
+
+    // A longer map-only code must win over a shorter numeric one, so each length is tried in turn
+    private int longestAnyMatch(CharSequence input, int pos) {
+        for (int length = Math.min(4, input.length() - pos); length >= 2; length--) {
+            int ordinal = ordinal(input, pos, pos + length);
+            if (ordinal >= 0) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Resolves the longest registered numeric AI starting at {@code pos}, ignoring
+     * codes that are not numeric even where one of them would be the longest match.
+     *
+     * <p>Candidates of 4, 3 and 2 digits are considered, longest first, through the
+     * precompiled prefix tables; no allocation is performed.
+     *
+     * @param input the input to inspect
+     * @param pos the position where the AI would start
+     * @return the ordinal of the matching AI, or -1 if no registered numeric AI starts at {@code pos}
+     */
+    public int longestNumericMatch(CharSequence input, int pos) {
+        int end = input.length();
+        if (pos + 2 > end) {
+            return -1;
+        }
+
+        int two = numericValue(input, pos, pos + 2);
+        if (two < 0) {
+            return -1;
+        }
+
+        int three = pos + 3 <= end ? appendDigit(two, input.charAt(pos + 2)) : -1;
+        int four = three >= 0 && pos + 4 <= end ? appendDigit(three, input.charAt(pos + 3)) : -1;
+
+        int slot = NO_AI;
+        if (four >= 0) {
+            slot = fourDigitAis[four];
+        }
+        if (slot == NO_AI && three >= 0) {
+            slot = threeDigitAis[three];
+        }
+        if (slot == NO_AI) {
+            slot = twoDigitAis[two];
+        }
+        return slot - 1;
+    }
+
+    private static int appendDigit(int value, char c) {
+        int digit = c - '0';
+        return (digit >= 0 && digit <= 9) ? value * 10 + digit : -1;
+    }
+
+    private static int numericValue(CharSequence s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = appendDigit(value, s.charAt(i));
+            if (value < 0) {
+                return -1;
+            }
+        }
+        return value;
     }
-}
\ No newline at end of file
+}
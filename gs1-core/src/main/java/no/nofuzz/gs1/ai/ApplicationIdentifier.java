@@ -13,6 +13,62 @@ public record ApplicationIdentifier(
 ) {
 
     public Object parse(String raw, boolean strict) {
+        validate(raw, strict);
+        return valueParser.apply(raw);
+    }
+
+    /**
+     * Checks a raw value against the length, character set and (in strict mode)
+     * check digit rules of this AI, without throwing.
+     *
+     * @param raw the raw value
+     * @param strict whether STRICT mode rules apply
+     * @return true if {@link #validate(String, boolean)} would accept the value
+     */
+    public boolean isValid(String raw, boolean strict) {
+        return isValid(raw, 0, raw.length(), strict);
+    }
+
+    /**
+     * Checks the value found in {@code input} between {@code from} (inclusive) and
+     * {@code to} (exclusive) without materializing it.
+     *
+     * @param input the input holding the value
+     * @param from the start of the value
+     * @param to the end of the value
+     * @param strict whether STRICT mode rules apply
+     * @return true if {@link #validate(String, boolean)} would accept the value
+     * @see #isValid(String, boolean)
+     */
+    public boolean isValid(CharSequence input, int from, int to, boolean strict) {
+        int length = to - from;
+        if (fixedLength != null && length != fixedLength) {
+            return false;
+        }
+
+        if (strict && maxLength != null && length > maxLength) {
+            return false;
+        }
+
+        if (!characterSetMatches(input, from, to)) {
+            return false;
+        }
+
+        if (strict && validateCheckDigit) {
+            return Gs1CheckDigit.isValid(input, from, to);
+        }
+        return true;
+    }
+
+    /**
+     * Validates a raw value against the length, character set and (in strict mode)
+     * check digit rules of this AI.
+     *
+     * @param raw the raw value
+     * @param strict whether STRICT mode rules apply
+     * @throws IllegalArgumentException describing the first rule the value violates
+     */
+    public void validate(String raw, boolean strict) {
         // Length validation
         if (fixedLength != null && raw.length() != fixedLength) {
             throw new IllegalArgumentException(
@@ -37,32 +93,28 @@ public record ApplicationIdentifier(
                 );
             }
         }
+    }
 
-        return valueParser.apply(raw);
+    private boolean characterSetMatches(CharSequence input, int from, int to) {
+        // NUMERIC values must have at least one digit
+        if (characterSet == CharacterSet.NUMERIC && from == to) {
+            return false;
+        }
+        return characterSet.matches(input, from, to);
     }
 
     private void validateCharacterSet(String value) {
-        switch (characterSet) {
-            case NUMERIC:
-                if (!value.matches("\\d+")) {
-                    throw new IllegalArgumentException(
-                            "AI " + code + " must contain only numeric characters (0-9), got: " + value
-                    );
-                }
-                break;
-
-            case ALPHANUMERIC:
-                // GS1 alphanumeric: 0-9, A-Z, space, and some special chars
-                if (!value.matches("[0-9A-Z !\"#$%&'()*+,\\-./:;<=>?_]*")) {
-                    throw new IllegalArgumentException(
-                            "AI " + code + " contains invalid characters: " + value
-                    );
-                }
-                break;
+        if (characterSetMatches(value, 0, value.length())) {
+            return;
+        }
 
-            case ANY:
-                // No validation
-                break;
+        if (characterSet == CharacterSet.NUMERIC) {
+            throw new IllegalArgumentException(
+                    "AI " + code + " must contain only numeric characters (0-9), got: " + value
+            );
         }
+        throw new IllegalArgumentException(
+                "AI " + code + " contains invalid characters: " + value
+        );
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,117 @@
 package no.nofuzz.gs1.ai;
 
+import no.nofuzz.gs1.scan.ScanKernels;
+
+/**
+ * Character sets that AI values are validated against.
+ *
+ * <p>Each set is compiled into a 128-bit membership mask over the ASCII range,
+ * so validating a value is a single loop of shifts and masks with no regular
+ * expressions involved. Range checks go through {@link ScanKernels}, which
+ * examines many characters per step for array-backed byte input.
+ */
 public enum CharacterSet {
     /**
      * Numeric characters only (0-9)
      */
-    NUMERIC,
+    NUMERIC("0123456789"),
 
     /**
      * Alphanumeric characters (0-9, A-Z, and limited special characters)
      */
-    ALPHANUMERIC,
+    ALPHANUMERIC("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ !\"#$%&'()*+,-./:;<=>?_"),
+
+    /**
+     * GS1 AI encodable character set 82 (0-9, A-Z, a-z and 20 special characters)
+     */
+    CSET82("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz!\"%&'()*+,-./:;<=>?_"),
+
+    /**
+     * GS1 AI encodable character set 39 (0-9, A-Z, '#', '-' and '/')
+     */
+    CSET39("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ#-/"),
 
     /**
      * Any characters allowed (no restriction)
      */
-    ANY
+    ANY(null);
+
+    // Membership bits for chars 0-63 and 64-127
+    private final long low;
+    private final long high;
+    // Whether chars outside the ASCII range are members
+    private final boolean nonAscii;
+
+    CharacterSet(String members) {
+        if (members == null) {
+            this.low = -1L;
+            this.high = -1L;
+            this.nonAscii = true;
+            return;
+        }
+
+        long low = 0;
+        long high = 0;
+        for (int i = 0; i < members.length(); i++) {
+            char c = members.charAt(i);
+            if (c < 64) {
+                low |= 1L << c;
+            } else {
+                high |= 1L << (c - 64);
+            }
+        }
+        this.low = low;
+        this.high = high;
+        this.nonAscii = false;
+    }
+
+    /**
+     * @param c the character to test
+     * @return true if {@code c} belongs to this character set
+     */
+    public boolean contains(char c) {
+        if (c < 64) {
+            return ((low >>> c) & 1L) != 0;
+        }
+        if (c < 128) {
+            // Shift distances are taken modulo 64
+            return ((high >>> c) & 1L) != 0;
+        }
+        return nonAscii;
+    }
+
+    /**
+     * Checks that every character of {@code s} between {@code from} (inclusive)
+     * and {@code to} (exclusive) belongs to this character set. An empty range
+     * matches.
+     *
+     * @param s the characters to validate
+     * @param from the start of the range
+     * @param to the end of the range
+     * @return true if all characters in the range are members
+     */
+    public boolean matches(CharSequence s, int from, int to) {
+        return indexOfInvalid(s, from, to) < 0;
+    }
+
+    /**
+     * @param s the characters to validate
+     * @return true if all characters of {@code s} are members
+     * @see #matches(CharSequence, int, int)
+     */
+    public boolean matches(CharSequence s) {
+        return matches(s, 0, s.length());
+    }
+
+    /**
+     * Finds the first character in the range that does not belong to this set.
+     *
+     * @param s the characters to validate
+     * @param from the start of the range
+     * @param to the end of the range
+     * @return the index of the first invalid character, or -1 if all are members
+     */
+    public int indexOfInvalid(CharSequence s, int from, int to) {
+        return ScanKernels.indexOfInvalid(s, from, to, this);
+    }
 }
@@ -17,9 +17,27 @@ package no.nofuzz.gs1.ai;
  * Products:                  0+27+5+0+1+3+0+3+5+9+0+0+0 = 57
  * Check digit: (10 - (57 % 10)) % 10 = (10 - 7) % 10 = 3 ✓
  * </pre>
+ *
+ * <p>The range-based methods work directly on the caller's characters and do not
+ * allocate. For bulk re-validation, {@link #validateAll(long[])} checks numeric
+ * keys held in {@code long}s two digits at a time, and {@link #validateAll(String[])}
+ * checks strings without throwing on malformed entries.
  */
 public final class Gs1CheckDigit {
 
+    // Weight-3 products, indexed by digit
+    private static final int[] TIMES_THREE = {0, 3, 6, 9, 12, 15, 18, 21, 24, 27};
+
+    // Weighted sum of a two-digit group, indexed by its value: the units digit is
+    // weighted 3 and the tens digit 1, as for digits counted from the right
+    private static final int[] PAIR_SUM = new int[100];
+
+    static {
+        for (int n = 0; n < 100; n++) {
+            PAIR_SUM[n] = TIMES_THREE[n % 10] + n / 10;
+        }
+    }
+
     private Gs1CheckDigit() {}
 
     /**
@@ -30,21 +48,25 @@ public final class Gs1CheckDigit {
      * @throws IllegalArgumentException if value is not numeric
      */
     public static int calculate(String value) {
-        if (!value.matches("\\d+")) {
-            throw new IllegalArgumentException("Value must be numeric");
-        }
-
-        int sum = 0;
-        int weight = 3;  // Start with weight 3 for rightmost digit
+        return calculate(value, 0, value.length());
+    }
 
-        // Process digits from right to left
-        for (int i = value.length() - 1; i >= 0; i--) {
-            int digit = value.charAt(i) - '0';
-            sum += digit * weight;
-            weight = (weight == 3) ? 1 : 3;  // Alternate between 3 and 1
+    /**
+     * Calculates the GS1 check digit for the digits of {@code value} between
+     * {@code from} (inclusive) and {@code to} (exclusive).
+     *
+     * @param value the characters holding the number (without check digit)
+     * @param from the start of the number
+     * @param to the end of the number
+     * @return the calculated check digit (0-9)
+     * @throws IllegalArgumentException if the range is empty or not numeric
+     */
+    public static int calculate(CharSequence value, int from, int to) {
+        int checkDigit = from < to ? checkDigitOf(value, from, to) : -1;
+        if (checkDigit < 0) {
+            throw new IllegalArgumentException("Value must be numeric");
         }
-
-        return (10 - (sum % 10)) % 10;
+        return checkDigit;
     }
 
     /**
@@ -52,21 +74,128 @@ public final class Gs1CheckDigit {
      *
      * @param gtin the complete GTIN including check digit
      * @return true if check digit is valid, false otherwise
-     * @throws IllegalArgumentException if GTIN is not numeric or empty
+     * @throws IllegalArgumentException if GTIN is not numeric, empty or a single digit
      */
     public static boolean validate(String gtin) {
-        if (gtin == null || gtin.isEmpty()) {
+        if (gtin == null) {
+            throw new IllegalArgumentException("GTIN cannot be null or empty");
+        }
+        return validate(gtin, 0, gtin.length());
+    }
+
+    /**
+     * Validates the check digit of the key held in {@code key} between
+     * {@code from} (inclusive) and {@code to} (exclusive). The last character of
+     * the range is the check digit.
+     *
+     * @param key the characters holding the key
+     * @param from the start of the key
+     * @param to the end of the key, just after the check digit
+     * @return true if check digit is valid, false otherwise
+     * @throws IllegalArgumentException if the range is shorter than 2 characters or not numeric
+     */
+    public static boolean validate(CharSequence key, int from, int to) {
+        if (from >= to) {
             throw new IllegalArgumentException("GTIN cannot be null or empty");
         }
-        if (!gtin.matches("\\d+")) {
+        // A check digit alone has nothing to check
+        if (to - from < 2) {
+            throw new IllegalArgumentException("GTIN must have at least 2 digits");
+        }
+        int actual = key.charAt(to - 1) - '0';
+        int expected = checkDigitOf(key, from, to - 1);
+        if (expected < 0 || actual < 0 || actual > 9) {
             throw new IllegalArgumentException("GTIN must be numeric");
         }
+        return actual == expected;
+    }
+
+    /**
+     * Like {@link #validate(CharSequence, int, int)}, but returns false instead of
+     * throwing for a range that is shorter than 2 characters or not numeric.
+     *
+     * @param key the characters holding the key
+     * @param from the start of the key
+     * @param to the end of the key, just after the check digit
+     * @return true if the range is numeric and its check digit is valid
+     */
+    public static boolean isValid(CharSequence key, int from, int to) {
+        if (to - from < 2) {
+            return false;
+        }
+        int actual = key.charAt(to - 1) - '0';
+        return actual >= 0 && actual <= 9 && checkDigitOf(key, from, to - 1) == actual;
+    }
+
+    /**
+     * Validates the check digit of a numeric key such as a GTIN, GLN or SSCC held
+     * in a {@code long}. The last decimal digit is the check digit. Leading zeros
+     * do not affect the check digit, so keys of any length up to 18 digits can be
+     * validated without knowing their length.
+     *
+     * @param key the key including check digit
+     * @return true if the check digit is valid, false otherwise or if {@code key} is negative
+     */
+    public static boolean validate(long key) {
+        if (key < 0) {
+            return false;
+        }
+        long rest = key / 10;
+        int sum = 0;
+        while (rest != 0) {
+            sum += PAIR_SUM[(int) (rest % 100)];
+            rest /= 100;
+        }
+        return (10 - sum % 10) % 10 == (int) (key % 10);
+    }
+
+    /**
+     * Validates many numeric keys in one call.
+     *
+     * @param keys the keys including check digits
+     * @return for each key, whether its check digit is valid
+     * @see #validate(long)
+     */
+    public static boolean[] validateAll(long[] keys) {
+        boolean[] valid = new boolean[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            valid[i] = validate(keys[i]);
+        }
+        return valid;
+    }
 
-        // Extract all digits except the last one (check digit)
-        String withoutCheck = gtin.substring(0, gtin.length() - 1);
-        int actualCheckDigit = gtin.charAt(gtin.length() - 1) - '0';
-        int expectedCheckDigit = calculate(withoutCheck);
+    /**
+     * Validates many keys in one call. Null, empty, single-digit and non-numeric
+     * entries are reported as invalid rather than throwing.
+     *
+     * @param keys the keys including check digits
+     * @return for each key, whether it is numeric and its check digit is valid
+     * @see #isValid(CharSequence, int, int)
+     */
+    public static boolean[] validateAll(String[] keys) {
+        boolean[] valid = new boolean[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            valid[i] = key != null && isValid(key, 0, key.length());
+        }
+        return valid;
+    }
 
-        return actualCheckDigit == expectedCheckDigit;
+    /**
+     * Calculates the check digit for the digits in the range, or returns -1 if a
+     * non-digit is found. Weights alternate 3, 1, 3, ... from the rightmost digit.
+     */
+    private static int checkDigitOf(CharSequence s, int from, int to) {
+        int sum = 0;
+        boolean timesThree = true;
+        for (int i = to - 1; i >= from; i--) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            sum += timesThree ? TIMES_THREE[digit] : digit;
+            timesThree = !timesThree;
+        }
+        return (10 - sum % 10) % 10;
     }
 }
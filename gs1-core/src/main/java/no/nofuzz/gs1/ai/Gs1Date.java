@@ -0,0 +1,151 @@
+package no.nofuzz.gs1.ai;
+
+import java.time.LocalDate;
+
+/**
+ * Decoder for GS1 dates in YYMMDD format, as used by AIs 11, 12, 13, 15, 16 and 17.
+ *
+ * <p>GS1 century windowing rule:
+ * <ul>
+ *   <li>Years 00-50 are interpreted as 2000-2050</li>
+ *   <li>Years 51-99 are interpreted as 1951-1999</li>
+ * </ul>
+ * A day of 00 means the last day of the month, so "250200" is 28 February 2025.
+ *
+ * <p>The epoch day of the first of every month in the window and the length of
+ * every month are precomputed, so decoding is digit arithmetic and two table
+ * lookups. {@link #epochDay(CharSequence, int, int)} returns the date as an
+ * {@code int} without creating a {@link LocalDate}; {@link #parse(CharSequence, int, int)}
+ * returns {@link LocalDate} instances that are created once per day and then shared.
+ */
+public final class Gs1Date {
+
+    /**
+     * Returned by {@link #epochDay(CharSequence, int, int)} for input that is not a valid date.
+     */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    private static final int FIRST_YEAR = 1951;
+    private static final int YEARS = 100;
+
+    // Indexed by (year - FIRST_YEAR) * 12 + month - 1
+    private static final int[] MONTH_START = new int[YEARS * 12];
+    private static final byte[] MONTH_LENGTH = new byte[YEARS * 12];
+
+    private static final int FIRST_EPOCH_DAY;
+    // Indexed by epoch day - FIRST_EPOCH_DAY, filled on first use
+    private static final LocalDate[] DATES;
+
+    static {
+        for (int y = 0; y < YEARS; y++) {
+            for (int m = 0; m < 12; m++) {
+                LocalDate first = LocalDate.of(FIRST_YEAR + y, m + 1, 1);
+                MONTH_START[y * 12 + m] = (int) first.toEpochDay();
+                MONTH_LENGTH[y * 12 + m] = (byte) first.lengthOfMonth();
+            }
+        }
+        FIRST_EPOCH_DAY = MONTH_START[0];
+        int last = MONTH_START[YEARS * 12 - 1] + MONTH_LENGTH[YEARS * 12 - 1];
+        DATES = new LocalDate[last - FIRST_EPOCH_DAY];
+    }
+
+    private Gs1Date() {}
+
+    /**
+     * Decodes the six characters of {@code s} between {@code from} (inclusive) and
+     * {@code to} (exclusive) to an epoch day, as returned by {@link LocalDate#toEpochDay()}.
+     *
+     * @param s the characters holding the date
+     * @param from the start of the date
+     * @param to the end of the date
+     * @return the epoch day, or {@link #INVALID} if the range is not a valid YYMMDD date
+     */
+    public static int epochDay(CharSequence s, int from, int to) {
+        if (to - from != 6) {
+            return INVALID;
+        }
+        int yy = twoDigits(s, from);
+        int mm = twoDigits(s, from + 2);
+        int dd = twoDigits(s, from + 4);
+        if (yy < 0 || mm < 1 || mm > 12 || dd < 0) {
+            return INVALID;
+        }
+
+        // 00-50 follow 51-99 in the window
+        int month = (yy <= 50 ? yy + 49 : yy - 51) * 12 + mm - 1;
+        int length = MONTH_LENGTH[month];
+        if (dd > length) {
+            return INVALID;
+        }
+        return MONTH_START[month] + (dd == 0 ? length : dd) - 1;
+    }
+
+    /**
+     * @param value the date string in YYMMDD format
+     * @return the epoch day, or {@link #INVALID} if {@code value} is not a valid YYMMDD date
+     * @see #epochDay(CharSequence, int, int)
+     */
+    public static int epochDay(String value) {
+        return epochDay(value, 0, value.length());
+    }
+
+    /**
+     * Decodes the six characters of {@code s} between {@code from} (inclusive) and
+     * {@code to} (exclusive) to a date.
+     *
+     * @param s the characters holding the date
+     * @param from the start of the date
+     * @param to the end of the date
+     * @return the parsed LocalDate
+     * @throws IllegalArgumentException if the range is not a valid YYMMDD date
+     */
+    public static LocalDate parse(CharSequence s, int from, int to) {
+        int epochDay = epochDay(s, from, to);
+        if (epochDay == INVALID) {
+            throw new IllegalArgumentException(
+                    "Invalid date format: " + s.subSequence(from, to) + " (expected YYMMDD)"
+            );
+        }
+        return toLocalDate(epochDay);
+    }
+
+    /**
+     * @param value the date string in YYMMDD format
+     * @return the parsed LocalDate
+     * @throws IllegalArgumentException if the date format is invalid
+     * @see #parse(CharSequence, int, int)
+     */
+    public static LocalDate parse(String value) {
+        return parse(value, 0, value.length());
+    }
+
+    /**
+     * Converts an epoch day to a date, reusing the shared instance for days inside
+     * the GS1 century window.
+     *
+     * @param epochDay the epoch day
+     * @return the date
+     */
+    public static LocalDate toLocalDate(int epochDay) {
+        int index = epochDay - FIRST_EPOCH_DAY;
+        if (index < 0 || index >= DATES.length) {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+        // LocalDate is immutable, so a racing thread at worst creates a duplicate
+        LocalDate date = DATES[index];
+        if (date == null) {
+            date = LocalDate.ofEpochDay(epochDay);
+            DATES[index] = date;
+        }
+        return date;
+    }
+
+    private static int twoDigits(CharSequence s, int pos) {
+        int tens = s.charAt(pos) - '0';
+        int units = s.charAt(pos + 1) - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+            return -1;
+        }
+        return tens * 10 + units;
+    }
+}
@@ -0,0 +1,73 @@
+package no.nofuzz.gs1.exception;
+
+import java.util.function.Supplier;
+
+/**
+ * Describes why an element string could not be parsed, without throwing.
+ *
+ * <p>Returned by the {@code tryParse} methods of {@link no.nofuzz.gs1.parser.Gs1Parser}.
+ * The error code, position and AI are recorded when the error is detected. The
+ * message is only formatted when {@link #getMessage()} is first called, so
+ * rejecting invalid input costs neither a stack trace nor string concatenation.
+ */
+public final class Gs1ParseError {
+
+    private final Gs1ErrorCode code;
+    private final int position;
+    private final String ai;
+    private Supplier<String> formatter;
+    private String message;
+
+    /**
+     * @param code the error code
+     * @param position the position in the input where the error was detected
+     * @param ai the AI the error relates to, or null if it is not tied to an AI
+     * @param message formats the error message on first use
+     */
+    public Gs1ParseError(Gs1ErrorCode code, int position, String ai, Supplier<String> message) {
+        this.code = code;
+        this.position = position;
+        this.ai = ai;
+        this.formatter = message;
+    }
+
+    public Gs1ErrorCode getCode() {
+        return code;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the AI code the error relates to, or null if the error is not tied to an AI
+     */
+    public String getAi() {
+        return ai;
+    }
+
+    /**
+     * Returns the error message, formatting it on first call.
+     *
+     * @return the error message, identical to the message of the corresponding {@link Gs1ParseException}
+     */
+    public synchronized String getMessage() {
+        if (message == null) {
+            message = formatter.get();
+            formatter = null;
+        }
+        return message;
+    }
+
+    /**
+     * @return an exception carrying this error
+     */
+    public Gs1ParseException toException() {
+        return new Gs1ParseException(this);
+    }
+
+    @Override
+    public String toString() {
+        return "Gs1ParseError{" + code + " at " + position + ": " + getMessage() + "}";
+    }
+}
@@ -1,14 +1,35 @@
 package no.nofuzz.gs1.exception;
 
+import java.io.Serial;
+
+/**
+ * Thrown when an element string cannot be parsed.
+ *
+ * <p>Parse exceptions describe bad input rather than bugs, so they do not capture
+ * a stack trace; {@link #getCode()} and {@link #getPosition()} locate the problem.
+ */
 public class Gs1ParseException extends RuntimeException {
 
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final Gs1ErrorCode code;
     private final int position;
+    // Formats the message lazily; not serializable, see writeReplace
+    private final transient Gs1ParseError error;
 
     public Gs1ParseException(Gs1ErrorCode code, String msg, int pos) {
-        super(msg);
+        super(msg, null, false, false);
         this.code = code;
         this.position = pos;
+        this.error = null;
+    }
+
+    public Gs1ParseException(Gs1ParseError error) {
+        super(null, null, false, false);
+        this.code = error.getCode();
+        this.position = error.getPosition();
+        this.error = error;
     }
 
     public Gs1ErrorCode getCode() {
@@ -18,4 +39,15 @@ public class Gs1ParseException extends RuntimeException {
     public int getPosition() {
         return position;
     }
-}
\ No newline at end of file
+
+    @Override
+    public String getMessage() {
+        return error != null ? error.getMessage() : super.getMessage();
+    }
+
+    // Serializes an exception with a lazily formatted message as one holding the formatted message
+    @Serial
+    private Object writeReplace() {
+        return error != null ? new Gs1ParseException(code, error.getMessage(), position) : this;
+    }
+}
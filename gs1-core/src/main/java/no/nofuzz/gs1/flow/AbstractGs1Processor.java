@@ -0,0 +1,423 @@
+package no.nofuzz.gs1.flow;
+
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import no.nofuzz.gs1.parser.Gs1Parser;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Base of the parsing processors: takes element strings from upstream, parses
+ * them in batches on an executor and emits the mapped outcomes downstream in
+ * upstream order.
+ *
+ * <p>Batching adapts to load. An item is dispatched on its own while fewer than
+ * {@code parallelism} batches are being parsed, so a slow stream sees no added
+ * latency; once all workers are busy, items accumulate into batches of up to
+ * {@code batchSize}. At most {@code 2 * batchSize * parallelism} items are
+ * requested from upstream and not yet emitted downstream, and upstream is
+ * replenished one batch at a time as downstream demand drains them.
+ *
+ * <p>Emission is serialized by a work-in-progress counter, so signals to the
+ * subscriber never overlap, and no thread is dedicated to the stream.
+ *
+ * @param <R> the type of the emitted items
+ */
+abstract class AbstractGs1Processor<R> implements Flow.Processor<CharSequence, R> {
+
+    private static final Flow.Subscription NO_SUBSCRIPTION = new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    };
+
+    private final Gs1Parser parser;
+    private final Executor executor;
+    private final int batchSize;
+    private final int parallelism;
+    private final int bufferSize;
+
+    // Guards current, ready and inFlight, and the order in which batches are sealed
+    private final Object lock = new Object();
+    private Batch current;
+    private final ArrayDeque<Batch> ready = new ArrayDeque<>();
+    private int inFlight;
+
+    // Sealed batches in upstream order, emitted from the head
+    private final ConcurrentLinkedQueue<Batch> batches = new ConcurrentLinkedQueue<>();
+
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    private final AtomicReference<Flow.Subscriber<? super R>> subscriber = new AtomicReference<>();
+    // Set once onSubscribe has returned, so no other signal can overtake it
+    private volatile Flow.Subscriber<? super R> downstream;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile Throwable fatal;
+    private volatile boolean cancelled;
+
+    // Only accessed by the thread that holds wip
+    private boolean terminated;
+    private long consumed;
+
+    AbstractGs1Processor(Settings<?> settings) {
+        this.parser = settings.parser;
+        this.executor = settings.executor;
+        this.batchSize = settings.batchSize;
+        this.parallelism = settings.parallelism;
+        this.bufferSize = (int) Math.min(Integer.MAX_VALUE, 2L * batchSize * parallelism);
+    }
+
+    /**
+     * Maps the outcome of one input to the item to emit.
+     *
+     * @return the item, or null to emit nothing for this input
+     * @throws RuntimeException to terminate the stream with this error
+     */
+    abstract R map(CharSequence input, Gs1ParseOutcome outcome);
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> s) {
+        Objects.requireNonNull(s, "subscriber");
+        if (!subscriber.compareAndSet(null, s)) {
+            s.onSubscribe(NO_SUBSCRIPTION);
+            s.onError(new IllegalStateException("This processor supports a single subscriber"));
+            return;
+        }
+        s.onSubscribe(new Downstream());
+        downstream = s;
+        start();
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+        if (!upstream.compareAndSet(null, subscription) || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        start();
+    }
+
+    @Override
+    public void onNext(CharSequence item) {
+        Objects.requireNonNull(item, "item");
+        Batch dispatch;
+        synchronized (lock) {
+            if (current == null) {
+                current = new Batch(batchSize);
+            }
+            current.inputs[current.size++] = item;
+            if (current.size == batchSize) {
+                seal(current);
+                ready.add(current);
+                current = null;
+            }
+            dispatch = nextDispatch();
+        }
+        dispatch(dispatch);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = Objects.requireNonNull(throwable, "throwable");
+        onComplete();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        Batch dispatch;
+        synchronized (lock) {
+            dispatch = nextDispatch();
+        }
+        dispatch(dispatch);
+        drain();
+    }
+
+    // Requests the first items once both ends are connected
+    private void start() {
+        Flow.Subscription s = upstream.get();
+        if (s != null && downstream != null && !cancelled && started.compareAndSet(false, true)) {
+            s.request(bufferSize);
+        }
+    }
+
+    private void seal(Batch batch) {
+        batch.outcomes = new Gs1ParseOutcome[batch.size];
+        batches.offer(batch);
+    }
+
+    // Must hold lock. Picks the next batch to parse if a worker is free, sealing a partial batch if nothing is full.
+    private Batch nextDispatch() {
+        if (inFlight >= parallelism) {
+            return null;
+        }
+        Batch batch = ready.poll();
+        if (batch == null && current != null) {
+            batch = current;
+            current = null;
+            seal(batch);
+        }
+        if (batch != null) {
+            inFlight++;
+        }
+        return batch;
+    }
+
+    private void dispatch(Batch batch) {
+        if (batch == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> parse(batch));
+        } catch (RuntimeException e) {
+            batch.failure = e;
+            completed(batch);
+        }
+    }
+
+    private void parse(Batch batch) {
+        try {
+            for (int i = 0; i < batch.size; i++) {
+                batch.outcomes[i] = parser.tryParse(batch.inputs[i]);
+            }
+        } catch (Throwable t) {
+            // Errors too, so a StackOverflowError in a value parser still reaches onError
+            batch.failure = t;
+        } finally {
+            completed(batch);
+        }
+    }
+
+    private void completed(Batch batch) {
+        batch.done = true;
+        Batch dispatch;
+        synchronized (lock) {
+            inFlight--;
+            dispatch = nextDispatch();
+        }
+        dispatch(dispatch);
+        drain();
+    }
+
+    // Whether all input has been parsed and emitted. Checked as one step under lock,
+    // since a completing worker may seal the current batch into batches at any time.
+    private boolean isDrained() {
+        synchronized (lock) {
+            return current == null && ready.isEmpty() && inFlight == 0 && batches.isEmpty();
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super R> s = downstream;
+            if (cancelled) {
+                batches.clear();
+            } else if (s != null && !terminated) {
+                emit(s);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emit(Flow.Subscriber<? super R> s) {
+        if (fatal != null) {
+            terminate(s, fatal);
+            return;
+        }
+        long requested = demand.get();
+        long emitted = 0;
+        while (!cancelled) {
+            Batch batch = batches.peek();
+            if (batch == null || !batch.done) {
+                break;
+            }
+            if (batch.failure != null) {
+                terminate(s, batch.failure);
+                return;
+            }
+            if (batch.index == batch.size) {
+                batches.poll();
+                continue;
+            }
+            if (emitted == requested) {
+                break;
+            }
+
+            int i = batch.index++;
+            CharSequence input = batch.inputs[i];
+            Gs1ParseOutcome outcome = batch.outcomes[i];
+            batch.inputs[i] = null;
+            batch.outcomes[i] = null;
+            replenish();
+
+            R item;
+            try {
+                item = map(input, outcome);
+            } catch (RuntimeException e) {
+                terminate(s, e);
+                return;
+            }
+            if (item != null) {
+                s.onNext(item);
+                emitted++;
+            }
+        }
+        if (emitted != 0 && requested != Long.MAX_VALUE) {
+            demand.addAndGet(-emitted);
+        }
+
+        if (!cancelled && upstreamDone && isDrained()) {
+            terminated = true;
+            Throwable error = upstreamError;
+            if (error != null) {
+                s.onError(error);
+            } else {
+                s.onComplete();
+            }
+        }
+    }
+
+    // Requests another batch from upstream for every batch of items that has left the buffer
+    private void replenish() {
+        if (++consumed == batchSize) {
+            consumed = 0;
+            Flow.Subscription s = upstream.get();
+            if (s != null && !upstreamDone) {
+                s.request(batchSize);
+            }
+        }
+    }
+
+    private void terminate(Flow.Subscriber<? super R> s, Throwable error) {
+        terminated = true;
+        cancelUpstream();
+        batches.clear();
+        s.onError(error);
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription s = upstream.get();
+        if (s != null) {
+            s.cancel();
+        }
+    }
+
+    private final class Downstream implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fatal = new IllegalArgumentException("Requested a non-positive number of items: " + n);
+            } else {
+                demand.getAndAccumulate(n, (current, add) -> {
+                    long sum = current + add;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelUpstream();
+            drain();
+        }
+    }
+
+    private static final class Batch {
+        final CharSequence[] inputs;
+        int size;
+        // Written by the worker before done is set
+        Gs1ParseOutcome[] outcomes;
+        Throwable failure;
+        volatile boolean done;
+        // Only accessed by the emitting thread
+        int index;
+
+        Batch(int capacity) {
+            this.inputs = new CharSequence[capacity];
+        }
+    }
+
+    /**
+     * Settings shared by the processor builders.
+     *
+     * @param <B> the concrete builder type
+     */
+    abstract static class Settings<B extends Settings<B>> {
+        private final Gs1Parser parser;
+        private Executor executor = ForkJoinPool.commonPool();
+        private int batchSize = 64;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        Settings(Gs1Parser parser) {
+            this.parser = Objects.requireNonNull(parser, "parser");
+        }
+
+        abstract B self();
+
+        /**
+         * Sets the executor that parses the batches. Defaults to the common fork/join pool.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public B executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor");
+            return self();
+        }
+
+        /**
+         * Sets the largest number of items parsed as one task. Defaults to 64.
+         *
+         * @param batchSize the batch size
+         * @return this builder
+         * @throws IllegalArgumentException if {@code batchSize} is not positive
+         */
+        public B batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            return self();
+        }
+
+        /**
+         * Sets the largest number of batches parsed at the same time. Defaults to
+         * the number of available processors.
+         *
+         * @param parallelism the number of concurrent batches
+         * @return this builder
+         * @throws IllegalArgumentException if {@code parallelism} is not positive
+         */
+        public B parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return self();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package no.nofuzz.gs1.flow;
+
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import no.nofuzz.gs1.parser.Gs1Parser;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link Flow.Processor} stage that parses element strings and emits the
+ * outcome of every input, successful or not, in input order.
+ *
+ * <p>This is the error-routing counterpart of {@link Gs1ParseProcessor}: invalid
+ * inputs do not terminate the stream but arrive as failed outcomes, so a
+ * downstream stage can split them off, for example to a dead-letter topic.
+ * Batching, parallelism and backpressure work as described there.
+ *
+ * <p>A processor supports a single subscriber and a single upstream subscription.
+ */
+public final class Gs1OutcomeProcessor extends AbstractGs1Processor<Gs1ParseOutcome> {
+
+    private Gs1OutcomeProcessor(Builder builder) {
+        super(builder);
+    }
+
+    /**
+     * Creates a processor with the default settings.
+     *
+     * @param parser the parser to use
+     * @return a new processor
+     */
+    public static Gs1OutcomeProcessor of(Gs1Parser parser) {
+        return builder(parser).build();
+    }
+
+    /**
+     * Creates a builder for a processor that parses with {@code parser}.
+     *
+     * @param parser the parser to use
+     * @return a new builder
+     */
+    public static Builder builder(Gs1Parser parser) {
+        return new Builder(parser);
+    }
+
+    @Override
+    Gs1ParseOutcome map(CharSequence input, Gs1ParseOutcome outcome) {
+        return outcome;
+    }
+
+    /**
+     * Builder for {@link Gs1OutcomeProcessor}.
+     */
+    public static final class Builder extends Settings<Builder> {
+
+        private Builder(Gs1Parser parser) {
+            super(parser);
+        }
+
+        @Override
+        Builder self() {
+            return this;
+        }
+
+        /**
+         * @return a new processor
+         */
+        public Gs1OutcomeProcessor build() {
+            return new Gs1OutcomeProcessor(this);
+        }
+    }
+}
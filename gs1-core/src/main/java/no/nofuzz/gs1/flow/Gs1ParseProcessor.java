@@ -0,0 +1,114 @@
+package no.nofuzz.gs1.flow;
+
+import no.nofuzz.gs1.exception.Gs1ParseError;
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import no.nofuzz.gs1.model.Gs1Result;
+import no.nofuzz.gs1.parser.Gs1Parser;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link Flow.Processor} stage that parses element strings into results.
+ *
+ * <p>Inputs are parsed in batches on an executor, up to {@code parallelism}
+ * batches at a time, and results are emitted in input order. Demand is honored
+ * end to end: the stage requests a bounded number of items from upstream and
+ * requests more only as the subscriber's demand drains them, so a slow
+ * subscriber slows the source down instead of growing a buffer. No thread is
+ * dedicated to the stream.
+ *
+ * <p>By default the first input that fails to parse cancels upstream and
+ * terminates the stream with a {@link no.nofuzz.gs1.exception.Gs1ParseException}.
+ * With {@link Builder#onParseError(BiConsumer)} failing inputs are routed to a
+ * handler instead and the stream continues. To receive failures in-band, use
+ * {@link Gs1OutcomeProcessor}.
+ *
+ * <pre>
+ * Gs1ParseProcessor processor = Gs1ParseProcessor.builder(parser)
+ *     .onParseError((input, error) -&gt; rejected.add(input + ": " + error.getMessage()))
+ *     .build();
+ * scans.subscribe(processor);
+ * processor.subscribe(inventoryUpdater);
+ * </pre>
+ *
+ * <p>A processor supports a single subscriber and a single upstream subscription.
+ */
+public final class Gs1ParseProcessor extends AbstractGs1Processor<Gs1Result> {
+
+    private final BiConsumer<CharSequence, Gs1ParseError> errorHandler;
+
+    private Gs1ParseProcessor(Builder builder) {
+        super(builder);
+        this.errorHandler = builder.errorHandler;
+    }
+
+    /**
+     * Creates a processor with the default settings.
+     *
+     * @param parser the parser to use
+     * @return a new processor
+     */
+    public static Gs1ParseProcessor of(Gs1Parser parser) {
+        return builder(parser).build();
+    }
+
+    /**
+     * Creates a builder for a processor that parses with {@code parser}.
+     *
+     * @param parser the parser to use
+     * @return a new builder
+     */
+    public static Builder builder(Gs1Parser parser) {
+        return new Builder(parser);
+    }
+
+    @Override
+    Gs1Result map(CharSequence input, Gs1ParseOutcome outcome) {
+        if (outcome.isSuccess()) {
+            return outcome.getResult();
+        }
+        if (errorHandler == null) {
+            throw outcome.getError().toException();
+        }
+        errorHandler.accept(input, outcome.getError());
+        return null;
+    }
+
+    /**
+     * Builder for {@link Gs1ParseProcessor}.
+     */
+    public static final class Builder extends Settings<Builder> {
+        private BiConsumer<CharSequence, Gs1ParseError> errorHandler;
+
+        private Builder(Gs1Parser parser) {
+            super(parser);
+        }
+
+        @Override
+        Builder self() {
+            return this;
+        }
+
+        /**
+         * Routes inputs that fail to parse to {@code handler} instead of
+         * terminating the stream. The handler is called in input order, from
+         * the thread that emits results, and consumes no downstream demand.
+         *
+         * @param handler receives each failing input and its error
+         * @return this builder
+         */
+        public Builder onParseError(BiConsumer<CharSequence, Gs1ParseError> handler) {
+            this.errorHandler = Objects.requireNonNull(handler, "handler");
+            return this;
+        }
+
+        /**
+         * @return a new processor
+         */
+        public Gs1ParseProcessor build() {
+            return new Gs1ParseProcessor(this);
+        }
+    }
+}
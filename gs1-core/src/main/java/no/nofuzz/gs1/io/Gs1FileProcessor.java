@@ -0,0 +1,380 @@
+package no.nofuzz.gs1.io;
+
+import no.nofuzz.gs1.exception.Gs1ParseError;
+import no.nofuzz.gs1.parser.Gs1ParseContext;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import no.nofuzz.gs1.scan.AsciiCharSequence;
+import no.nofuzz.gs1.scan.ScanKernels;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Parses files of newline-delimited element strings in parallel.
+ *
+ * <p>Plain files are memory-mapped and split into line-aligned chunks of about
+ * {@link Builder#chunkSize(int)} bytes that are parsed concurrently. A worker
+ * parses each line of its chunk in place in the mapping, through an
+ * {@link AsciiCharSequence} view, into a context reused for the whole chunk.
+ * Neither the chunk nor its lines are copied to the heap. Gzip-compressed files are recognized by their magic bytes and
+ * decompressed on the calling thread, which hands the decompressed chunks to the
+ * workers.
+ *
+ * <p>Lines may end in {@code \n} or {@code \r\n}; empty lines are skipped. Bytes
+ * are read as ISO-8859-1, so FNC1 is byte 29.
+ *
+ * <pre>
+ * Gs1FileProcessor processor = Gs1FileProcessor.builder(Gs1Parser.defaultParser()).build();
+ * LongAdder withExpiry = new LongAdder();
+ * Gs1FileProcessor.Summary summary = processor.process(Path.of("scans.log"),
+ *         (offset, scan) -&gt; { if (scan.contains("17")) withExpiry.increment(); });
+ * </pre>
+ *
+ * <p>Instances are immutable and thread-safe.
+ */
+public final class Gs1FileProcessor {
+
+    /**
+     * The number of lines and failed lines processed.
+     *
+     * @param lines the number of non-empty lines
+     * @param errors the number of lines that failed to parse
+     */
+    public record Summary(long lines, long errors) {
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    // Bytes read at a time when looking for the end of the line at a chunk boundary
+    private static final int BOUNDARY_PROBE = 4096;
+    // Longest line the stream path buffers, far beyond any valid element string
+    private static final int MAX_LINE_LENGTH = 1 << 20;
+
+    private final Gs1Parser parser;
+    private final Executor executor;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+
+    private Gs1FileProcessor(Builder builder) {
+        this.parser = builder.parser;
+        this.executor = builder.executor;
+        this.chunkSize = builder.chunkSize;
+        int parallelism = executor instanceof ForkJoinPool pool
+                ? pool.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.maxChunksInFlight = Math.max(2, parallelism * 2);
+    }
+
+    /**
+     * Creates a builder for a processor that parses with {@code parser}.
+     *
+     * @param parser the parser to use
+     * @return a new builder
+     */
+    public static Builder builder(Gs1Parser parser) {
+        return new Builder(parser);
+    }
+
+    /**
+     * Parses every line of {@code file} and delivers the outcomes to {@code sink}.
+     * Gzip-compressed files are decompressed on the fly.
+     *
+     * @param file the file to process
+     * @param sink the thread-safe sink receiving the outcome of each line
+     * @return the number of lines and errors
+     * @throws IOException if the file cannot be read
+     */
+    public Summary process(Path file, Gs1LineSink sink) throws IOException {
+        Objects.requireNonNull(sink, "sink");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (isGzip(channel)) {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 1 << 16)) {
+                    return process(in, sink);
+                }
+            }
+            return processMapped(channel, sink);
+        }
+    }
+
+    /**
+     * Parses every line read from {@code in} and delivers the outcomes to
+     * {@code sink}. The stream is read on the calling thread and is not closed.
+     *
+     * <p>Use this for compressed or otherwise non-mappable input, for example
+     * {@code new GZIPInputStream(...)}. At most a few chunks per worker are
+     * buffered at a time. Reading stops at the first chunk whose parsing or sink
+     * fails, and that failure is rethrown. If reading fails, that failure is
+     * rethrown with any chunk failure attached as suppressed.
+     *
+     * @param in the stream of newline-delimited element strings
+     * @param sink the thread-safe sink receiving the outcome of each line
+     * @return the number of lines and errors
+     * @throws IOException if reading the stream fails or a line is longer than 1 MB
+     */
+    public Summary process(InputStream in, Gs1LineSink sink) throws IOException {
+        Objects.requireNonNull(sink, "sink");
+        Counters counters = new Counters();
+        Chunks chunks = new Chunks();
+
+        byte[] buffer = new byte[chunkSize];
+        int filled = 0;
+        long base = 0;
+        try {
+            while (!chunks.failed()) {
+                int n = in.readNBytes(buffer, filled, buffer.length - filled);
+                filled += n;
+                boolean eof = filled < buffer.length;
+
+                int end = eof ? filled : lastLineEnd(buffer, filled);
+                if (end < 0) {
+                    // A single line longer than the buffer
+                    if (filled > MAX_LINE_LENGTH) {
+                        throw new IOException("Line at offset " + base + " is longer than " + MAX_LINE_LENGTH + " bytes");
+                    }
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    continue;
+                }
+
+                if (end > 0) {
+                    byte[] chunk = buffer;
+                    long chunkBase = base;
+                    int chunkEnd = end;
+                    chunks.submit(() -> parseChunk(AsciiCharSequence.of(chunk, 0, chunkEnd), chunkBase, sink, counters));
+                }
+                if (eof) {
+                    break;
+                }
+
+                // Carry the partial last line over into a fresh buffer
+                byte[] next = new byte[Math.max(chunkSize, filled - end)];
+                System.arraycopy(buffer, end, next, 0, filled - end);
+                filled -= end;
+                base += end;
+                buffer = next;
+            }
+        } catch (Throwable t) {
+            chunks.awaitAll(t);
+            throw t;
+        }
+        chunks.awaitAll();
+        return counters.summary();
+    }
+
+    private Summary processMapped(FileChannel channel, Gs1LineSink sink) throws IOException {
+        long size = channel.size();
+        Counters counters = new Counters();
+        Chunks chunks = new Chunks();
+        try {
+            long start = 0;
+            while (start < size && !chunks.failed()) {
+                long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+                // Mapped regions are limited to 2 GB; a longer line is an error anyway
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException("Line at or after offset " + start + " is too long to map");
+                }
+                ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                long chunkBase = start;
+                chunks.submit(() -> parseChunk(AsciiCharSequence.of(region), chunkBase, sink, counters));
+                start = end;
+            }
+        } catch (Throwable t) {
+            chunks.awaitAll(t);
+            throw t;
+        }
+        chunks.awaitAll();
+        return counters.summary();
+    }
+
+    private void parseChunk(AsciiCharSequence chunk, long base, Gs1LineSink sink, Counters counters) {
+        Gs1ParseContext context = new Gs1ParseContext();
+        int length = chunk.length();
+        long lines = 0;
+        long errors = 0;
+        int pos = 0;
+        while (pos < length) {
+            int newline = ScanKernels.indexOf(chunk, '\n', pos, length);
+            int next = newline < 0 ? length : newline + 1;
+            int end = newline < 0 ? length : newline;
+            if (end > pos && chunk.charAt(end - 1) == '\r') {
+                end--;
+            }
+            if (end > pos) {
+                lines++;
+                CharSequence line = chunk.subSequence(pos, end);
+                Gs1ParseError error = parser.tryParse(line, context);
+                if (error == null) {
+                    sink.result(base + pos, context);
+                } else {
+                    errors++;
+                    sink.error(base + pos, line, error);
+                }
+            }
+            pos = next;
+        }
+        counters.lines.add(lines);
+        counters.errors.add(errors);
+    }
+
+    // Returns the offset after the first newline at or after position, or size if there is none
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE);
+        long pos = position;
+        while (pos < size) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    // Returns the offset after the last newline in buffer[0, filled), or -1 if there is none
+    private static int lastLineEnd(byte[] buffer, int filled) {
+        for (int i = filled - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isGzip(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+        return channel.read(magic, 0) == 2 && (magic.get(0) & 0xFF) == 0x1F && (magic.get(1) & 0xFF) == 0x8B;
+    }
+
+    /**
+     * The chunks submitted by one call, of which at most {@code maxChunksInFlight}
+     * are queued or being parsed at a time.
+     */
+    private final class Chunks {
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+        private final Semaphore inFlight = new Semaphore(maxChunksInFlight);
+        private volatile boolean failed;
+
+        // Blocks until a permit is free, which also bounds the chunks held in memory
+        void submit(Runnable task) {
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<Void> future;
+            try {
+                future = CompletableFuture.runAsync(task, executor);
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+            pending.add(future.whenComplete((v, e) -> {
+                if (e != null) {
+                    failed = true;
+                }
+                inFlight.release();
+            }));
+        }
+
+        // Whether a chunk has failed, after which no more input is read
+        boolean failed() {
+            return failed;
+        }
+
+        void awaitAll() {
+            try {
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException re) {
+                    throw re;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        // Waits after reading failed, keeping a chunk failure as suppressed by the read failure
+        void awaitAll(Throwable readFailure) {
+            try {
+                awaitAll();
+            } catch (RuntimeException | Error e) {
+                readFailure.addSuppressed(e);
+            }
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder lines = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        Summary summary() {
+            return new Summary(lines.sum(), errors.sum());
+        }
+    }
+
+    /**
+     * Builder for {@link Gs1FileProcessor}.
+     */
+    public static final class Builder {
+        private final Gs1Parser parser;
+        private Executor executor = ForkJoinPool.commonPool();
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+        private Builder(Gs1Parser parser) {
+            this.parser = Objects.requireNonNull(parser, "parser");
+        }
+
+        /**
+         * Sets the executor that parses the chunks. Defaults to the common fork/join pool.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor");
+            return this;
+        }
+
+        /**
+         * Sets the approximate number of bytes per chunk. Chunks are extended to
+         * the end of the line they stop in. Defaults to 8 MB.
+         *
+         * @param bytes the chunk size in bytes
+         * @return this builder
+         * @throws IllegalArgumentException if {@code bytes} is not positive
+         */
+        public Builder chunkSize(int bytes) {
+            if (bytes <= 0) {
+                throw new IllegalArgumentException("Chunk size must be positive: " + bytes);
+            }
+            this.chunkSize = bytes;
+            return this;
+        }
+
+        /**
+         * @return a new processor
+         */
+        public Gs1FileProcessor build() {
+            return new Gs1FileProcessor(this);
+        }
+    }
+}
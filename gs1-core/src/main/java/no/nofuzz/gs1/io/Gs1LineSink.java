@@ -0,0 +1,38 @@
+package no.nofuzz.gs1.io;
+
+import no.nofuzz.gs1.exception.Gs1ParseError;
+import no.nofuzz.gs1.parser.Gs1ParseContext;
+
+/**
+ * Receives the outcome of each line from {@link Gs1FileProcessor}.
+ *
+ * <p>Chunks of a file are parsed in parallel, so a sink is called concurrently
+ * from several threads and must be thread-safe. Lines within one chunk are
+ * delivered in file order; chunks are delivered in no particular order. The
+ * byte offset identifies the line within the (uncompressed) input.
+ *
+ * <p>The context and line passed to the sink are reused for the next line of
+ * the chunk and are only valid during the call. Copy out what is needed, for
+ * example with {@link Gs1ParseContext#toResult()}.
+ */
+@FunctionalInterface
+public interface Gs1LineSink {
+
+    /**
+     * Called for each line that parsed successfully.
+     *
+     * @param offset the byte offset of the start of the line
+     * @param context the parsed elements of the line
+     */
+    void result(long offset, Gs1ParseContext context);
+
+    /**
+     * Called for each line that failed to parse. Does nothing by default.
+     *
+     * @param offset the byte offset of the start of the line
+     * @param line the line, without its line terminator
+     * @param error the error describing why the line was rejected
+     */
+    default void error(long offset, CharSequence line, Gs1ParseError error) {
+    }
+}
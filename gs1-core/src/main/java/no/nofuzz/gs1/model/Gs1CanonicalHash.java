@@ -0,0 +1,57 @@
+package no.nofuzz.gs1.model;
+
+/**
+ * The order- and format-independent hash of a set of elements, shared by
+ * {@link Gs1Result#canonicalHash()} and {@link no.nofuzz.gs1.parser.Gs1TokenBuffer#canonicalHash()}
+ * so that both give the same key for the same element string.
+ *
+ * <p>Each element is hashed with FNV-1a over the AI code, a separator and the raw
+ * value, followed by a 64-bit finalizer so that the sum over elements stays well
+ * mixed. The sum of the element hashes, which does not depend on element order,
+ * is finalized again with {@link #of(long)}.
+ */
+public final class Gs1CanonicalHash {
+
+    private Gs1CanonicalHash() {
+    }
+
+    /**
+     * Hashes one element.
+     *
+     * @param ai the AI code
+     * @param text the text holding the raw value
+     * @param valueStart the offset of the value in {@code text}
+     * @param valueEnd the offset just past the value
+     * @return the hash of the element
+     */
+    public static long element(String ai, CharSequence text, int valueStart, int valueEnd) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < ai.length(); i++) {
+            h = (h ^ ai.charAt(i)) * 0x100000001b3L;
+        }
+        // Not a valid AI or value character, so "(1)23" and "(12)3" differ
+        h = (h ^ 0xFFFF) * 0x100000001b3L;
+        for (int i = valueStart; i < valueEnd; i++) {
+            h = (h ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * @param elementHashSum the sum of the {@link #element element hashes} of a set of elements
+     * @return the canonical hash of the elements
+     */
+    public static long of(long elementHashSum) {
+        return mix(elementHashSum);
+    }
+
+    // Finalizer from MurmurHash3
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,150 @@
+package no.nofuzz.gs1.model;
+
+import java.math.BigDecimal;
+
+/**
+ * An immutable fixed-point number: an unscaled {@code long} and a number of
+ * implied decimal places.
+ *
+ * <p>Variable measure AIs (31nn-36nn) encode their value as digits with the
+ * number of decimal places given by the last digit of the AI, so AI 3102 with
+ * value "001250" is 12.50. The value is decoded straight from the digits into
+ * {@code unscaledValue = 1250, scale = 2}; {@link #toString()} and
+ * {@link #toBigDecimal()} convert only when called. Values with the same scale,
+ * such as net weights from the same AI, can be summed through
+ * {@link #unscaledValue()} without any conversion.
+ *
+ * <p>As with {@link BigDecimal}, {@link #equals(Object)} takes the scale into
+ * account, so 12.50 and 12.5 are not equal; use {@link #compareTo(Gs1Decimal)}
+ * to compare numerically.
+ */
+public final class Gs1Decimal implements Comparable<Gs1Decimal> {
+
+    // Enough digits for any value that fits in a long
+    private static final int MAX_DIGITS = 18;
+
+    private final long unscaledValue;
+    private final int scale;
+
+    private Gs1Decimal(long unscaledValue, int scale) {
+        this.unscaledValue = unscaledValue;
+        this.scale = scale;
+    }
+
+    /**
+     * @param unscaledValue the value without its decimal point
+     * @param scale the number of implied decimal places (0-18)
+     * @return the decimal {@code unscaledValue / 10^scale}
+     * @throws IllegalArgumentException if the scale is out of range
+     */
+    public static Gs1Decimal of(long unscaledValue, int scale) {
+        if (scale < 0 || scale > MAX_DIGITS) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_DIGITS + ": " + scale);
+        }
+        return new Gs1Decimal(unscaledValue, scale);
+    }
+
+    /**
+     * Decodes the digits of {@code s} between {@code from} (inclusive) and
+     * {@code to} (exclusive) as a number with {@code scale} implied decimal places.
+     *
+     * @param s the characters holding the digits
+     * @param from the start of the digits
+     * @param to the end of the digits
+     * @param scale the number of implied decimal places (0-18)
+     * @return the decoded decimal
+     * @throws IllegalArgumentException if the range is empty, longer than 18 digits or not numeric
+     */
+    public static Gs1Decimal parse(CharSequence s, int from, int to, int scale) {
+        if (from >= to || to - from > MAX_DIGITS) {
+            throw new IllegalArgumentException("Invalid decimal value: " + s.subSequence(from, to));
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Invalid decimal value: " + s.subSequence(from, to));
+            }
+            value = value * 10 + digit;
+        }
+        return of(value, scale);
+    }
+
+    /**
+     * @param digits the digits
+     * @param scale the number of implied decimal places (0-18)
+     * @return the decoded decimal
+     * @see #parse(CharSequence, int, int, int)
+     */
+    public static Gs1Decimal parse(String digits, int scale) {
+        return parse(digits, 0, digits.length(), scale);
+    }
+
+    /**
+     * @return the value without its decimal point
+     */
+    public long unscaledValue() {
+        return unscaledValue;
+    }
+
+    /**
+     * @return the number of implied decimal places
+     */
+    public int scale() {
+        return scale;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaledValue, scale);
+    }
+
+    public double doubleValue() {
+        return toBigDecimal().doubleValue();
+    }
+
+    @Override
+    public int compareTo(Gs1Decimal other) {
+        if (scale == other.scale) {
+            return Long.compare(unscaledValue, other.unscaledValue);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Gs1Decimal other
+                && unscaledValue == other.unscaledValue
+                && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(unscaledValue) + scale;
+    }
+
+    /**
+     * Formats the value with exactly {@link #scale()} decimal places and no
+     * leading zeros in the integer part, e.g. "12.50", "0.00001" or "5000".
+     */
+    @Override
+    public String toString() {
+        if (unscaledValue < 0) {
+            return toBigDecimal().toPlainString();
+        }
+        String digits = Long.toString(unscaledValue);
+        if (scale == 0) {
+            return digits;
+        }
+
+        int integerDigits = digits.length() - scale;
+        StringBuilder sb = new StringBuilder(Math.max(digits.length(), scale + 1) + 1);
+        if (integerDigits <= 0) {
+            sb.append("0.");
+            sb.append("0".repeat(-integerDigits));
+            sb.append(digits);
+        } else {
+            sb.append(digits, 0, integerDigits).append('.').append(digits, integerDigits, digits.length());
+        }
+        return sb.toString();
+    }
+}
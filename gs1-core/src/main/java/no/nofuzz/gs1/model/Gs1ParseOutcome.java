@@ -0,0 +1,67 @@
+package no.nofuzz.gs1.model;
+
+import no.nofuzz.gs1.exception.Gs1ParseError;
+
+import java.util.Objects;
+
+/**
+ * The outcome of parsing one element string: either a {@link Gs1Result} or a
+ * {@link Gs1ParseError}, returned instead of throwing.
+ */
+public final class Gs1ParseOutcome {
+
+    private final Gs1Result result;
+    private final Gs1ParseError error;
+
+    private Gs1ParseOutcome(Gs1Result result, Gs1ParseError error) {
+        this.result = result;
+        this.error = error;
+    }
+
+    public static Gs1ParseOutcome success(Gs1Result result) {
+        return new Gs1ParseOutcome(Objects.requireNonNull(result), null);
+    }
+
+    public static Gs1ParseOutcome failure(Gs1ParseError error) {
+        return new Gs1ParseOutcome(null, Objects.requireNonNull(error));
+    }
+
+    /**
+     * @return true if the input was parsed successfully
+     */
+    public boolean isSuccess() {
+        return result != null;
+    }
+
+    /**
+     * @return the parsed result, or null if parsing failed
+     */
+    public Gs1Result getResult() {
+        return result;
+    }
+
+    /**
+     * @return the error, or null if parsing succeeded
+     */
+    public Gs1ParseError getError() {
+        return error;
+    }
+
+    /**
+     * Returns the parsed result, or throws the error as a {@link no.nofuzz.gs1.exception.Gs1ParseException}.
+     *
+     * @return the parsed result
+     * @throws no.nofuzz.gs1.exception.Gs1ParseException if parsing failed
+     */
+    public Gs1Result orElseThrow() {
+        if (error != null) {
+            throw error.toException();
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? result.toString() : error.toString();
+    }
+}
@@ -1,15 +1,114 @@
 package no.nofuzz.gs1.model;
 
+import no.nofuzz.gs1.ai.AiRegistry;
+import no.nofuzz.gs1.exception.Gs1ErrorCode;
+import no.nofuzz.gs1.exception.Gs1ParseException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
+/**
+ * The elements parsed from one element string.
+ *
+ * <p>Results produced by {@link no.nofuzz.gs1.parser.Gs1Parser} hold the registry
+ * ordinal and the value of each element in two arrays sized to the number of
+ * elements, so a retained result costs a few words per element rather than a
+ * slot per registered AI. A lookup is a table-driven ordinal resolution and a
+ * scan of the handful of ordinals. The typed accessors
+ * {@link #getString}, {@link #getInt}, {@link #getLong}, {@link #getEpochDay} and
+ * {@link #getDecimal} return the value directly, without {@link Optional} or
+ * boxing: count, date and numeric text values are also kept in a {@code long}
+ * slot per element, filled when the value is decoded, which {@link #getInt},
+ * {@link #getLong} and {@link #getEpochDay} read. {@link #asMap()} is built on
+ * first use.
+ *
+ * <p>Parsers built with {@link no.nofuzz.gs1.parser.Gs1Parser.Builder#lazyValues(boolean)}
+ * produce results that hold each value as its raw string and run the AI's value
+ * parser on first access. The decoded value is memoized; concurrent first
+ * accesses agree on a single instance. A value that fails to decode throws a
+ * {@link Gs1ParseException} with {@link Gs1ErrorCode#VALUE_PARSE_ERROR} and the
+ * position of the value in the input from the accessor instead of from the parse;
+ * {@link #toString()} shows such a value in its raw form.
+ */
 public class Gs1Result {
 
-    private final Map<String, Gs1Element> map;
+    private static final Object[] NO_VALUES = new Object[0];
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    // Kinds of primitive slot; elements of kind 0 have none
+    private static final byte NUMBER = 1;
+    private static final byte EPOCH_DAY = 2;
+
+    private final AiRegistry registry;
+    private final int[] ordinals;
+    private final Object[] values;
+    // The raw value of each element as it appeared in the input, for the canonical key
+    private final String[] raws;
+    // Input offset of each value, reported when a lazy value fails to decode
+    private final int[] positions;
+    private final int size;
+    // The value of each element as a long, where its kind says it has one
+    private final long[] numbers;
+    private final byte[] kinds;
+    // Whether values start out as raw strings to be decoded on first access
+    private final boolean lazy;
+    private volatile Map<String, Gs1Element> map;
+    // Written before the volatile flag, so a reader that sees the flag sees the hash
+    private long canonicalHash;
+    private volatile boolean hashed;
 
     public Gs1Result(Map<String, Gs1Element> map) {
+        this.registry = null;
+        this.ordinals = null;
+        this.values = NO_VALUES;
+        this.raws = null;
+        this.positions = null;
+        this.numbers = null;
+        this.kinds = null;
         this.map = Map.copyOf(map);
+        this.size = this.map.size();
+        this.lazy = false;
+    }
+
+    /**
+     * Creates a parser result over the elements {@code (ordinals[i], values[i])}
+     * for {@code i < size}. The arrays are not copied, so this is only for
+     * {@link Builder}, which hands over arrays it allocated for the result alone.
+     *
+     * @param registry the registry the ordinals refer to
+     * @param ordinals the AI ordinal of each element, in input order
+     * @param values the value of each element
+     * @param raws the raw value of each element, or null where unknown
+     * @param positions the input offset of each value
+     * @param size the number of elements
+     * @param rawValues if true, {@code values} holds raw strings that are decoded
+     *                  with the AI's value parser on first access
+     */
+    private Gs1Result(AiRegistry registry, int[] ordinals, Object[] values, String[] raws, int[] positions,
+                      int size, boolean rawValues) {
+        this.registry = registry;
+        this.ordinals = ordinals;
+        this.values = values;
+        this.raws = raws;
+        this.positions = positions;
+        this.size = size;
+        this.numbers = new long[size];
+        this.kinds = new byte[size];
+        this.lazy = rawValues;
+        if (!rawValues) {
+            for (int i = 0; i < size; i++) {
+                fill(i, values[i]);
+            }
+        }
     }
 
     /**
@@ -19,8 +118,7 @@ public class Gs1Result {
      * @return Optional containing the value if present, empty otherwise
      */
     public Optional<Object> get(String ai) {
-        Gs1Element element = map.get(ai);
-        return element != null ? Optional.of(element.value()) : Optional.empty();
+        return Optional.ofNullable(value(ai));
     }
 
     /**
@@ -30,7 +128,11 @@ public class Gs1Result {
      * @return true if the AI is present, false otherwise
      */
     public boolean contains(String ai) {
-        return map.containsKey(ai);
+        if (registry == null) {
+            return map.containsKey(ai);
+        }
+        // Checks the ordinals without decoding a lazy value
+        return indexOf(registry.ordinal(ai)) >= 0;
     }
 
     /**
@@ -41,23 +143,462 @@ public class Gs1Result {
      * @throws IllegalArgumentException if the AI is not present in the result
      */
     public Object getOrThrow(String ai) {
-        Gs1Element element = map.get(ai);
-        if (element == null) {
+        Object value = value(ai);
+        if (value == null) {
             throw new IllegalArgumentException("AI " + ai + " not found in result");
         }
-        return element.value();
+        return value;
+    }
+
+    /**
+     * Gets the value of a text AI such as a GTIN or batch number. Values of other
+     * types are returned in their string form.
+     *
+     * @param ai the Application Identifier code
+     * @return the value as a String
+     * @throws IllegalArgumentException if the AI is not present in the result
+     */
+    public String getString(String ai) {
+        Object value = getOrThrow(ai);
+        return value instanceof String s ? s : value.toString();
+    }
+
+    /**
+     * Gets the value of a count AI such as 30 or 37, or of a numeric text AI that
+     * fits in an {@code int}.
+     *
+     * @param ai the Application Identifier code
+     * @return the value as an int
+     * @throws IllegalArgumentException if the AI is not present or its value is not an integer that fits in an int
+     */
+    public int getInt(String ai) {
+        long l = getLong(ai);
+        if ((int) l != l) {
+            throw new IllegalArgumentException("AI " + ai + " does not fit in an int: " + getOrThrow(ai));
+        }
+        return (int) l;
     }
 
+    /**
+     * Gets the value of a count AI, or of a numeric text AI of up to 18 digits
+     * such as a GTIN, GLN or SSCC.
+     *
+     * @param ai the Application Identifier code
+     * @return the value as a long
+     * @throws IllegalArgumentException if the AI is not present or its value is not an integer
+     */
+    public long getLong(String ai) {
+        if (registry == null) {
+            return toLong(ai, getOrThrow(ai));
+        }
+        int index = indexOrThrow(ai);
+        if (kind(index) != NUMBER) {
+            throw new IllegalArgumentException("AI " + ai + " is not numeric: " + value(index));
+        }
+        return numbers[index];
+    }
+
+    /**
+     * Gets the value of a date AI as an epoch day, as returned by {@link LocalDate#toEpochDay()}.
+     *
+     * @param ai the Application Identifier code
+     * @return the epoch day
+     * @throws IllegalArgumentException if the AI is not present or its value is not a date
+     */
+    public int getEpochDay(String ai) {
+        if (registry == null) {
+            Object value = getOrThrow(ai);
+            if (value instanceof LocalDate date) {
+                return (int) date.toEpochDay();
+            }
+            throw new IllegalArgumentException("AI " + ai + " is not a date: " + value);
+        }
+        int index = indexOrThrow(ai);
+        if (kind(index) != EPOCH_DAY) {
+            throw new IllegalArgumentException("AI " + ai + " is not a date: " + value(index));
+        }
+        return (int) numbers[index];
+    }
+
+    /**
+     * Gets the value of a variable measure AI.
+     *
+     * @param ai the Application Identifier code
+     * @return the fixed-point value
+     * @throws IllegalArgumentException if the AI is not present or its value is not a decimal
+     */
+    public Gs1Decimal getDecimal(String ai) {
+        Object value = getOrThrow(ai);
+        if (value instanceof Gs1Decimal decimal) {
+            return decimal;
+        }
+        throw new IllegalArgumentException("AI " + ai + " is not a decimal: " + value);
+    }
+
+    /**
+     * Returns a 64-bit hash of the element string that does not depend on the
+     * input format or on element order, for use as a cache, deduplication or join
+     * key. Each element is hashed over its AI code and its raw value as it appeared
+     * in the input, so the hash equals {@link no.nofuzz.gs1.parser.Gs1ParseContext#canonicalHash()}
+     * for the same parse and the hash of {@link #canonicalForm()}. Results built
+     * from a map have no raw values; their values are hashed in their string form.
+     * The hash is computed on first call and cached.
+     *
+     * @return the canonical hash
+     * @see Gs1CanonicalHash
+     */
+    public long canonicalHash() {
+        if (!hashed) {
+            long sum = 0;
+            if (registry == null) {
+                for (Map.Entry<String, Gs1Element> e : map.entrySet()) {
+                    String raw = String.valueOf(e.getValue().value());
+                    sum += Gs1CanonicalHash.element(e.getKey(), raw, 0, raw.length());
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    String raw = raw(i);
+                    sum += Gs1CanonicalHash.element(registry.code(ordinals[i]), raw, 0, raw.length());
+                }
+            }
+            canonicalHash = Gs1CanonicalHash.of(sum);
+            hashed = true;
+        }
+        return canonicalHash;
+    }
+
+    /**
+     * Returns the elements sorted by AI code and written in parenthesis format
+     * with their raw values, e.g. {@code (01)09501101530003(10)ABC123(17)251231},
+     * which parses back into an equal result. Results built from a map write the
+     * string form of their values instead.
+     *
+     * @return the canonical form
+     */
+    public String canonicalForm() {
+        Map<String, String> sorted = new TreeMap<>();
+        if (registry == null) {
+            map.forEach((ai, element) -> sorted.put(ai, String.valueOf(element.value())));
+        } else {
+            for (int i = 0; i < size; i++) {
+                sorted.put(registry.code(ordinals[i]), raw(i));
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sorted.forEach((ai, raw) -> sb.append('(').append(ai).append(')').append(raw));
+        return sb.toString();
+    }
+
+    // The raw value of an element, or the string form of its value if the builder had none
+    private String raw(int index) {
+        String raw = raws[index];
+        return raw != null ? raw : String.valueOf(value(index));
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes each element to {@code action}, in input order for parser results.
+     * Lazy values are decoded as they are passed.
+     *
+     * @param action receives the AI code and value of each element
+     */
+    public void forEach(BiConsumer<String, Object> action) {
+        if (registry == null) {
+            map.forEach((ai, element) -> action.accept(ai, element.value()));
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            action.accept(registry.code(ordinals[i]), value(i));
+        }
+    }
+
+    /**
+     * Returns the elements keyed by AI code. For parser results the map is built
+     * on first call.
+     *
+     * @return an immutable map of the elements
+     */
     public Map<String, Gs1Element> asMap() {
-        return map;
+        Map<String, Gs1Element> m = map;
+        if (m == null) {
+            Map<String, Gs1Element> elements = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                String ai = registry.code(ordinals[i]);
+                elements.put(ai, new Gs1Element(ai, value(i)));
+            }
+            m = Map.copyOf(elements);
+            map = m;
+        }
+        return m;
+    }
+
+    private Object value(String ai) {
+        if (registry == null) {
+            Gs1Element element = map.get(ai);
+            return element != null ? element.value() : null;
+        }
+        int index = indexOf(registry.ordinal(ai));
+        return index >= 0 ? value(index) : null;
+    }
+
+    // Elements are few, so a linear scan beats any index structure
+    private int indexOf(int ordinal) {
+        if (ordinal < 0) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (ordinals[i] == ordinal) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOrThrow(String ai) {
+        int index = indexOf(registry.ordinal(ai));
+        if (index < 0) {
+            throw new IllegalArgumentException("AI " + ai + " not found in result");
+        }
+        return index;
+    }
+
+    // The kind of the primitive slot of an element, decoding a lazy value first
+    private byte kind(int index) {
+        if (lazy) {
+            value(index);
+        }
+        return kinds[index];
+    }
+
+    private Object value(int index) {
+        if (!lazy) {
+            return values[index];
+        }
+        Object slot = SLOTS.getAcquire(values, index);
+        if (slot instanceof Decoded decoded) {
+            return decoded.value();
+        }
+
+        String raw = (String) slot;
+        int ordinal = ordinals[index];
+        String code = registry.code(ordinal);
+        Object value;
+        try {
+            value = registry.get(ordinal).valueParser().apply(raw);
+        } catch (IllegalArgumentException e) {
+            throw new Gs1ParseException(Gs1ErrorCode.VALUE_PARSE_ERROR,
+                    "Invalid value for AI " + code + ": " + e.getMessage(), positions != null ? positions[index] : -1);
+        }
+
+        // Every decoding thread fills the same slot, before the value is published
+        fill(index, value);
+        // The first thread to decode wins, so every caller sees the same instance
+        Object witness = SLOTS.compareAndExchange(values, index, slot, new Decoded(value));
+        return witness == slot ? value : ((Decoded) witness).value();
+    }
+
+    private void fill(int index, Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            numbers[index] = ((Number) value).longValue();
+            kinds[index] = NUMBER;
+        } else if (value instanceof LocalDate date) {
+            numbers[index] = date.toEpochDay();
+            kinds[index] = EPOCH_DAY;
+        } else if (value instanceof String s) {
+            long l = parseDigits(s);
+            if (l >= 0) {
+                numbers[index] = l;
+                kinds[index] = NUMBER;
+            }
+        }
+    }
+
+    private static long toLong(String ai, Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            return ((Number) value).longValue();
+        }
+        long l = value instanceof String s ? parseDigits(s) : -1;
+        if (l < 0) {
+            throw new IllegalArgumentException("AI " + ai + " is not numeric: " + value);
+        }
+        return l;
+    }
+
+    // The value of a string of 1 to 18 digits, which always fits in a long, or -1
+    private static long parseDigits(String s) {
+        if (s.isEmpty() || s.length() > 18) {
+            return -1;
+        }
+        long l = 0;
+        for (int i = 0; i < s.length(); i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            l = l * 10 + digit;
+        }
+        return l;
     }
 
     @Override
     public String toString() {
-        return "Gs1Result{" +
-                map.entrySet().stream()
-                        .map(e -> e.getKey() + "=" + e.getValue().value())
-                        .collect(Collectors.joining(", ")) +
-                "}";
+        if (registry == null) {
+            return "Gs1Result{" +
+                    map.entrySet().stream()
+                            .map(e -> e.getKey() + "=" + e.getValue().value())
+                            .collect(Collectors.joining(", ")) +
+                    "}";
+        }
+        StringBuilder sb = new StringBuilder("Gs1Result{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(registry.code(ordinals[i])).append('=');
+            try {
+                sb.append(value(i));
+            } catch (Gs1ParseException e) {
+                // A lazy value that does not decode is left as its raw string
+                sb.append(SLOTS.getAcquire(values, i));
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Creates a builder for a result over AIs of {@code registry}.
+     *
+     * @param registry the registry the ordinals refer to
+     * @param expectedSize the expected number of elements; the builder grows past it if needed
+     * @return a new builder
+     */
+    public static Builder builder(AiRegistry registry, int expectedSize) {
+        return new Builder(registry, expectedSize);
     }
-}
\ No newline at end of file
+
+    /**
+     * Collects the elements of a result by registry ordinal, in input order.
+     *
+     * <p>The builder owns the arrays the result is built over and gives them up
+     * in {@link #build()}, so a result sized to its elements is created without
+     * copying them again, and nothing can change it afterwards. A builder builds
+     * a single result.
+     */
+    public static final class Builder {
+        private final AiRegistry registry;
+        private int[] ordinals;
+        private Object[] values;
+        private String[] raws;
+        private int[] positions;
+        private int size;
+        private boolean rawValues;
+
+        private Builder(AiRegistry registry, int expectedSize) {
+            this.registry = Objects.requireNonNull(registry, "registry");
+            if (expectedSize < 0) {
+                throw new IllegalArgumentException("Expected size must not be negative: " + expectedSize);
+            }
+            this.ordinals = new int[expectedSize];
+            this.values = new Object[expectedSize];
+            this.raws = new String[expectedSize];
+            this.positions = new int[expectedSize];
+        }
+
+        /**
+         * @param rawValues if true, the values are raw strings that are decoded with
+         *                  the AI's value parser on first access
+         * @return this builder
+         */
+        public Builder rawValues(boolean rawValues) {
+            this.rawValues = rawValues;
+            return this;
+        }
+
+        /**
+         * Adds an element whose raw value is the value itself if it is a string, or
+         * else its string form. Each AI should be added at most once; lookups see the first.
+         *
+         * @param ordinal the registry ordinal of the AI
+         * @param value the value of the element
+         * @param position the input offset of the value, or -1 if unknown
+         * @return this builder
+         * @throws IllegalArgumentException if {@code ordinal} is not in the registry
+         * @throws IllegalStateException if the result was already built
+         */
+        public Builder add(int ordinal, Object value, int position) {
+            return add(ordinal, value, value instanceof String s ? s : null, position);
+        }
+
+        /**
+         * Adds an element. Each AI should be added at most once; lookups see the first.
+         *
+         * @param ordinal the registry ordinal of the AI
+         * @param value the value of the element
+         * @param raw the value as it appeared in the input, used for the canonical key
+         * @param position the input offset of the value, or -1 if unknown
+         * @return this builder
+         * @throws IllegalArgumentException if {@code ordinal} is not in the registry
+         * @throws IllegalStateException if the result was already built
+         */
+        public Builder add(int ordinal, Object value, String raw, int position) {
+            if (ordinals == null) {
+                throw new IllegalStateException("Result already built");
+            }
+            if (ordinal < 0 || ordinal >= registry.size()) {
+                throw new IllegalArgumentException("Invalid AI ordinal: " + ordinal);
+            }
+            Objects.requireNonNull(value, "value");
+            if (size == ordinals.length) {
+                grow(Math.max(4, size * 2));
+            }
+            ordinals[size] = ordinal;
+            values[size] = value;
+            raws[size] = raw;
+            positions[size++] = position;
+            return this;
+        }
+
+        /**
+         * @return the result; the builder cannot be used afterwards
+         * @throws IllegalStateException if the result was already built
+         * @throws IllegalArgumentException if raw values were requested and a value is not a string
+         */
+        public Gs1Result build() {
+            if (ordinals == null) {
+                throw new IllegalStateException("Result already built");
+            }
+            if (rawValues) {
+                for (int i = 0; i < size; i++) {
+                    if (!(values[i] instanceof String)) {
+                        throw new IllegalArgumentException("Raw value is not a string: " + values[i]);
+                    }
+                }
+            }
+            if (size < ordinals.length) {
+                grow(size);
+            }
+            Gs1Result result = new Gs1Result(registry, ordinals, values, raws, positions, size, rawValues);
+            ordinals = null;
+            values = null;
+            raws = null;
+            positions = null;
+            return result;
+        }
+
+        private void grow(int capacity) {
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            values = Arrays.copyOf(values, capacity);
+            raws = Arrays.copyOf(raws, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+    }
+
+    // Marks a lazily decoded slot, which otherwise could not be told apart from a raw string
+    private record Decoded(Object value) {}
+}
@@ -0,0 +1,528 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.exception.Gs1ParseException;
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import no.nofuzz.gs1.model.Gs1Result;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link Gs1Parser} decorator that memoizes results by input string.
+ *
+ * <p>Results are immutable, so a barcode that is scanned again is answered from
+ * the cache without tokenizing or validating it. Invalid input can optionally be
+ * cached too, in which case a repeated bad scan throws the same error again
+ * without being reparsed.
+ *
+ * <p>The cache is bounded by a maximum total weight and evicts with a simplified
+ * W-TinyLFU policy: new entries enter a small LRU window; entries leaving the
+ * window are admitted to the main space only if a frequency sketch estimates
+ * that they are used more often than the entry they would displace. One-off
+ * scans therefore cannot flush out the barcodes that are scanned all day.
+ *
+ * <p>Lookups go through a {@link ConcurrentHashMap}. The eviction policy is split
+ * into independently locked segments by key hash, so there is no global lock;
+ * a hit records its access only if its segment lock is free, and is otherwise
+ * just served.
+ *
+ * <pre>
+ * CachingGs1Parser parser = CachingGs1Parser.builder(Gs1Parser.defaultParser())
+ *     .maximumWeight(100_000)
+ *     .cacheFailures(true)
+ *     .build();
+ * </pre>
+ */
+public final class CachingGs1Parser {
+
+    private static final int MAX_SEGMENTS = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4);
+
+    private final Gs1Parser delegate;
+    private final ToIntFunction<String> weigher;
+    private final boolean cacheFailures;
+    private final long maximumWeight;
+
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CachingGs1Parser(Builder builder) {
+        this.delegate = builder.delegate;
+        this.weigher = builder.weigher;
+        this.cacheFailures = builder.cacheFailures;
+        this.maximumWeight = builder.maximumWeight;
+
+        // Enough segments to spread contention, with room for at least 64 entries each
+        int count = Math.min(MAX_SEGMENTS,
+                Integer.highestOneBit((int) Math.min(Math.max(1, maximumWeight / 64), 1 << 16)));
+        this.segments = new Segment[count];
+        long perSegment = Math.max(1, maximumWeight / count);
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Creates a builder for a cache in front of {@code parser}.
+     *
+     * @param parser the parser to delegate cache misses to
+     * @return a new builder instance
+     */
+    public static Builder builder(Gs1Parser parser) {
+        return new Builder(parser);
+    }
+
+    /**
+     * Parses an element string, answering from the cache where possible.
+     *
+     * @param input the element string
+     * @return the parsed result
+     * @throws Gs1ParseException if the input is not a valid element string
+     */
+    public Gs1Result parse(String input) {
+        return tryParse(input).orElseThrow();
+    }
+
+    /**
+     * Parses an element string held in any {@link CharSequence}. Input that is not
+     * a {@link String} is copied to one to serve as the cache key.
+     *
+     * @param input the element string
+     * @return the parsed result
+     * @throws Gs1ParseException if the input is not a valid element string
+     */
+    public Gs1Result parse(CharSequence input) {
+        return tryParse(input).orElseThrow();
+    }
+
+    /**
+     * Parses an element string without throwing on invalid input, answering from
+     * the cache where possible.
+     *
+     * @param input the element string
+     * @return the result, or the error describing why the input was rejected
+     * @see Gs1Parser#tryParse(CharSequence)
+     */
+    public Gs1ParseOutcome tryParse(CharSequence input) {
+        if (input == null) {
+            return delegate.tryParse(null);
+        }
+        String key = input.toString();
+        int hash = spread(key.hashCode());
+
+        Node node = data.get(key);
+        if (node != null) {
+            hits.increment();
+            segmentFor(hash).recordHit(node, hash);
+            return node.outcome;
+        }
+
+        misses.increment();
+        Gs1ParseOutcome outcome = delegate.tryParse(key);
+        if (outcome.isSuccess() || cacheFailures) {
+            Node created = new Node(key, outcome, Math.max(1, weigher.applyAsInt(key)));
+            Node existing = data.putIfAbsent(key, created);
+            if (existing != null) {
+                return existing.outcome;
+            }
+            segmentFor(hash).add(created, hash);
+        }
+        return outcome;
+    }
+
+    /**
+     * @return the parser that cache misses are delegated to
+     */
+    public Gs1Parser delegate() {
+        return delegate;
+    }
+
+    /**
+     * @return a snapshot of the hit, miss and eviction counters and the current size
+     */
+    public Stats stats() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            weight += segment.weight();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), data.size(), weight);
+    }
+
+    /**
+     * Discards all cached entries. Counters are not reset.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> 16) & (segments.length - 1)];
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * Cache statistics.
+     *
+     * @param hits the number of lookups answered from the cache
+     * @param misses the number of lookups that were parsed
+     * @param evictions the number of entries evicted to stay within the maximum weight
+     * @param size the number of cached entries
+     * @param weight the total weight of the cached entries
+     */
+    public record Stats(long hits, long misses, long evictions, long size, long weight) {
+
+        /**
+         * @return the fraction of lookups answered from the cache, or 0 if there were none
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * Builder for creating CachingGs1Parser instances.
+     */
+    public static final class Builder {
+        private final Gs1Parser delegate;
+        private long maximumWeight = 10_000;
+        private ToIntFunction<String> weigher = key -> 1;
+        private boolean cacheFailures;
+
+        private Builder(Gs1Parser delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "parser");
+        }
+
+        /**
+         * Sets the maximum total weight of the cached entries. With the default
+         * weigher every entry weighs 1, so this is the maximum number of entries.
+         *
+         * @param maximumWeight the maximum total weight
+         * @return this builder
+         */
+        public Builder maximumWeight(long maximumWeight) {
+            if (maximumWeight <= 0) {
+                throw new IllegalArgumentException("Maximum weight must be positive: " + maximumWeight);
+            }
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        /**
+         * Sets how much each entry counts towards the maximum weight, for example
+         * {@code String::length} to bound the cache by input size.
+         *
+         * @param weigher computes the weight of an entry from its input; weights below 1 count as 1
+         * @return this builder
+         */
+        public Builder weigher(ToIntFunction<String> weigher) {
+            this.weigher = Objects.requireNonNull(weigher, "weigher");
+            return this;
+        }
+
+        /**
+         * Caches parse errors as well as results, so that invalid input that is
+         * scanned repeatedly is rejected without being parsed again.
+         *
+         * @param cacheFailures true to cache errors
+         * @return this builder
+         */
+        public Builder cacheFailures(boolean cacheFailures) {
+            this.cacheFailures = cacheFailures;
+            return this;
+        }
+
+        /**
+         * @return a new CachingGs1Parser with the configured settings
+         */
+        public CachingGs1Parser build() {
+            return new CachingGs1Parser(this);
+        }
+    }
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private static final class Node {
+        final String key;
+        final Gs1ParseOutcome outcome;
+        final int weight;
+
+        // Guarded by the segment lock
+        boolean linked;
+        int queue;
+        Node prev;
+        Node next;
+
+        Node(String key, Gs1ParseOutcome outcome, int weight) {
+            this.key = key;
+            this.outcome = outcome;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A doubly linked LRU queue; the head is the most recently used entry.
+     */
+    private static final class Queue {
+        Node head;
+        Node tail;
+        long weight;
+
+        void addFirst(Node node) {
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            } else {
+                tail = node;
+            }
+            head = node;
+            weight += node.weight;
+        }
+
+        void remove(Node node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+            weight = 0;
+        }
+    }
+
+    /**
+     * One independently locked part of the eviction policy: an LRU window, a
+     * segmented LRU main space and a frequency sketch.
+     */
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long maxWeight;
+        private final long maxWindow;
+        private final long maxProtected;
+        private final Queue window = new Queue();
+        private final Queue probation = new Queue();
+        private final Queue protectedQueue = new Queue();
+        private final FrequencySketch sketch;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+            this.maxWindow = Math.max(1, maxWeight / 100);
+            this.maxProtected = (maxWeight - maxWindow) * 4 / 5;
+            this.sketch = new FrequencySketch(maxWeight);
+        }
+
+        long weight() {
+            lock.lock();
+            try {
+                return window.weight + probation.weight + protectedQueue.weight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void recordHit(Node node, int hash) {
+            // Dropping an access under contention only makes the policy slightly less precise
+            if (!lock.tryLock()) {
+                return;
+            }
+            try {
+                sketch.increment(hash);
+                // Not yet added by its inserting thread, or already evicted
+                if (!node.linked) {
+                    return;
+                }
+                switch (node.queue) {
+                    case WINDOW -> {
+                        window.remove(node);
+                        window.addFirst(node);
+                    }
+                    case PROBATION -> {
+                        probation.remove(node);
+                        node.queue = PROTECTED;
+                        protectedQueue.addFirst(node);
+                        while (protectedQueue.weight > maxProtected && protectedQueue.tail != null) {
+                            Node demoted = protectedQueue.tail;
+                            protectedQueue.remove(demoted);
+                            demoted.queue = PROBATION;
+                            probation.addFirst(demoted);
+                        }
+                    }
+                    default -> {
+                        protectedQueue.remove(node);
+                        protectedQueue.addFirst(node);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void add(Node node, int hash) {
+            lock.lock();
+            try {
+                sketch.increment(hash);
+                if (data.get(node.key) != node) {
+                    // Invalidated before it was linked
+                    return;
+                }
+                node.linked = true;
+                node.queue = WINDOW;
+                window.addFirst(node);
+                evict();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void evict() {
+            // Entries leaving the window compete with the probation LRU for a place in the main space
+            while (window.weight > maxWindow && window.tail != null) {
+                Node candidate = window.tail;
+                window.remove(candidate);
+                candidate.queue = PROBATION;
+                probation.addFirst(candidate);
+
+                while (total() > maxWeight) {
+                    Node victim = probation.tail != candidate ? probation.tail : candidate.next;
+                    if (victim == null) {
+                        victim = protectedQueue.tail;
+                    }
+                    if (victim == null || victim == candidate) {
+                        evict(candidate);
+                        break;
+                    }
+                    if (sketch.frequency(spread(candidate.key.hashCode())) > sketch.frequency(spread(victim.key.hashCode()))) {
+                        evict(victim);
+                    } else {
+                        evict(candidate);
+                        break;
+                    }
+                }
+            }
+
+            // Entries heavier than the space left are dropped oldest first
+            while (total() > maxWeight) {
+                Node victim = probation.tail != null ? probation.tail
+                        : protectedQueue.tail != null ? protectedQueue.tail
+                        : window.tail;
+                evict(victim);
+            }
+        }
+
+        private long total() {
+            return window.weight + probation.weight + protectedQueue.weight;
+        }
+
+        private void evict(Node node) {
+            queueOf(node).remove(node);
+            node.linked = false;
+            data.remove(node.key, node);
+            evictions.increment();
+        }
+
+        private Queue queueOf(Node node) {
+            return switch (node.queue) {
+                case WINDOW -> window;
+                case PROBATION -> probation;
+                default -> protectedQueue;
+            };
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                for (Queue queue : new Queue[] {window, probation, protectedQueue}) {
+                    for (Node node = queue.head; node != null; node = node.next) {
+                        node.linked = false;
+                        data.remove(node.key, node);
+                    }
+                    queue.clear();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters, halved periodically so that the
+     * estimates follow recent popularity rather than all-time counts.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long HALF_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(long maximumWeight) {
+            int counters = (int) Math.min(1 << 20, Math.max(64, Long.highestOneBit(maximumWeight) << 2));
+            this.table = new long[counters / 16];
+            this.sampleSize = counters * 10 / 4;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int word = index >>> 4;
+                int shift = (index & 15) << 2;
+                if (((table[word] >>> shift) & 0xF) < 15) {
+                    table[word] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & HALF_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                frequency = Math.min(frequency, (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xF));
+            }
+            return frequency;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & (table.length * 16 - 1);
+        }
+    }
+}
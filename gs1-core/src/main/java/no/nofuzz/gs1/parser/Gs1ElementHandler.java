@@ -0,0 +1,26 @@
+package no.nofuzz.gs1.parser;
+
+/**
+ * Receives elements from {@link Gs1Parser#parse(CharSequence, Gs1ElementHandler)}
+ * as they are parsed.
+ *
+ * <p>The handler is called once per element, in input order, after the element
+ * has passed validation and its value has been decoded. If the input turns out to
+ * be invalid further on, a {@link no.nofuzz.gs1.exception.Gs1ParseException} is
+ * thrown after the handler has already seen the preceding elements; structural
+ * errors found by the tokenizer are always reported before the first call.
+ */
+@FunctionalInterface
+public interface Gs1ElementHandler {
+
+    /**
+     * Called for each parsed element.
+     *
+     * @param ai the AI code (shared with the registry, not a copy)
+     * @param input the element string being parsed
+     * @param valueStart the offset of the first value character in {@code input}
+     * @param valueEnd the offset after the last value character in {@code input}
+     * @param value the decoded value, as returned by the AI's value parser
+     */
+    void element(String ai, CharSequence input, int valueStart, int valueEnd, Object value);
+}
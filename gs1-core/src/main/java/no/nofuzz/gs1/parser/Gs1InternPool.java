@@ -0,0 +1,150 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.ai.AiRegistry;
+import no.nofuzz.gs1.scan.AsciiCharSequence;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, concurrent pool of canonical value strings, one table per AI.
+ *
+ * <p>Enabled with {@link Gs1Parser.Builder#internValues(int, String...)}. When a
+ * value is parsed, its characters are hashed and compared in place against the
+ * pooled string for that AI, so a repeated GTIN, lot number or GLN resolves to the
+ * same {@link String} instance without building a temporary substring first. Only
+ * a miss creates a string, which then replaces whatever occupied its slot; each
+ * table holds at most {@code capacityPerAi} strings, so the pool stays bounded no
+ * matter how many distinct values pass through it.
+ *
+ * <p>Lookups take no locks. Tables are created on first use with a
+ * compare-and-set, and slots are written with plain stores: strings are
+ * immutable, so a racing reader sees either the old or the new string, and at
+ * worst two threads create equal strings for the same value once.
+ */
+public final class Gs1InternPool {
+
+    private final AiRegistry registry;
+    private final int mask;
+    // Whether values of each ordinal are pooled; null means all AIs
+    private final boolean[] pooled;
+    private final AtomicReferenceArray<String[]> tables;
+
+    /**
+     * @param registry the registry whose ordinals index the pool
+     * @param capacityPerAi the maximum number of strings kept per AI, rounded up to a power of two
+     * @param ais the AI codes whose values are pooled; all AIs if empty
+     * @throws IllegalArgumentException if the capacity is not positive or an AI is not registered
+     */
+    public Gs1InternPool(AiRegistry registry, int capacityPerAi, String... ais) {
+        if (capacityPerAi <= 0 || capacityPerAi > 1 << 30) {
+            throw new IllegalArgumentException("Capacity per AI must be between 1 and 2^30: " + capacityPerAi);
+        }
+        this.registry = registry;
+        this.mask = (capacityPerAi == 1 ? 1 : Integer.highestOneBit(capacityPerAi - 1) << 1) - 1;
+        this.tables = new AtomicReferenceArray<>(registry.size());
+
+        if (ais.length == 0) {
+            this.pooled = null;
+        } else {
+            this.pooled = new boolean[registry.size()];
+            for (String ai : ais) {
+                int ordinal = registry.ordinal(ai);
+                if (ordinal < 0) {
+                    throw new IllegalArgumentException("Unknown AI: " + ai);
+                }
+                pooled[ordinal] = true;
+            }
+        }
+    }
+
+    /**
+     * @return the registry whose ordinals index the pool
+     */
+    public AiRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * @return the number of slots per AI
+     */
+    public int capacityPerAi() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the canonical string for the characters of {@code input} between
+     * {@code from} (inclusive) and {@code to} (exclusive), parsed as the value of
+     * the AI at {@code ordinal}.
+     *
+     * @param ordinal the registry ordinal of the AI
+     * @param input the input holding the value
+     * @param from the start of the value
+     * @param to the end of the value
+     * @return a string equal to the range, shared with earlier calls for the same value where possible
+     */
+    public String intern(int ordinal, CharSequence input, int from, int to) {
+        if (pooled != null && !pooled[ordinal]) {
+            return substring(input, from, to);
+        }
+
+        String[] table = tables.get(ordinal);
+        if (table == null) {
+            tables.compareAndSet(ordinal, null, new String[mask + 1]);
+            table = tables.get(ordinal);
+        }
+
+        int slot = hash(input, from, to) & mask;
+        String candidate = table[slot];
+        if (candidate != null && matches(candidate, input, from, to)) {
+            return candidate;
+        }
+
+        String value = substring(input, from, to);
+        table[slot] = value;
+        return value;
+    }
+
+    /**
+     * Drops all pooled strings.
+     */
+    public void clear() {
+        for (int i = 0; i < tables.length(); i++) {
+            tables.set(i, null);
+        }
+    }
+
+    private static int hash(CharSequence s, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        // Spread the high bits into the low bits used as the slot index
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String candidate, CharSequence s, int from, int to) {
+        int length = to - from;
+        if (candidate.length() != length) {
+            return false;
+        }
+        if (s instanceof String str) {
+            return candidate.regionMatches(0, str, from, length);
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != s.charAt(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String substring(CharSequence s, int from, int to) {
+        if (s instanceof String str) {
+            return str.substring(from, to);
+        }
+        if (s instanceof AsciiCharSequence bytes) {
+            return bytes.substring(from, to);
+        }
+        return s.subSequence(from, to).toString();
+    }
+}
@@ -0,0 +1,261 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.ai.AiRegistry;
+import no.nofuzz.gs1.model.Gs1Element;
+import no.nofuzz.gs1.model.Gs1Result;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Mutable, reusable parse state for {@link Gs1Parser#parse(CharSequence, Gs1ParseContext)}.
+ *
+ * <p>A context owns the token buffer, the duplicate-AI bitset and one value slot
+ * per registry ordinal. Every parse resets and refills it in place, so repeated
+ * parses with the same context do not allocate collections or result objects.
+ * After a parse, the context exposes the lookup methods of {@link Gs1Result}; use
+ * {@link #toResult()} to take an immutable snapshot that outlives the next parse.
+ * Snapshots copy out only the elements that were present, not the value slots.
+ *
+ * <p>Instances are not thread-safe. Hold one context per thread or per connection:
+ * <pre>
+ * private static final ThreadLocal&lt;Gs1ParseContext&gt; CONTEXT =
+ *         ThreadLocal.withInitial(Gs1ParseContext::new);
+ *
+ * Gs1ParseContext scan = parser.parse(barcode, CONTEXT.get());
+ * String gtin = (String) scan.getOrThrow("01");
+ * </pre>
+ */
+public final class Gs1ParseContext {
+
+    private final Gs1TokenBuffer tokens = new Gs1TokenBuffer();
+
+    private AiRegistry registry;
+    private long[] seen = new long[0];
+    private Object[] values;
+    private int[] order = new int[16];
+    private int[] positions = new int[16];
+    private String[] raws = new String[16];
+    private int size;
+    private boolean borrowed;
+
+    public Gs1ParseContext() {
+    }
+
+    Gs1TokenBuffer tokens() {
+        return tokens;
+    }
+
+    /**
+     * Clears the elements of the previous parse and prepares for {@code registry}.
+     */
+    void reset(AiRegistry registry) {
+        if (this.registry != registry) {
+            this.registry = registry;
+            this.seen = new long[(registry.size() + 63) >>> 6];
+            this.values = null;
+        } else {
+            Arrays.fill(seen, 0L);
+            for (int i = 0; i < size; i++) {
+                values[order[i]] = null;
+            }
+        }
+        Arrays.fill(raws, 0, size, null);
+        size = 0;
+        tokens.clear();
+    }
+
+    /**
+     * Takes this context for the parser's own use on the owning thread.
+     *
+     * @return false if it is already taken by an enclosing parse
+     */
+    boolean borrow() {
+        if (borrowed) {
+            return false;
+        }
+        borrowed = true;
+        return true;
+    }
+
+    /**
+     * Returns a {@link #borrow() borrowed} context, dropping the elements and the
+     * reference to the input so that an idle context holds on to neither.
+     */
+    void release() {
+        if (registry != null) {
+            reset(registry);
+        }
+        borrowed = false;
+    }
+
+    /**
+     * Marks {@code ordinal} as seen in the current parse.
+     *
+     * @return false if the AI was already seen
+     */
+    boolean markSeen(int ordinal) {
+        long bit = 1L << ordinal;
+        int word = ordinal >>> 6;
+        if ((seen[word] & bit) != 0) {
+            return false;
+        }
+        seen[word] |= bit;
+        return true;
+    }
+
+    void put(int ordinal, Object value, String raw, int position) {
+        if (values == null) {
+            values = new Object[registry.size()];
+        }
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+            positions = Arrays.copyOf(positions, size * 2);
+            raws = Arrays.copyOf(raws, size * 2);
+        }
+        values[ordinal] = value;
+        positions[size] = position;
+        raws[size] = raw;
+        order[size++] = ordinal;
+    }
+
+    /**
+     * @return the number of elements in the last parse
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value for the specified Application Identifier.
+     *
+     * @param ai the Application Identifier code
+     * @return Optional containing the value if present, empty otherwise
+     */
+    public Optional<Object> get(String ai) {
+        return Optional.ofNullable(value(ai));
+    }
+
+    /**
+     * Checks if the last parse contained the specified Application Identifier.
+     *
+     * @param ai the Application Identifier code
+     * @return true if the AI is present, false otherwise
+     */
+    public boolean contains(String ai) {
+        return value(ai) != null;
+    }
+
+    /**
+     * Gets the value for the specified Application Identifier, or throws an exception if not present.
+     *
+     * @param ai the Application Identifier code
+     * @return the value for the AI
+     * @throws IllegalArgumentException if the AI is not present in the result
+     */
+    public Object getOrThrow(String ai) {
+        Object value = value(ai);
+        if (value == null) {
+            throw new IllegalArgumentException("AI " + ai + " not found in result");
+        }
+        return value;
+    }
+
+    /**
+     * Passes each element of the last parse to {@code action}, in input order.
+     *
+     * @param action receives the AI code and value of each element
+     */
+    public void forEach(BiConsumer<String, Object> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(registry.code(order[i]), values[order[i]]);
+        }
+    }
+
+    /**
+     * Builds an immutable map of the elements of the last parse.
+     *
+     * @return the elements keyed by AI code
+     */
+    public Map<String, Gs1Element> asMap() {
+        Map<String, Gs1Element> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String ai = registry.code(order[i]);
+            map.put(ai, new Gs1Element(ai, values[order[i]]));
+        }
+        return Map.copyOf(map);
+    }
+
+    /**
+     * Takes an immutable snapshot of the last parse.
+     *
+     * @return a result holding the current elements
+     */
+    public Gs1Result toResult() {
+        return newResult(false);
+    }
+
+    /**
+     * @return the order- and format-independent hash of the elements of the last parse
+     * @see Gs1TokenBuffer#canonicalHash()
+     */
+    public long canonicalHash() {
+        return tokens.canonicalHash();
+    }
+
+    /**
+     * @return the elements of the last parse sorted by AI code, in parenthesis format
+     * @see Gs1TokenBuffer#canonicalForm()
+     */
+    public String canonicalForm() {
+        return tokens.canonicalForm();
+    }
+
+    /**
+     * Moves the elements of the last parse into a result sized to the number of
+     * elements. The context is left empty and can be reused for the next parse.
+     *
+     * @param rawValues whether the values are raw strings still to be decoded
+     */
+    Gs1Result detachResult(boolean rawValues) {
+        Gs1Result result = newResult(rawValues);
+        for (int i = 0; i < size; i++) {
+            values[order[i]] = null;
+        }
+        Arrays.fill(raws, 0, size, null);
+        size = 0;
+        return result;
+    }
+
+    // A result over the elements of the last parse, in input order
+    private Gs1Result newResult(boolean rawValues) {
+        Gs1Result.Builder builder = Gs1Result.builder(registry, size).rawValues(rawValues);
+        for (int i = 0; i < size; i++) {
+            builder.add(order[i], values[order[i]], raws[i], positions[i]);
+        }
+        return builder.build();
+    }
+
+    private Object value(String ai) {
+        if (values == null) {
+            return null;
+        }
+        int ordinal = registry.ordinal(ai);
+        return ordinal >= 0 ? values[ordinal] : null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Gs1ParseContext{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(registry.code(order[i])).append('=').append(values[order[i]]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -3,9 +3,20 @@ package no.nofuzz.gs1.parser;
 import no.nofuzz.gs1.ai.*;
 import no.nofuzz.gs1.exception.*;
 import no.nofuzz.gs1.model.*;
+import no.nofuzz.gs1.scan.AsciiCharSequence;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 /**
  * GS1 barcode parser.
@@ -35,9 +46,22 @@ import java.util.Map;
  */
 public class Gs1Parser {
 
+    /**
+     * Batches smaller than this are parsed sequentially on the calling thread.
+     */
+    public static final int PARALLEL_THRESHOLD = 2048;
+
+    // Smallest unit of work handed to a worker, large enough to amortize the split
+    private static final int MIN_LEAF_SIZE = 512;
+
+    // The context each thread reuses for parses that do not take one from the caller
+    private static final ThreadLocal<Gs1ParseContext> CONTEXTS = ThreadLocal.withInitial(Gs1ParseContext::new);
+
     private final AiRegistry registry;
     private final Gs1ComplianceMode mode;
-    private final Tokenizer tokenizer;
+    private final Gs1Tokenizer tokenizer;
+    private final boolean lazyValues;
+    private final Gs1InternPool internPool;
 
     /**
      * Creates a parser with default (LENIENT) mode and standard AIs.
@@ -73,38 +97,407 @@ public class Gs1Parser {
     }
 
     public Gs1Parser(AiRegistry registry, Gs1ComplianceMode mode) {
+        this(registry, mode, false, null);
+    }
+
+    private Gs1Parser(AiRegistry registry, Gs1ComplianceMode mode, boolean lazyValues, Gs1InternPool internPool) {
         this.registry = registry;
         this.mode = mode;
         this.tokenizer = new Gs1Tokenizer(registry, mode);
+        this.lazyValues = lazyValues;
+        this.internPool = internPool;
+    }
+
+    /**
+     * @return the AIs this parser recognizes
+     */
+    public AiRegistry registry() {
+        return registry;
     }
 
     public Gs1Result parse(String input) {
-        Map<String, Gs1Element> result = new HashMap<>();
+        return parse((CharSequence) input);
+    }
 
-        for (Gs1Token token : tokenizer.tokenize(input)) {
-            // Check for duplicate AIs
-            if (result.containsKey(token.ai())) {
-                throw new Gs1ParseException(
-                        Gs1ErrorCode.INVALID_FORMAT,
-                        "Duplicate AI " + token.ai() + " found in input",
-                        token.pos()
-                );
+    /**
+     * Parses an element string held in any {@link CharSequence}, such as a
+     * {@link StringBuilder} or a reused {@link java.nio.CharBuffer}.
+     *
+     * @param input the element string
+     * @return the parsed result
+     * @throws Gs1ParseException if the input is not a valid element string
+     */
+    public Gs1Result parse(CharSequence input) {
+        Gs1ParseContext context = borrowContext();
+        try {
+            Gs1ParseError error = parse(input, context, null, !lazyValues);
+            if (error != null) {
+                throw error.toException();
             }
+            return context.detachResult(lazyValues);
+        } finally {
+            context.release();
+        }
+    }
+
+    /**
+     * Parses an element string and pushes each element to {@code handler} as it is
+     * parsed, without building a result.
+     *
+     * <p>This performs the same validation as {@link #parse(CharSequence)}, but no
+     * result or element objects are created. It suits callers that only inspect or
+     * forward a few AIs. The tokens and duplicate check use a context held per
+     * thread; callers that manage their own can pass it to
+     * {@link #parse(CharSequence, Gs1ParseContext, Gs1ElementHandler)}.
+     *
+     * @param input the element string
+     * @param handler the handler receiving the elements in input order
+     * @throws Gs1ParseException if the input is not a valid element string
+     * @see Gs1ElementHandler
+     */
+    public void parse(CharSequence input, Gs1ElementHandler handler) {
+        Gs1ParseContext context = borrowContext();
+        try {
+            parse(input, context, handler);
+        } finally {
+            context.release();
+        }
+    }
+
+    /**
+     * Parses an element string and pushes each element to {@code handler}, using
+     * the token buffer and duplicate-AI bitset of a caller-owned, reusable context.
+     *
+     * <p>With a reused context, the only allocations are the values passed to the
+     * handler and the raw strings they are decoded from. The elements are not
+     * stored in the context, which holds no elements afterwards.
+     *
+     * @param input the element string
+     * @param context the context whose buffers to use, owned by the calling thread
+     * @param handler the handler receiving the elements in input order
+     * @throws Gs1ParseException if the input is not a valid element string
+     * @see Gs1ElementHandler
+     */
+    public void parse(CharSequence input, Gs1ParseContext context, Gs1ElementHandler handler) {
+        Objects.requireNonNull(handler, "handler");
+        Gs1ParseError error = parse(input, context, handler, true);
+        if (error != null) {
+            context.reset(registry);
+            throw error.toException();
+        }
+    }
+
+    /**
+     * Parses an element string into a caller-owned, reusable context.
+     *
+     * <p>The context is reset and refilled in place, so repeated parses with the
+     * same context do not allocate result collections. The returned context is
+     * only valid until it is passed to the next parse; if parsing fails, it holds
+     * no elements.
+     *
+     * @param input the element string
+     * @param context the context to fill, owned by the calling thread
+     * @return {@code context}, holding the parsed elements
+     * @throws Gs1ParseException if the input is not a valid element string
+     * @see Gs1ParseContext
+     */
+    public Gs1ParseContext parse(CharSequence input, Gs1ParseContext context) {
+        Gs1ParseError error = tryParse(input, context);
+        if (error != null) {
+            throw error.toException();
+        }
+        return context;
+    }
 
-            var ai = registry.find(token.ai()).orElseThrow();
+    /**
+     * Parses an element string without throwing on invalid input.
+     *
+     * <p>Rejecting input this way creates no exception and does not format the
+     * error message unless {@link Gs1ParseError#getMessage()} is called, which makes
+     * it the cheaper choice for feeds where invalid scans are common.
+     *
+     * <p>This and {@link #parse(CharSequence)} reuse one context per thread for the
+     * token buffer and duplicate-AI bitset, so only the result itself is allocated.
+     * A parse started from within another on the same thread, such as from a value
+     * parser, uses a fresh context instead.
+     *
+     * @param input the element string
+     * @return the result, or the error describing why the input was rejected
+     */
+    public Gs1ParseOutcome tryParse(CharSequence input) {
+        Gs1ParseContext context = borrowContext();
+        try {
+            return tryParseDetached(input, context);
+        } finally {
+            context.release();
+        }
+    }
+
+    // The context of the current thread, or a fresh one if an enclosing parse holds it
+    private static Gs1ParseContext borrowContext() {
+        Gs1ParseContext context = CONTEXTS.get();
+        return context.borrow() ? context : new Gs1ParseContext();
+    }
+
+    /**
+     * Parses {@code input} into a detached result, reusing the buffers of
+     * {@code context} that do not end up in the result.
+     */
+    Gs1ParseOutcome tryParseDetached(CharSequence input, Gs1ParseContext context) {
+        Gs1ParseError error = parse(input, context, null, !lazyValues);
+        return error == null
+                ? Gs1ParseOutcome.success(context.detachResult(lazyValues))
+                : Gs1ParseOutcome.failure(error);
+    }
+
+    /**
+     * Parses a batch of element strings across the cores of the common
+     * fork/join pool.
+     *
+     * <p>Every input is parsed as by {@link #tryParse(CharSequence)}, so an invalid
+     * input does not stop the batch: its outcome holds the error instead. Outcomes
+     * are returned in input order, the outcome at index {@code i} belonging to
+     * {@code inputs.get(i)}. Batches smaller than {@link #PARALLEL_THRESHOLD} are
+     * parsed on the calling thread.
+     *
+     * @param inputs the element strings; must not be modified during the call
+     * @return an unmodifiable list with one outcome per input
+     */
+    public List<Gs1ParseOutcome> parseAll(List<? extends CharSequence> inputs) {
+        return parseAll(inputs, ForkJoinPool.commonPool());
+    }
 
+    /**
+     * Parses a batch of element strings on {@code executor}.
+     *
+     * <p>A {@link ForkJoinPool} splits the batch recursively, so idle workers
+     * steal the remaining halves. Any other executor receives the batch as a
+     * fixed number of contiguous chunks. The calling thread waits for the batch
+     * to complete.
+     *
+     * @param inputs the element strings; must not be modified during the call
+     * @param executor the executor to parse on
+     * @return an unmodifiable list with one outcome per input, in input order
+     * @see #parseAll(List)
+     */
+    public List<Gs1ParseOutcome> parseAll(List<? extends CharSequence> inputs, Executor executor) {
+        return parseAll(inputs.toArray(new CharSequence[0]), executor);
+    }
+
+    /**
+     * Parses a batch of element strings across the cores of the common
+     * fork/join pool.
+     *
+     * @param inputs the element strings; must not be modified during the call
+     * @return an unmodifiable list with one outcome per input, in input order
+     * @see #parseAll(List)
+     */
+    public List<Gs1ParseOutcome> parseAll(String[] inputs) {
+        return parseAll(inputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses a batch of element strings on {@code executor}.
+     *
+     * @param inputs the element strings; must not be modified during the call
+     * @param executor the executor to parse on
+     * @return an unmodifiable list with one outcome per input, in input order
+     * @see #parseAll(List, Executor)
+     */
+    public List<Gs1ParseOutcome> parseAll(CharSequence[] inputs, Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        int n = inputs.length;
+        Gs1ParseOutcome[] outcomes = new Gs1ParseOutcome[n];
+
+        int parallelism = executor instanceof ForkJoinPool pool
+                ? pool.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        if (n < PARALLEL_THRESHOLD || parallelism <= 1) {
+            ParseAllTask.parseRange(this, inputs, outcomes, 0, n);
+            return Collections.unmodifiableList(Arrays.asList(outcomes));
+        }
+
+        // A few leaves per worker keeps them busy when parse times differ
+        int leafSize = Math.max(MIN_LEAF_SIZE, n / (parallelism * 4));
+        if (executor instanceof ForkJoinPool pool) {
+            pool.invoke(new ParseAllTask(this, inputs, outcomes, 0, n, leafSize));
+        } else {
+            int chunks = (n + leafSize - 1) / leafSize;
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+            for (int c = 0; c < chunks; c++) {
+                int from = c * leafSize;
+                int to = Math.min(n, from + leafSize);
+                futures[c] = CompletableFuture.runAsync(
+                        () -> ParseAllTask.parseRange(this, inputs, outcomes, from, to), executor);
+            }
             try {
-                Object value = ai.parse(token.raw(), mode == Gs1ComplianceMode.STRICT);
-                result.put(token.ai(), new Gs1Element(token.ai(), value));
-            } catch (IllegalArgumentException e) {
-                throw new Gs1ParseException(
-                        Gs1ErrorCode.VALUE_PARSE_ERROR,
-                        "Invalid value for AI " + token.ai() + ": " + e.getMessage(),
-                        token.pos()
-                );
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException e) {
+                // Throw what a value parser threw, as the fork/join path does
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
             }
         }
-        return new Gs1Result(result);
+        return Collections.unmodifiableList(Arrays.asList(outcomes));
+    }
+
+    /**
+     * Parses a stream of element strings in parallel.
+     *
+     * <p>The returned stream is parallel and lazy; nothing is parsed until a
+     * terminal operation runs. An ordered source keeps its order, so
+     * {@code forEachOrdered} or {@code toList()} sees the outcomes in input
+     * order. Unlike the list overloads this does not need the whole batch in
+     * memory.
+     *
+     * <p>This makes the caller's pipeline parallel: a stream has a single
+     * execution mode, so the stages before this call also run on the common
+     * fork/join pool, and must be safe to run concurrently. Since the size of the
+     * stream is not known up front, small streams are not kept on the calling
+     * thread as {@link #PARALLEL_THRESHOLD} does for the list overloads. Each
+     * worker thread reuses one parse context across the inputs it parses.
+     *
+     * @param inputs the element strings
+     * @return a parallel stream of outcomes, one per input
+     * @see #parseAll(List)
+     */
+    public Stream<Gs1ParseOutcome> parseAll(Stream<? extends CharSequence> inputs) {
+        return inputs.parallel().map(this::tryParse);
+    }
+
+    /**
+     * Parses an element string into a caller-owned, reusable context without
+     * throwing on invalid input.
+     *
+     * @param input the element string
+     * @param context the context to fill, owned by the calling thread
+     * @return null on success, otherwise the error; the context then holds no elements
+     * @see #parse(CharSequence, Gs1ParseContext)
+     */
+    public Gs1ParseError tryParse(CharSequence input, Gs1ParseContext context) {
+        Gs1ParseError error = parse(input, context, null, true);
+        if (error != null) {
+            context.reset(registry);
+        }
+        return error;
+    }
+
+    /**
+     * Parses {@code input} using the buffers of {@code context}. Elements are pushed
+     * to {@code handler} if one is given, and stored in the context otherwise. If
+     * {@code decode} is false, values are validated but stored as raw strings.
+     *
+     * @return null on success, otherwise the error describing why the input was rejected
+     */
+    private Gs1ParseError parse(CharSequence input, Gs1ParseContext context, Gs1ElementHandler handler, boolean decode) {
+        context.reset(registry);
+        Gs1TokenBuffer tokens = context.tokens();
+        Gs1ParseError tokenizerError = tokenizer.tryTokenize(input, tokens);
+        if (tokenizerError != null) {
+            return tokenizerError;
+        }
+
+        boolean strict = mode == Gs1ComplianceMode.STRICT;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            int ordinal = tokens.aiOrdinal(i);
+            String code = registry.code(ordinal);
+            int pos = tokens.valueStart(i);
+
+            // Check for duplicate AIs
+            if (!context.markSeen(ordinal)) {
+                return new Gs1ParseError(Gs1ErrorCode.INVALID_FORMAT, pos, code,
+                        () -> "Duplicate AI " + code + " found in input");
+            }
+
+            var ai = registry.get(ordinal);
+            int end = tokens.valueEnd(i);
+
+            // Validate in place; the value is only materialized once it is known to be valid
+            if (!ai.isValid(input, pos, end, strict)) {
+                String raw = tokens.value(i);
+                return new Gs1ParseError(Gs1ErrorCode.VALUE_PARSE_ERROR, pos, code,
+                        () -> "Invalid value for AI " + code + ": " + violation(ai, raw, strict));
+            }
+
+            String raw = internPool != null
+                    ? internPool.intern(ordinal, input, pos, end)
+                    : tokens.value(i);
+
+            Object value = raw;
+            if (decode) {
+                try {
+                    value = ai.valueParser().apply(raw);
+                } catch (IllegalArgumentException e) {
+                    return new Gs1ParseError(Gs1ErrorCode.VALUE_PARSE_ERROR, pos, code,
+                            () -> "Invalid value for AI " + code + ": " + e.getMessage());
+                }
+            }
+
+            if (handler != null) {
+                handler.element(code, input, pos, end, value);
+            } else {
+                context.put(ordinal, value, raw, pos);
+            }
+        }
+        return null;
+    }
+
+    private static String violation(ApplicationIdentifier ai, String raw, boolean strict) {
+        try {
+            ai.validate(raw, strict);
+            return "invalid value";
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Parses an element string delivered as single-byte (ASCII) scanner input.
+     *
+     * <p>The bytes are read in place: the input is not decoded into an intermediate
+     * string, and error positions are byte offsets relative to {@code offset}.
+     * Bytes are interpreted as ISO-8859-1, so FNC1 is byte 29.
+     *
+     * @param input the buffer holding the element string
+     * @param offset the index of the first byte of the element string
+     * @param length the number of bytes in the element string
+     * @return the parsed result
+     * @throws Gs1ParseException if the input is not a valid element string
+     * @throws IndexOutOfBoundsException if {@code offset} and {@code length} are out of bounds
+     */
+    public Gs1Result parse(byte[] input, int offset, int length) {
+        return parse(input == null ? null : AsciiCharSequence.of(input, offset, length));
+    }
+
+    /**
+     * Parses an element string delivered as single-byte (ASCII) scanner input.
+     *
+     * @param input the element string bytes
+     * @return the parsed result
+     * @throws Gs1ParseException if the input is not a valid element string
+     * @see #parse(byte[], int, int)
+     */
+    public Gs1Result parse(byte[] input) {
+        return parse(input == null ? null : AsciiCharSequence.of(input, 0, input.length));
+    }
+
+    /**
+     * Parses the remaining bytes of a heap or direct buffer, for example straight
+     * out of an NIO read buffer. The buffer's position and limit are not changed.
+     *
+     * @param input the buffer holding the element string between position and limit
+     * @return the parsed result
+     * @throws Gs1ParseException if the input is not a valid element string
+     * @see #parse(byte[], int, int)
+     */
+    public Gs1Result parse(ByteBuffer input) {
+        return parse(input == null ? null : AsciiCharSequence.of(input));
     }
 
     /**
@@ -127,6 +520,10 @@ public class Gs1Parser {
         private Gs1ComplianceMode mode = Gs1ComplianceMode.LENIENT;
         private final Map<String, ApplicationIdentifier> customAis = new HashMap<>();
         private boolean useStandardAis = true;
+        private boolean lazyValues;
+        private int internCapacity;
+        private String[] internedAis = new String[0];
+        private Gs1RegistryCache registryCache;
 
         /**
          * Sets the compliance mode for the parser.
@@ -179,23 +576,73 @@ public class Gs1Parser {
         }
 
         /**
-         * Builds the configured Gs1Parser instance.
+         * Defers value decoding until a value is first read.
          *
-         * @return a new Gs1Parser with the configured settings
+         * <p>Results of {@link Gs1Parser#parse(CharSequence)} and
+         * {@link Gs1Parser#tryParse(CharSequence)} then keep each value as its raw
+         * string and convert it to its typed form (date, decimal, integer) on the
+         * first {@code get} or {@code getOrThrow} for that AI. Tokenizing and the
+         * length, character set and check digit rules are still applied at parse
+         * time, so malformed element strings are rejected as before; only errors
+         * raised by the value conversion itself, such as an impossible date, are
+         * reported when the value is read. Element handlers and parse contexts
+         * always receive decoded values.
+         *
+         * @param lazy true to decode values on first access
+         * @return this builder
          */
-        public Gs1Parser build() {
-            Map<String, ApplicationIdentifier> allAis = new HashMap<>();
+        public Builder lazyValues(boolean lazy) {
+            this.lazyValues = lazy;
+            return this;
+        }
 
-            // Start with standard AIs if enabled
-            if (useStandardAis) {
-                allAis.putAll(StandardAis.defaultRegistry().asMap());
-            }
+        /**
+         * Resolves repeated values to shared {@link String} instances through a
+         * bounded per-AI pool, to reduce the heap held by large sets of results.
+         *
+         * @param capacityPerAi the maximum number of distinct values kept per AI;
+         *                      0 disables interning
+         * @param ais the AI codes whose values are interned; all AIs if none are given
+         * @return this builder
+         * @see Gs1InternPool
+         */
+        public Builder internValues(int capacityPerAi, String... ais) {
+            this.internCapacity = capacityPerAi;
+            this.internedAis = ais.clone();
+            return this;
+        }
 
-            // Add/override with custom AIs
-            allAis.putAll(customAis);
+        /**
+         * Shares the registries built for custom AIs through {@code cache}, so that
+         * builders with the same AI configuration reuse one registry.
+         *
+         * @param cache the cache to look up and store registries in; null to build
+         *              a registry per parser
+         * @return this builder
+         * @see Gs1RegistryCache
+         */
+        public Builder registryCache(Gs1RegistryCache cache) {
+            this.registryCache = cache;
+            return this;
+        }
 
-            AiRegistry registry = new AiRegistry(allAis);
-            return new Gs1Parser(registry, mode);
+        /**
+         * Builds the configured Gs1Parser instance.
+         *
+         * <p>Custom AIs are layered on top of the shared standard registry with
+         * {@link AiRegistry#withOverrides(Map)} rather than copied into a new one.
+         * Without custom AIs, the standard (or empty) registry is used as is.
+         *
+         * @return a new Gs1Parser with the configured settings
+         */
+        public Gs1Parser build() {
+            AiRegistry registry = registryCache != null
+                    ? registryCache.get(useStandardAis, customAis)
+                    : Gs1RegistryCache.build(useStandardAis, Map.copyOf(customAis));
+            Gs1InternPool internPool = internCapacity > 0
+                    ? new Gs1InternPool(registry, internCapacity, internedAis)
+                    : null;
+            return new Gs1Parser(registry, mode, lazyValues, internPool);
         }
     }
 }
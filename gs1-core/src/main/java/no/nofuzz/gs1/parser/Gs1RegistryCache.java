@@ -0,0 +1,96 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.ai.AiRegistry;
+import no.nofuzz.gs1.ai.ApplicationIdentifier;
+import no.nofuzz.gs1.ai.StandardAis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the registries built for custom AI configurations, shared by
+ * the builders it is passed to.
+ *
+ * <p>Enabled with {@link Gs1Parser.Builder#registryCache(Gs1RegistryCache)}. Builders
+ * using the same cache and the same AI configuration, that is equal custom
+ * {@link ApplicationIdentifier}s (including the same value parser instances), get
+ * one registry. The cache keeps the registries of the {@code capacity} most
+ * recently built configurations, and with them their AIs and value parsers, for as
+ * long as the cache itself is reachable; scope it to the component, tenant or
+ * class loader that owns those AIs.
+ *
+ * <p>Instances are thread-safe.
+ */
+public final class Gs1RegistryCache {
+
+    private static final AiRegistry NO_AIS = new AiRegistry(Map.of());
+
+    // Least recently used first
+    private final Map<Key, AiRegistry> registries;
+
+    /**
+     * @param capacity the maximum number of configurations kept
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public Gs1RegistryCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.registries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, AiRegistry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the number of configurations currently kept
+     */
+    public int size() {
+        synchronized (registries) {
+            return registries.size();
+        }
+    }
+
+    /**
+     * Removes all cached registries. Parsers already built keep theirs.
+     */
+    public void clear() {
+        synchronized (registries) {
+            registries.clear();
+        }
+    }
+
+    /**
+     * Returns the registry for a configuration, building it on a miss.
+     */
+    AiRegistry get(boolean standardAis, Map<String, ApplicationIdentifier> customAis) {
+        if (customAis.isEmpty()) {
+            return build(standardAis, customAis);
+        }
+        Key key = new Key(standardAis, Map.copyOf(customAis));
+        synchronized (registries) {
+            AiRegistry registry = registries.get(key);
+            if (registry != null) {
+                return registry;
+            }
+        }
+        // Built outside the lock; a concurrent build of the same key is harmless
+        AiRegistry registry = build(standardAis, key.customAis());
+        synchronized (registries) {
+            AiRegistry raced = registries.putIfAbsent(key, registry);
+            return raced != null ? raced : registry;
+        }
+    }
+
+    /**
+     * Layers {@code customAis} over the standard or the empty registry.
+     */
+    static AiRegistry build(boolean standardAis, Map<String, ApplicationIdentifier> customAis) {
+        AiRegistry base = standardAis ? StandardAis.defaultRegistry() : NO_AIS;
+        return customAis.isEmpty() ? base : base.withOverrides(customAis);
+    }
+
+    private record Key(boolean standardAis, Map<String, ApplicationIdentifier> customAis) {}
+}
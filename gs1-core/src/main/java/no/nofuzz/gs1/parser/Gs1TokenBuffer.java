@@ -0,0 +1,230 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.ai.AiRegistry;
+import no.nofuzz.gs1.ai.ApplicationIdentifier;
+import no.nofuzz.gs1.model.Gs1CanonicalHash;
+import no.nofuzz.gs1.model.Gs1Result;
+import no.nofuzz.gs1.scan.AsciiCharSequence;
+
+import java.util.Arrays;
+
+/**
+ * Reusable tokenizer output that records tokens as offsets into the input.
+ *
+ * <p>Each token is packed into a single {@code long} holding the AI ordinal
+ * (see {@link AiRegistry#ordinal(String)}) and the start and end offsets of the
+ * value in the tokenized input. Offsets take 24 bits each, so tokens can only
+ * point into the first 16 MB of an input. No substrings are created while tokenizing;
+ * values are only materialized when {@link #value(int)} or {@link #token(int)}
+ * is called.
+ *
+ * <p>Instances are mutable and not thread-safe. A buffer is meant to be held by
+ * one thread (or connection) and passed to {@link Tokenizer#tokenize(CharSequence, Gs1TokenBuffer)}
+ * repeatedly; every call overwrites the previous content, and offsets are only
+ * meaningful for the input passed to the most recent call.
+ *
+ * <p>The order-independent hash of the elements is computed from the tokens when
+ * asked for, see {@link #canonicalHash()}, so tokenizing does not pay for it.
+ */
+public final class Gs1TokenBuffer {
+
+    private static final int OFFSET_BITS = 24;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    private AiRegistry registry;
+    private CharSequence input;
+    private long[] tokens;
+    private int size;
+
+    public Gs1TokenBuffer() {
+        this(16);
+    }
+
+    public Gs1TokenBuffer(int initialCapacity) {
+        this.tokens = new long[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Starts a new tokenization of {@code input}, removing all tokens.
+     *
+     * @param registry the registry the ordinals of the added tokens refer to
+     * @param input the input the tokens point into
+     */
+    public void reset(AiRegistry registry, CharSequence input) {
+        this.registry = registry;
+        this.input = input;
+        this.size = 0;
+    }
+
+    /**
+     * Appends a token.
+     *
+     * @param ordinal the registry ordinal of the token's AI
+     * @param valueStart the offset of the first value character in the input
+     * @param valueEnd the offset after the last value character
+     * @throws IllegalArgumentException if the ordinal or the offsets are out of range,
+     *                                  or an offset does not fit in 24 bits
+     */
+    public void add(int ordinal, int valueStart, int valueEnd) {
+        if (ordinal < 0 || ordinal >= registry.size()
+                || valueStart < 0 || valueStart > valueEnd || valueEnd > input.length()
+                || valueEnd > OFFSET_MASK) {
+            throw new IllegalArgumentException(
+                    "Invalid token: ordinal " + ordinal + ", value " + valueStart + "-" + valueEnd);
+        }
+        if (size == tokens.length) {
+            tokens = Arrays.copyOf(tokens, size * 2);
+        }
+        tokens[size++] = ((long) ordinal << (2 * OFFSET_BITS))
+                | ((long) valueStart << OFFSET_BITS)
+                | valueEnd;
+    }
+
+    /**
+     * Removes all tokens and releases the reference to the last input.
+     */
+    public void clear() {
+        reset(null, null);
+    }
+
+    /**
+     * @return the number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the input the tokens point into
+     */
+    public CharSequence input() {
+        return input;
+    }
+
+    /**
+     * Returns the registry ordinal of the AI of the token at {@code index}.
+     *
+     * @param index the token index
+     * @return the AI ordinal
+     */
+    public int aiOrdinal(int index) {
+        return (int) (packed(index) >>> (2 * OFFSET_BITS));
+    }
+
+    /**
+     * Returns the AI code of the token at {@code index}. The code is shared with
+     * the registry; no string is allocated.
+     *
+     * @param index the token index
+     * @return the AI code
+     */
+    public String ai(int index) {
+        return registry.code(aiOrdinal(index));
+    }
+
+    /**
+     * @param index the token index
+     * @return the AI definition of the token at {@code index}
+     */
+    public ApplicationIdentifier definition(int index) {
+        return registry.get(aiOrdinal(index));
+    }
+
+    /**
+     * Returns the offset of the first value character. This is also the position
+     * reported by {@link Gs1Token#pos()} and in parse errors for the token.
+     *
+     * @param index the token index
+     * @return the value start offset (inclusive)
+     */
+    public int valueStart(int index) {
+        return (int) ((packed(index) >>> OFFSET_BITS) & OFFSET_MASK);
+    }
+
+    /**
+     * @param index the token index
+     * @return the value end offset (exclusive)
+     */
+    public int valueEnd(int index) {
+        return (int) (packed(index) & OFFSET_MASK);
+    }
+
+    /**
+     * Materializes the value of the token at {@code index}.
+     *
+     * @param index the token index
+     * @return the raw value
+     */
+    public String value(int index) {
+        int start = valueStart(index);
+        int end = valueEnd(index);
+        if (input instanceof String s) {
+            return s.substring(start, end);
+        }
+        if (input instanceof AsciiCharSequence bytes) {
+            return bytes.substring(start, end);
+        }
+        return input.subSequence(start, end).toString();
+    }
+
+    /**
+     * Materializes the token at {@code index}.
+     *
+     * @param index the token index
+     * @return the token
+     */
+    public Gs1Token token(int index) {
+        return new Gs1Token(ai(index), value(index), valueStart(index));
+    }
+
+    /**
+     * Returns a 64-bit hash of the tokenized elements that does not depend on
+     * their order or on the input format. The same elements written in
+     * parenthesis format, as FNC1-delimited DataMatrix data, or in a different
+     * order hash to the same value, which equals the hash of {@link #canonicalForm()}
+     * and of the {@link Gs1Result#canonicalHash() result} parsed from the tokens.
+     * The hash is computed from the tokens on each call, without allocating.
+     *
+     * @return the canonical hash
+     * @see Gs1CanonicalHash
+     */
+    public long canonicalHash() {
+        // Summing makes the hash independent of element order
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += Gs1CanonicalHash.element(ai(i), input, valueStart(i), valueEnd(i));
+        }
+        return Gs1CanonicalHash.of(sum);
+    }
+
+    /**
+     * Returns the elements in canonical form: sorted by AI code and written in
+     * parenthesis format, e.g. {@code (01)09501101530003(10)ABC123(17)251231}.
+     * Element strings that differ only in format or element order have the same
+     * canonical form.
+     *
+     * @return the canonical form
+     */
+    public String canonicalForm() {
+        Integer[] indexes = new Integer[size];
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+            length += ai(i).length() + 2 + valueEnd(i) - valueStart(i);
+        }
+        Arrays.sort(indexes, (a, b) -> ai(a).compareTo(ai(b)));
+
+        StringBuilder sb = new StringBuilder(length);
+        for (int i : indexes) {
+            sb.append('(').append(ai(i)).append(')').append(input, valueStart(i), valueEnd(i));
+        }
+        return sb.toString();
+    }
+
+    private long packed(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for size " + size);
+        }
+        return tokens[index];
+    }
+}
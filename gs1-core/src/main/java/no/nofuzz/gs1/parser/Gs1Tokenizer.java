@@ -2,9 +2,11 @@ package no.nofuzz.gs1.parser;
 
 import no.nofuzz.gs1.ai.*;
 import no.nofuzz.gs1.exception.*;
+import no.nofuzz.gs1.scan.ScanKernels;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class Gs1Tokenizer implements Tokenizer {
 
@@ -21,41 +23,61 @@ public class Gs1Tokenizer implements Tokenizer {
 
     @Override
     public List<Gs1Token> tokenize(String input) {
+        Gs1TokenBuffer buffer = new Gs1TokenBuffer();
+        tokenize(input, buffer);
+
+        List<Gs1Token> tokens = new ArrayList<>(buffer.size());
+        for (int i = 0; i < buffer.size(); i++) {
+            tokens.add(buffer.token(i));
+        }
+        return tokens;
+    }
+
+    @Override
+    public AiRegistry registry() {
+        return registry;
+    }
+
+    @Override
+    public void tokenize(CharSequence input, Gs1TokenBuffer tokens) {
+        Gs1ParseError error = tryTokenize(input, tokens);
+        if (error != null) {
+            throw error.toException();
+        }
+    }
+
+    /**
+     * Tokenizes {@code input} into {@code tokens} without throwing.
+     *
+     * @return null on success, otherwise the error describing why the input was rejected
+     */
+    Gs1ParseError tryTokenize(CharSequence input, Gs1TokenBuffer tokens) {
+        tokens.reset(registry, input);
+
         if (input == null || input.isEmpty()) {
-            throw new Gs1ParseException(
-                    Gs1ErrorCode.INVALID_FORMAT,
-                    "Input is empty",
-                    0
-            );
+            return error(Gs1ErrorCode.INVALID_FORMAT, 0, null, () -> "Input is empty");
         }
 
         if (input.length() > MAX_INPUT_LENGTH) {
-            throw new Gs1ParseException(
-                    Gs1ErrorCode.INVALID_FORMAT,
-                    "Input exceeds maximum length of " + MAX_INPUT_LENGTH + " characters",
-                    0
-            );
+            return error(Gs1ErrorCode.INVALID_FORMAT, 0, null,
+                    () -> "Input exceeds maximum length of " + MAX_INPUT_LENGTH + " characters");
         }
 
         // Detect format: GS1-128 (parenthesis) vs DataMatrix (FNC1)
         if (input.charAt(0) == '(') {
-            return tokenizeParenthesisFormat(input);
+            return tokenizeParenthesisFormat(input, tokens);
         } else {
-            return tokenizeDataMatrixFormat(input);
+            return tokenizeDataMatrixFormat(input, tokens);
         }
     }
 
-    private List<Gs1Token> tokenizeParenthesisFormat(String input) {
-        List<Gs1Token> tokens = new ArrayList<>();
+    private Gs1ParseError tokenizeParenthesisFormat(CharSequence input, Gs1TokenBuffer tokens) {
         int i = 0;
 
         while (i < input.length()) {
             if (input.charAt(i) != '(') {
-                throw new Gs1ParseException(
-                        Gs1ErrorCode.INVALID_FORMAT,
-                        "Expected '(' at position " + i,
-                        i
-                );
+                int pos = i;
+                return error(Gs1ErrorCode.INVALID_FORMAT, pos, null, () -> "Expected '(' at position " + pos);
             }
 
             i++; // skip '('
@@ -67,24 +89,17 @@ public class Gs1Tokenizer implements Tokenizer {
             }
 
             if (i >= input.length()) {
-                throw new Gs1ParseException(
-                        Gs1ErrorCode.INVALID_FORMAT,
-                        "Missing closing ')' for AI",
-                        aiStart
-                );
+                return error(Gs1ErrorCode.INVALID_FORMAT, aiStart, null, () -> "Missing closing ')' for AI");
             }
 
-            String ai = input.substring(aiStart, i);
-            i++; // skip ')'
-
             // Verify AI exists in registry
-            ApplicationIdentifier aiDef = registry.find(ai).orElseThrow(() ->
-                    new Gs1ParseException(
-                            Gs1ErrorCode.UNKNOWN_AI,
-                            "Unknown AI " + ai,
-                            aiStart
-                    )
-            );
+            int ordinal = registry.ordinal(input, aiStart, i);
+            if (ordinal < 0) {
+                String unknown = input.subSequence(aiStart, i).toString();
+                return error(Gs1ErrorCode.UNKNOWN_AI, aiStart, unknown, () -> "Unknown AI " + unknown);
+            }
+            String ai = registry.code(ordinal);
+            i++; // skip ')'
 
             int valueStart = i;
 
@@ -94,43 +109,31 @@ public class Gs1Tokenizer implements Tokenizer {
             }
 
             if (valueStart == i) {
-                throw new Gs1ParseException(
-                        Gs1ErrorCode.INVALID_FORMAT,
-                        "Empty value for AI " + ai,
-                        valueStart
-                );
+                return error(Gs1ErrorCode.INVALID_FORMAT, valueStart, ai, () -> "Empty value for AI " + ai);
             }
 
-            String value = input.substring(valueStart, i);
-            tokens.add(new Gs1Token(ai, value, valueStart));
+            tokens.add(ordinal, valueStart, i);
         }
-
-        return tokens;
+        return null;
     }
 
-    private List<Gs1Token> tokenizeDataMatrixFormat(String input) {
+    private Gs1ParseError tokenizeDataMatrixFormat(CharSequence input, Gs1TokenBuffer tokens) {
         if (mode == Gs1ComplianceMode.STRICT && input.charAt(0) != FNC1) {
-            throw new Gs1ParseException(
-                    Gs1ErrorCode.INVALID_FORMAT,
-                    "GS1 DataMatrix must start with FNC1 in STRICT mode",
-                    0
-            );
+            return error(Gs1ErrorCode.INVALID_FORMAT, 0, null,
+                    () -> "GS1 DataMatrix must start with FNC1 in STRICT mode");
         }
 
-        List<Gs1Token> tokens = new ArrayList<>();
         int i = (input.charAt(0) == FNC1) ? 1 : 0;
 
         while (i < input.length()) {
 
-            String ai = resolveAi(input, i);
-            int aiPos = i;
-            ApplicationIdentifier aiDef = registry.find(ai).orElseThrow(() ->
-                    new Gs1ParseException(
-                            Gs1ErrorCode.UNKNOWN_AI,
-                            "Unknown AI " + ai,
-                            aiPos
-                    )
-            );
+            int ordinal = registry.longestMatch(input, i);
+            if (ordinal < 0) {
+                int pos = i;
+                return error(Gs1ErrorCode.INVALID_FORMAT, pos, null, () -> "Unable to resolve AI at position " + pos);
+            }
+            String ai = registry.code(ordinal);
+            ApplicationIdentifier aiDef = registry.get(ordinal);
 
             i += ai.length();
             int start = i;
@@ -142,14 +145,12 @@ public class Gs1Tokenizer implements Tokenizer {
                 int endPos = start + requiredLength;
 
                 if (endPos > input.length()) {
-                    throw new Gs1ParseException(
-                            Gs1ErrorCode.INVALID_FORMAT,
-                            "Truncated value for AI " + ai + ": expected " + requiredLength + " characters, got " + (input.length() - start),
-                            start
-                    );
+                    int available = input.length() - start;
+                    return error(Gs1ErrorCode.INVALID_FORMAT, start, ai,
+                            () -> "Truncated value for AI " + ai + ": expected " + requiredLength + " characters, got " + available);
                 }
 
-                tokens.add(new Gs1Token(ai, input.substring(start, endPos), start));
+                tokens.add(ordinal, start, endPos);
                 i = endPos;
 
                 // Skip optional FNC1 separator after fixed-length field
@@ -157,73 +158,43 @@ public class Gs1Tokenizer implements Tokenizer {
                     i++;
                 }
             } else {
-                // Variable-length AI - detect potential AI codes in the value
-                int potentialAiPos = -1;
-                while (i < input.length() && input.charAt(i) != FNC1) {
-                    // Check if we encounter a potential AI code
-                    if (potentialAiPos == -1 && couldBeAiStart(input, i)) {
-                        potentialAiPos = i;
+                // Variable-length AI - the value runs to the next FNC1 or end of input
+                int fnc1 = ScanKernels.indexOf(input, FNC1, start, input.length());
+                boolean terminatedByFnc1 = fnc1 >= 0;
+                i = terminatedByFnc1 ? fnc1 : input.length();
+
+                // Without an FNC1, a potential AI code inside the value makes it ambiguous
+                if (!terminatedByFnc1) {
+                    for (int p = start; p < i; p++) {
+                        if (couldBeAiStart(input, p)) {
+                            int pos = p;
+                            return error(Gs1ErrorCode.INVALID_FORMAT, pos, ai,
+                                    () -> "Missing FNC1 after variable-length AI " + ai + " (found potential AI at position " + pos + ")");
+                        }
                     }
-                    i++;
-                }
-
-                boolean terminatedByFnc1 = i < input.length() && input.charAt(i) == FNC1;
-
-                // If we found a potential AI in the value and no FNC1, this is ambiguous
-                if (!terminatedByFnc1 && potentialAiPos != -1) {
-                    throw new Gs1ParseException(
-                            Gs1ErrorCode.INVALID_FORMAT,
-                            "Missing FNC1 after variable-length AI " + ai + " (found potential AI at position " + potentialAiPos + ")",
-                            potentialAiPos
-                    );
                 }
 
                 if (start == i) {
-                    throw new Gs1ParseException(
-                            Gs1ErrorCode.INVALID_FORMAT,
-                            "Empty value for AI " + ai,
-                            start
-                    );
+                    return error(Gs1ErrorCode.INVALID_FORMAT, start, ai, () -> "Empty value for AI " + ai);
                 }
 
-                tokens.add(new Gs1Token(ai, input.substring(start, i), start));
+                tokens.add(ordinal, start, i);
 
                 if (terminatedByFnc1) {
                     i++;
                 }
             }
         }
-
-        return tokens;
+        return null;
     }
 
-    private boolean couldBeAiStart(String input, int pos) {
-        // Check if position could be the start of a known AI (2-4 digits)
-        for (int len : new int[]{4, 3, 2}) {
-            if (pos + len <= input.length()) {
-                String candidate = input.substring(pos, pos + len);
-                // Check if it's all digits and matches a known AI
-                if (candidate.chars().allMatch(Character::isDigit) && registry.find(candidate).isPresent()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    private boolean couldBeAiStart(CharSequence input, int pos) {
+        // Check if position could be the start of a known numeric AI (2-4 digits),
+        // so a longer non-numeric custom code cannot shadow it
+        return registry.longestNumericMatch(input, pos) >= 0;
     }
 
-    private String resolveAi(String input, int pos) {
-        for (int len : new int[]{4, 3, 2}) {
-            if (pos + len <= input.length()) {
-                String candidate = input.substring(pos, pos + len);
-                if (registry.find(candidate).isPresent()) {
-                    return candidate;
-                }
-            }
-        }
-        throw new Gs1ParseException(
-                Gs1ErrorCode.INVALID_FORMAT,
-                "Unable to resolve AI at position " + pos,
-                pos
-        );
+    private static Gs1ParseError error(Gs1ErrorCode code, int pos, String ai, Supplier<String> message) {
+        return new Gs1ParseError(code, pos, ai, message);
     }
 }
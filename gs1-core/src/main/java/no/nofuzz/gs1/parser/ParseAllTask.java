@@ -0,0 +1,51 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+
+import java.io.Serial;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses a range of a batch by splitting it in halves until the range is no
+ * larger than the leaf size. Each leaf reuses one parse context and writes its
+ * outcomes into the shared output array at the input's index.
+ */
+final class ParseAllTask extends RecursiveAction {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Gs1Parser parser;
+    private final CharSequence[] inputs;
+    private final Gs1ParseOutcome[] outcomes;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+
+    ParseAllTask(Gs1Parser parser, CharSequence[] inputs, Gs1ParseOutcome[] outcomes, int from, int to, int leafSize) {
+        this.parser = parser;
+        this.inputs = inputs;
+        this.outcomes = outcomes;
+        this.from = from;
+        this.to = to;
+        this.leafSize = leafSize;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= leafSize) {
+            parseRange(parser, inputs, outcomes, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new ParseAllTask(parser, inputs, outcomes, from, mid, leafSize),
+                new ParseAllTask(parser, inputs, outcomes, mid, to, leafSize));
+    }
+
+    static void parseRange(Gs1Parser parser, CharSequence[] inputs, Gs1ParseOutcome[] outcomes, int from, int to) {
+        Gs1ParseContext context = new Gs1ParseContext();
+        for (int i = from; i < to; i++) {
+            outcomes[i] = parser.tryParseDetached(inputs[i], context);
+        }
+    }
+}
@@ -1,7 +1,48 @@
 package no.nofuzz.gs1.parser;
 
+import no.nofuzz.gs1.ai.AiRegistry;
+import no.nofuzz.gs1.ai.StandardAis;
+
 import java.util.List;
 
 public interface Tokenizer {
+
     List<Gs1Token> tokenize(String input);
-}
\ No newline at end of file
+
+    /**
+     * Tokenizes {@code input} into {@code tokens}, replacing its previous content.
+     * Token values are recorded as offsets into {@code input}.
+     *
+     * <p>The default implementation calls {@link #tokenize(String)} and records
+     * each token's value as starting at {@link Gs1Token#pos()}, with AI ordinals
+     * taken from {@link #registry()}. Implementations that can write offsets
+     * directly should override it, using {@link Gs1TokenBuffer#reset} and
+     * {@link Gs1TokenBuffer#add}.
+     *
+     * @param input the element string
+     * @param tokens the buffer receiving the tokens
+     * @throws IllegalArgumentException if a token's AI is not in {@link #registry()}
+     */
+    default void tokenize(CharSequence input, Gs1TokenBuffer tokens) {
+        AiRegistry registry = registry();
+        List<Gs1Token> list = tokenize(input.toString());
+        tokens.reset(registry, input);
+        for (Gs1Token token : list) {
+            int ordinal = registry.ordinal(token.ai());
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("AI " + token.ai() + " is not in the tokenizer's registry");
+            }
+            tokens.add(ordinal, token.pos(), token.pos() + token.raw().length());
+        }
+    }
+
+    /**
+     * Returns the registry that resolves AI ordinals for
+     * {@link #tokenize(CharSequence, Gs1TokenBuffer)}. Defaults to the standard AIs.
+     *
+     * @return the registry of the AIs this tokenizer produces
+     */
+    default AiRegistry registry() {
+        return StandardAis.defaultRegistry();
+    }
+}
@@ -0,0 +1,112 @@
+package no.nofuzz.gs1.scan;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Read-only {@link CharSequence} view over single-byte scanner input.
+ *
+ * <p>Each byte is mapped to the char with the same unsigned value (ISO-8859-1,
+ * a superset of ASCII), so FNC1 (byte 29), digits and the GS1 character sets map
+ * one to one. No bytes are copied or decoded until {@link #toString()} or
+ * {@link #substring(int, int)} is called, and only the requested range is
+ * decoded then. Array-backed views are scanned by the {@link ScanKernels}
+ * directly on the underlying bytes.
+ */
+public final class AsciiCharSequence implements CharSequence {
+
+    private final byte[] array;
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    private AsciiCharSequence(byte[] array, ByteBuffer buffer, int offset, int length) {
+        this.array = array;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Views {@code length} bytes of {@code bytes} starting at {@code offset}.
+     *
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public static AsciiCharSequence of(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        return new AsciiCharSequence(bytes, null, offset, length);
+    }
+
+    /**
+     * Views the remaining bytes of {@code buffer} without changing its position.
+     */
+    public static AsciiCharSequence of(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new AsciiCharSequence(
+                    buffer.array(), null, buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        return new AsciiCharSequence(null, buffer, buffer.position(), buffer.remaining());
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length);
+        byte b = array != null ? array[offset + index] : buffer.get(offset + index);
+        return (char) (b & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        return new AsciiCharSequence(array, buffer, offset + start, end - start);
+    }
+
+    /**
+     * Decodes the range {@code [start, end)} of this view into a string.
+     *
+     * @param start the start of the range (inclusive)
+     * @param end the end of the range (exclusive)
+     * @return the decoded characters
+     */
+    public String substring(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        if (array != null) {
+            return new String(array, offset + start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(offset + start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length);
+    }
+
+    /**
+     * @return the backing array, or null if this view is backed by a direct buffer
+     */
+    byte[] array() {
+        return array;
+    }
+
+    /**
+     * @return the backing buffer, or null if this view is backed by an array
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the index in the backing array or buffer of the first character of this view
+     */
+    int offset() {
+        return offset;
+    }
+}
@@ -0,0 +1,35 @@
+package no.nofuzz.gs1.scan;
+
+import no.nofuzz.gs1.ai.CharacterSet;
+
+/**
+ * One byte at a time. Used on runtimes without the Vector API and for the tails
+ * of ranges shorter than a vector.
+ */
+final class ScalarScanKernel implements ScanKernel {
+
+    @Override
+    public int indexOf(byte[] a, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (a[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfInvalid(byte[] a, int from, int to, CharacterSet set) {
+        for (int i = from; i < to; i++) {
+            if (!set.contains((char) (a[i] & 0xFF))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,28 @@
+package no.nofuzz.gs1.scan;
+
+import no.nofuzz.gs1.ai.CharacterSet;
+
+/**
+ * Scanning primitives over single-byte input.
+ *
+ * <p>Implementations must give identical results; they only differ in how many
+ * bytes they examine per step. Obtain one through {@link ScanKernels}.
+ */
+public interface ScanKernel {
+
+    /**
+     * Finds the first occurrence of {@code b} in {@code a} between {@code from}
+     * (inclusive) and {@code to} (exclusive).
+     *
+     * @return the index of the first match, or -1 if there is none
+     */
+    int indexOf(byte[] a, int from, int to, byte b);
+
+    /**
+     * Finds the first byte in {@code a} between {@code from} (inclusive) and
+     * {@code to} (exclusive) whose unsigned value is not a member of {@code set}.
+     *
+     * @return the index of the first invalid byte, or -1 if all are members
+     */
+    int indexOfInvalid(byte[] a, int from, int to, CharacterSet set);
+}
@@ -0,0 +1,131 @@
+package no.nofuzz.gs1.scan;
+
+import no.nofuzz.gs1.ai.CharacterSet;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Entry points for the scanning loops of the tokenizer and the value validators.
+ *
+ * <p>On Java 21+ with {@code --add-modules jdk.incubator.vector}, a kernel built on
+ * the Vector API (shipped in the multi-release part of the jar) examines many
+ * bytes per step; otherwise, or when {@code -Dno.nofuzz.gs1.scan.vector=false} is
+ * set, a scalar kernel is used. Vectorized scanning applies to array-backed
+ * {@link AsciiCharSequence} input; buffer-backed views, such as memory-mapped
+ * files, are scanned a byte at a time on the buffer. FNC1 searches in {@link String} input use
+ * {@link String#indexOf(int, int)}, which the JVM already intrinsifies, and any
+ * other {@link CharSequence} is scanned character by character.
+ */
+public final class ScanKernels {
+
+    private static final String VECTOR_KERNEL = "no.nofuzz.gs1.scan.VectorScanKernel";
+
+    private static final ScanKernel SCALAR = new ScalarScanKernel();
+    private static final ScanKernel PREFERRED = loadPreferred();
+
+    private ScanKernels() {}
+
+    private static ScanKernel loadPreferred() {
+        if (!Boolean.parseBoolean(System.getProperty("no.nofuzz.gs1.scan.vector", "true"))) {
+            return SCALAR;
+        }
+        try {
+            return (ScanKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // Not on Java 21+, jdk.incubator.vector not added, or vectors too narrow
+            return SCALAR;
+        }
+    }
+
+    /**
+     * @return the scalar kernel
+     */
+    public static ScanKernel scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @return the fastest kernel available on this runtime
+     */
+    public static ScanKernel preferred() {
+        return PREFERRED;
+    }
+
+    /**
+     * Finds the first occurrence of {@code c} in {@code s} between {@code from}
+     * (inclusive) and {@code to} (exclusive).
+     *
+     * @return the index of the first match, or -1 if there is none
+     */
+    public static int indexOf(CharSequence s, char c, int from, int to) {
+        if (s instanceof String str) {
+            int i = str.indexOf(c, from);
+            return i < to ? i : -1;
+        }
+        if (s instanceof AsciiCharSequence bytes && bytes.array() != null) {
+            Objects.checkFromToIndex(from, to, bytes.length());
+            if (c > 0xFF) {
+                return -1;
+            }
+            int base = bytes.offset();
+            int i = PREFERRED.indexOf(bytes.array(), base + from, base + to, (byte) c);
+            return i < 0 ? -1 : i - base;
+        }
+        if (s instanceof AsciiCharSequence bytes) {
+            Objects.checkFromToIndex(from, to, bytes.length());
+            if (c > 0xFF) {
+                return -1;
+            }
+            ByteBuffer buffer = bytes.buffer();
+            int base = bytes.offset();
+            for (int i = base + from; i < base + to; i++) {
+                if (buffer.get(i) == (byte) c) {
+                    return i - base;
+                }
+            }
+            return -1;
+        }
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first character of {@code s} between {@code from} (inclusive) and
+     * {@code to} (exclusive) that is not a member of {@code set}.
+     *
+     * @return the index of the first invalid character, or -1 if all are members
+     */
+    public static int indexOfInvalid(CharSequence s, int from, int to, CharacterSet set) {
+        if (set == CharacterSet.ANY) {
+            return -1;
+        }
+        if (s instanceof AsciiCharSequence bytes && bytes.array() != null) {
+            Objects.checkFromToIndex(from, to, bytes.length());
+            int base = bytes.offset();
+            int i = PREFERRED.indexOfInvalid(bytes.array(), base + from, base + to, set);
+            return i < 0 ? -1 : i - base;
+        }
+        if (s instanceof AsciiCharSequence bytes) {
+            Objects.checkFromToIndex(from, to, bytes.length());
+            ByteBuffer buffer = bytes.buffer();
+            int base = bytes.offset();
+            for (int i = base + from; i < base + to; i++) {
+                if (!set.contains((char) (buffer.get(i) & 0xFF))) {
+                    return i - base;
+                }
+            }
+            return -1;
+        }
+        for (int i = from; i < to; i++) {
+            if (!set.contains(s.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
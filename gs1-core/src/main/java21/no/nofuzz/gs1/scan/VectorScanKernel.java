@@ -0,0 +1,93 @@
+package no.nofuzz.gs1.scan;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import no.nofuzz.gs1.ai.CharacterSet;
+
+import java.util.Arrays;
+
+/**
+ * Scans a full vector of bytes per step using the Vector API.
+ *
+ * <p>Each character set is compiled into its contiguous ASCII ranges (at most
+ * five for the GS1 sets), and a byte is a member if it falls in any of them.
+ * Range compares map directly onto SIMD instructions, unlike table lookups,
+ * which for wide vectors depend on byte permutes the JIT may not intrinsify.
+ * Bytes of 0x80 and above are negative as signed lanes and so never fall in a
+ * range, since only {@link CharacterSet#ANY} admits them.
+ *
+ * <p>Loaded reflectively by {@link ScanKernels}; construction fails if the
+ * preferred vector shape holds fewer than 16 bytes.
+ */
+final class VectorScanKernel implements ScanKernel {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private final ScalarScanKernel scalar = new ScalarScanKernel();
+    // Indexed by CharacterSet ordinal: alternating inclusive lower and upper bounds
+    private final byte[][] ranges;
+
+    public VectorScanKernel() {
+        int lanes = SPECIES.length();
+        if (lanes < 16) {
+            throw new UnsupportedOperationException("Vector shape too narrow: " + lanes + " bytes");
+        }
+
+        CharacterSet[] sets = CharacterSet.values();
+        ranges = new byte[sets.length][];
+        for (CharacterSet set : sets) {
+            byte[] bounds = new byte[128];
+            int n = 0;
+            for (int c = 0; c < 128; c++) {
+                if (set.contains((char) c) && (c == 0 || !set.contains((char) (c - 1)))) {
+                    bounds[n++] = (byte) c;
+                }
+                if (set.contains((char) c) && (c == 127 || !set.contains((char) (c + 1)))) {
+                    bounds[n++] = (byte) c;
+                }
+            }
+            ranges[set.ordinal()] = Arrays.copyOf(bounds, n);
+        }
+    }
+
+    @Override
+    public int indexOf(byte[] a, int from, int to, byte b) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Byte> hits = ByteVector.fromArray(SPECIES, a, i).eq(b);
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+        return scalar.indexOf(a, i, to, b);
+    }
+
+    @Override
+    public int indexOfInvalid(byte[] a, int from, int to, CharacterSet set) {
+        if (set == CharacterSet.ANY) {
+            return -1;
+        }
+        byte[] bounds = ranges[set.ordinal()];
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector v = ByteVector.fromArray(SPECIES, a, i);
+            VectorMask<Byte> valid = SPECIES.maskAll(false);
+            for (int r = 0; r < bounds.length; r += 2) {
+                valid = valid.or(v.compare(VectorOperators.GE, bounds[r]).and(v.compare(VectorOperators.LE, bounds[r + 1])));
+            }
+            if (!valid.allTrue()) {
+                return i + valid.not().firstTrue();
+            }
+        }
+        return scalar.indexOfInvalid(a, i, to, set);
+    }
+
+    @Override
+    public String toString() {
+        return "vector" + SPECIES.vectorBitSize();
+    }
+}
@@ -2,6 +2,9 @@ package no.nofuzz.gs1.ai;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class AiRegistryTest {
@@ -14,4 +17,122 @@ class AiRegistryTest {
         assertThat(registry.find("10")).isPresent();
         assertThat(registry.find("17")).isPresent();
     }
-}
\ No newline at end of file
+
+    @Test
+    void ordinalsRoundTripToCodesAndDefinitions() {
+        AiRegistry registry = StandardAis.defaultRegistry();
+
+        assertThat(registry.size()).isEqualTo(registry.asMap().size());
+        for (int ordinal = 0; ordinal < registry.size(); ordinal++) {
+            String code = registry.code(ordinal);
+            assertThat(registry.ordinal(code)).isEqualTo(ordinal);
+            assertThat(registry.get(ordinal)).isSameAs(registry.asMap().get(code));
+        }
+        assertThat(registry.ordinal("99")).isEqualTo(-1);
+    }
+
+    @Test
+    void longestMatchPrefersLongestRegisteredCode() {
+        AiRegistry registry = StandardAis.defaultRegistry();
+
+        assertThat(registry.code(registry.longestMatch("3103000123", 0))).isEqualTo("3103");
+        assertThat(registry.code(registry.longestMatch("410123", 0))).isEqualTo("410");
+        assertThat(registry.code(registry.longestMatch("x0109501101530003", 1))).isEqualTo("01");
+    }
+
+    @Test
+    void longestMatchRejectsUnknownAndTruncatedCodes() {
+        AiRegistry registry = StandardAis.defaultRegistry();
+
+        assertThat(registry.longestMatch("99ABC", 0)).isEqualTo(-1);
+        assertThat(registry.longestMatch("1", 0)).isEqualTo(-1);
+        assertThat(registry.longestMatch("1A", 0)).isEqualTo(-1);
+        assertThat(registry.longestMatch("01", 1)).isEqualTo(-1);
+    }
+
+    @Test
+    void longestMatchFallsBackToTheMapForNonNumericCodes() {
+        ApplicationIdentifier custom = new ApplicationIdentifier(
+                "AB", null, 10, true, CharacterSet.ANY, false, v -> v);
+        ApplicationIdentifier lot = new ApplicationIdentifier(
+                "10", null, 20, true, CharacterSet.ANY, false, v -> v);
+        AiRegistry registry = new AiRegistry(Map.of("AB", custom, "10", lot));
+
+        assertThat(registry.find("AB")).contains(custom);
+        assertThat(registry.code(registry.longestMatch("AB123", 0))).isEqualTo("AB");
+        assertThat(registry.code(registry.longestMatch("x10AB", 1))).isEqualTo("10");
+        assertThat(registry.longestMatch("AC123", 0)).isEqualTo(-1);
+        assertThat(registry.longestMatch("xA", 1)).isEqualTo(-1);
+        assertThat(registry.code(registry.longestMatch("10ABC", 0))).isEqualTo("10");
+    }
+
+    @Test
+    void defaultRegistryIsShared() {
+        assertThat(StandardAis.defaultRegistry()).isSameAs(StandardAis.defaultRegistry());
+    }
+
+    @Test
+    void overridesReplaceAndAddAisWithoutChangingTheBase() {
+        AiRegistry base = StandardAis.defaultRegistry();
+        ApplicationIdentifier lot = new ApplicationIdentifier(
+                "10", null, 30, true, CharacterSet.ANY, false, v -> v);
+        ApplicationIdentifier internal = new ApplicationIdentifier(
+                "99", null, 30, true, CharacterSet.ANY, false, v -> v);
+        ApplicationIdentifier named = new ApplicationIdentifier(
+                "AB", null, 10, true, CharacterSet.ANY, false, v -> v);
+
+        AiRegistry registry = base.withOverrides(Map.of("10", lot, "99", internal, "AB", named));
+
+        assertThat(registry.size()).isEqualTo(base.size() + 2);
+        assertThat(registry.ordinal("10")).isEqualTo(base.ordinal("10"));
+        assertThat(registry.get(registry.ordinal("10"))).isSameAs(lot);
+        assertThat(registry.code(registry.longestMatch("99ABC", 0))).isEqualTo("99");
+        assertThat(registry.ordinal("99")).isGreaterThanOrEqualTo(base.size());
+        assertThat(registry.find("AB")).contains(named);
+        assertThat(registry.code(registry.longestMatch("AB123", 0))).isEqualTo("AB");
+        assertThat(registry.asMap()).hasSize(registry.size()).containsEntry("10", lot);
+
+        assertThat(base.find("10")).isNotEqualTo(registry.find("10"));
+        assertThat(base.ordinal("99")).isEqualTo(-1);
+        assertThat(base.longestMatch("99ABC", 0)).isEqualTo(-1);
+    }
+
+    @Test
+    void emptyOverridesReturnTheSameRegistry() {
+        AiRegistry base = StandardAis.defaultRegistry();
+
+        assertThat(base.withOverrides(Map.of())).isSameAs(base);
+    }
+
+    @Test
+    void standardAisAreCompiledFromTheDictionary() {
+        AiRegistry registry = StandardAis.defaultRegistry();
+
+        ApplicationIdentifier gtin = registry.find("01").orElseThrow();
+        assertThat(gtin.fixedLength()).isEqualTo(14);
+        assertThat(gtin.validateCheckDigit()).isTrue();
+        ApplicationIdentifier lot = registry.find("10").orElseThrow();
+        assertThat(lot.fixedLength()).isNull();
+        assertThat(lot.maxLength()).isEqualTo(20);
+        assertThat(lot.variableLength()).isTrue();
+        assertThat(lot.characterSet()).isEqualTo(CharacterSet.ALPHANUMERIC);
+
+        assertThat(registry.find("17").orElseThrow().valueParser().apply("251231"))
+                .isEqualTo(LocalDate.of(2025, 12, 31));
+        assertThat(registry.find("30").orElseThrow().valueParser().apply("12")).isEqualTo(12);
+        assertThat(registry.find("3103").orElseThrow().valueParser().apply("001234").toString()).isEqualTo("1.234");
+        assertThat(registry.find("3365")).isPresent();
+        assertThat(registry.find("3106")).isEmpty();
+    }
+
+    @Test
+    void standardAisOfTheSameTypeShareValueParsers() {
+        AiRegistry registry = StandardAis.defaultRegistry();
+
+        assertThat(registry.find("3102").orElseThrow().valueParser())
+                .isSameAs(registry.find("3302").orElseThrow().valueParser())
+                .isNotSameAs(registry.find("3103").orElseThrow().valueParser());
+        assertThat(registry.find("11").orElseThrow().valueParser())
+                .isSameAs(registry.find("17").orElseThrow().valueParser());
+    }
+}
@@ -0,0 +1,62 @@
+package no.nofuzz.gs1.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CharacterSetTest {
+
+    @Test
+    void numericAndAlphanumericAgreeWithTheirRegularExpressions() {
+        for (char c = 0; c < 512; c++) {
+            String s = String.valueOf(c);
+            assertThat(CharacterSet.NUMERIC.contains(c))
+                    .as("NUMERIC %d", (int) c)
+                    .isEqualTo(s.matches("\\d"));
+            assertThat(CharacterSet.ALPHANUMERIC.contains(c))
+                    .as("ALPHANUMERIC %d", (int) c)
+                    .isEqualTo(s.matches("[0-9A-Z !\"#$%&'()*+,\\-./:;<=>?_]"));
+        }
+    }
+
+    @Test
+    void cset82HasEightyTwoMembers() {
+        assertThat(countMembers(CharacterSet.CSET82)).isEqualTo(82);
+        assertThat(CharacterSet.CSET82.matches("abcXYZ09!\"%&'()*+,-./:;<=>?_")).isTrue();
+        assertThat(CharacterSet.CSET82.matches("A B")).isFalse();
+        assertThat(CharacterSet.CSET82.matches("#")).isFalse();
+        assertThat(CharacterSet.CSET82.matches("é")).isFalse();
+    }
+
+    @Test
+    void cset39HasThirtyNineMembers() {
+        assertThat(countMembers(CharacterSet.CSET39)).isEqualTo(39);
+        assertThat(CharacterSet.CSET39.matches("AB-12/#")).isTrue();
+        assertThat(CharacterSet.CSET39.matches("ab")).isFalse();
+    }
+
+    @Test
+    void anyAcceptsEverything() {
+        assertThat(CharacterSet.ANY.matches("\u0000\u001Dÿ￿")).isTrue();
+    }
+
+    @Test
+    void validatesRangesOfTheInput() {
+        String input = "xx0123yy";
+
+        assertThat(CharacterSet.NUMERIC.matches(input, 2, 6)).isTrue();
+        assertThat(CharacterSet.NUMERIC.matches(input, 1, 6)).isFalse();
+        assertThat(CharacterSet.NUMERIC.indexOfInvalid(input, 2, 8)).isEqualTo(6);
+        assertThat(CharacterSet.NUMERIC.matches(input, 3, 3)).isTrue();
+    }
+
+    private static int countMembers(CharacterSet set) {
+        int count = 0;
+        for (char c = 0; c < 128; c++) {
+            if (set.contains(c)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
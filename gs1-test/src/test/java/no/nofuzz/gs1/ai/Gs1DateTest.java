@@ -0,0 +1,73 @@
+package no.nofuzz.gs1.ai;
+
+import no.nofuzz.gs1.parser.Gs1Parser;
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1DateTest {
+
+    @Test
+    void agreesWithLocalDateForEverySixDigitValue() {
+        for (int n = 0; n < 1_000_000; n++) {
+            String value = String.format("%06d", n);
+            int yy = n / 10_000;
+            int mm = n / 100 % 100;
+            int dd = n % 100;
+            int year = yy <= 50 ? 2000 + yy : 1900 + yy;
+
+            LocalDate expected;
+            try {
+                expected = dd == 0
+                        ? YearMonth.of(year, mm).atEndOfMonth()
+                        : LocalDate.of(year, mm, dd);
+            } catch (DateTimeException e) {
+                expected = null;
+            }
+
+            int epochDay = Gs1Date.epochDay(value);
+            if (expected == null) {
+                assertThat(epochDay).as(value).isEqualTo(Gs1Date.INVALID);
+            } else {
+                assertThat(epochDay).as(value).isEqualTo(expected.toEpochDay());
+            }
+        }
+    }
+
+    @Test
+    void dayZeroMeansLastDayOfMonth() {
+        assertThat(Gs1Date.parse("250200")).isEqualTo(LocalDate.of(2025, 2, 28));
+        assertThat(Gs1Date.parse("240200")).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(Gs1Date.parse("991200")).isEqualTo(LocalDate.of(1999, 12, 31));
+    }
+
+    @Test
+    void decodesRangesAndSharesInstances() {
+        String data = "(17)251231";
+
+        assertThat(Gs1Date.parse(data, 4, 10)).isEqualTo(LocalDate.of(2025, 12, 31));
+        assertThat(Gs1Date.parse(data, 4, 10)).isSameAs(Gs1Date.parse("251231"));
+        assertThat(Gs1Date.epochDay(data, 4, 10)).isEqualTo(LocalDate.of(2025, 12, 31).toEpochDay());
+        assertThat(Gs1Date.epochDay(data, 3, 10)).isEqualTo(Gs1Date.INVALID);
+    }
+
+    @Test
+    void rejectsInvalidDatesWithTheOriginalMessage() {
+        assertThatThrownBy(() -> Gs1Date.parse("250230"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid date format: 250230 (expected YYMMDD)");
+        assertThatThrownBy(() -> Gs1Date.parse("25A231"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void parserAppliesDayZeroRule() {
+        assertThat(Gs1Parser.defaultParser().parse("(17)250600").get("17"))
+                .hasValue(LocalDate.of(2025, 6, 30));
+    }
+}
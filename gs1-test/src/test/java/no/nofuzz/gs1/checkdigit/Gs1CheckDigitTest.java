@@ -3,6 +3,8 @@ package no.nofuzz.gs1.checkdigit;
 import no.nofuzz.gs1.ai.Gs1CheckDigit;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -77,4 +79,78 @@ class Gs1CheckDigitTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("cannot be null or empty");
     }
+
+    @Test
+    void rejectsSingleDigitInput() {
+        assertThatThrownBy(() -> Gs1CheckDigit.validate("5"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least 2 digits");
+        assertThatThrownBy(() -> Gs1CheckDigit.validate("(01)0", 4, 5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least 2 digits");
+
+        assertThat(Gs1CheckDigit.isValid("0", 0, 1)).isFalse();
+        assertThat(Gs1CheckDigit.validateAll(new String[] {"0"})).containsExactly(false);
+    }
+
+    @Test
+    void validatesRangesWithoutCopying() {
+        String data = "(01)09501101530003(414)0614141123452";
+
+        assertThat(Gs1CheckDigit.validate(data, 4, 18)).isTrue();
+        assertThat(Gs1CheckDigit.validate(data, 23, 36)).isTrue();
+        assertThat(Gs1CheckDigit.calculate(data, 4, 17)).isEqualTo(3);
+        assertThat(Gs1CheckDigit.validate(new StringBuilder("09501101530004"), 0, 14)).isFalse();
+
+        assertThatThrownBy(() -> Gs1CheckDigit.validate(data, 0, 18))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be numeric");
+        assertThatThrownBy(() -> Gs1CheckDigit.calculate(data, 4, 4))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be numeric");
+    }
+
+    @Test
+    void isValidReturnsFalseInsteadOfThrowing() {
+        assertThat(Gs1CheckDigit.isValid("09501101530003", 0, 14)).isTrue();
+        assertThat(Gs1CheckDigit.isValid("09501101530004", 0, 14)).isFalse();
+        assertThat(Gs1CheckDigit.isValid("0950110153000X", 0, 14)).isFalse();
+        assertThat(Gs1CheckDigit.isValid("", 0, 0)).isFalse();
+    }
+
+    @Test
+    void validatesPackedKeys() {
+        assertThat(Gs1CheckDigit.validate(9501101530003L)).isTrue();
+        assertThat(Gs1CheckDigit.validate(5901234123457L)).isTrue();
+        assertThat(Gs1CheckDigit.validate(614141123452L)).isTrue();
+        // SSCC
+        assertThat(Gs1CheckDigit.validate(106141411234567897L)).isTrue();
+        assertThat(Gs1CheckDigit.validate(9501101530004L)).isFalse();
+        assertThat(Gs1CheckDigit.validate(-9501101530003L)).isFalse();
+    }
+
+    @Test
+    void bulkValidationAgreesWithSingleValidation() {
+        Random random = new Random(7);
+        long[] keys = new long[1_000];
+        String[] strings = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Math.floorMod(random.nextLong(), 100_000_000_000_000L);
+            strings[i] = String.format("%014d", keys[i]);
+        }
+
+        boolean[] fromKeys = Gs1CheckDigit.validateAll(keys);
+        boolean[] fromStrings = Gs1CheckDigit.validateAll(strings);
+        for (int i = 0; i < keys.length; i++) {
+            boolean expected = Gs1CheckDigit.validate(strings[i]);
+            assertThat(fromKeys[i]).as(strings[i]).isEqualTo(expected);
+            assertThat(fromStrings[i]).as(strings[i]).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void bulkStringValidationReportsMalformedEntriesAsInvalid() {
+        assertThat(Gs1CheckDigit.validateAll(new String[] {"09501101530003", null, "", "ABC", "09501101530004"}))
+                .containsExactly(true, false, false, false, false);
+    }
 }
@@ -0,0 +1,147 @@
+package no.nofuzz.gs1.cli;
+
+import no.nofuzz.gs1.parser.Gs1Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1BatchCommandTest {
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+
+    @Test
+    void writesJsonLinesTaggedWithLineNumbers() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+        Gs1BatchCommand.Summary summary = new Gs1BatchCommand(parser, Gs1BatchCommand.Format.JSONL, 2)
+                .run(input("(01)09501101530003(17)251231\r\n\n(01)123\n(30)12"), out, errors);
+
+        assertThat(lines(out)).containsExactly(
+                "{\"line\":1,\"ok\":true,\"elements\":{\"01\":\"09501101530003\",\"17\":\"2025-12-31\"}}",
+                "{\"line\":4,\"ok\":true,\"elements\":{\"30\":12}}");
+        assertThat(lines(errors)).singleElement().asString()
+                .startsWith("{\"line\":3,\"ok\":false,\"error\":{\"code\":\"VALUE_PARSE_ERROR\"");
+        assertThat(summary.lines()).isEqualTo(3);
+        assertThat(summary.errors()).isEqualTo(1);
+    }
+
+    @Test
+    void writesOneCsvRowPerElement() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+        new Gs1BatchCommand(parser, Gs1BatchCommand.Format.CSV, 1)
+                .run(input("(01)09501101530003(10)AB,\"C\n(99)\n"), out, errors);
+
+        assertThat(lines(out)).containsExactly(
+                "line,ai,value",
+                "1,01,09501101530003",
+                "1,10,\"AB,\"\"C\"");
+        assertThat(lines(errors)).hasSize(2).first().isEqualTo("line,code,position,ai,message");
+        assertThat(lines(errors).get(1)).startsWith("2,");
+    }
+
+    @Test
+    void writesTabSeparatedRows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new Gs1BatchCommand(parser, Gs1BatchCommand.Format.TSV, 1)
+                .run(input("(3102)002599(10)A,B"), out, new ByteArrayOutputStream());
+
+        assertThat(lines(out)).containsExactly("line\tai\tvalue", "1\t3102\t25.99", "1\t10\tA,B");
+    }
+
+    @Test
+    void preservesInputOrderAcrossBlocks() throws IOException {
+        // Enough input for several blocks, with lines crossing the block boundaries
+        int count = 3 * Gs1BatchCommand.BLOCK_SIZE / 30;
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            input.append("(01)09501101530003(30)").append(i).append('\n');
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Gs1BatchCommand.Summary summary = new Gs1BatchCommand(parser, Gs1BatchCommand.Format.CSV, 4)
+                .run(input(input.toString()), out, new ByteArrayOutputStream());
+
+        List<String> rows = lines(out);
+        assertThat(summary.lines()).isEqualTo(count);
+        assertThat(summary.errors()).isZero();
+        assertThat(rows).hasSize(1 + 2 * count);
+        for (int i = 0; i < count; i++) {
+            assertThat(rows.get(2 + 2 * i)).isEqualTo((i + 1) + ",30," + i);
+        }
+    }
+
+    @Test
+    void handlesLinesLongerThanABlock() throws IOException {
+        String value = "A".repeat(Gs1BatchCommand.BLOCK_SIZE + 10);
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+        Gs1BatchCommand.Summary summary = new Gs1BatchCommand(parser, Gs1BatchCommand.Format.JSONL, 1)
+                .run(input("(30)1\n(90)" + value + "\n(30)2\n"), new ByteArrayOutputStream(), errors);
+
+        assertThat(summary.lines()).isEqualTo(3);
+        assertThat(summary.errors()).isEqualTo(1);
+        assertThat(lines(errors)).singleElement().asString().startsWith("{\"line\":2,");
+    }
+
+    @Test
+    void rejectsRunawayLines() {
+        String value = "A".repeat(3 * Gs1BatchCommand.MAX_LINE_LENGTH);
+        Gs1BatchCommand command = new Gs1BatchCommand(parser, Gs1BatchCommand.Format.JSONL, 1);
+
+        assertThatThrownBy(() -> command.run(input("(30)1\n(90)" + value), new ByteArrayOutputStream(),
+                new ByteArrayOutputStream()))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Line 2 is longer than");
+    }
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static List<String> lines(ByteArrayOutputStream out) {
+        return out.toString(StandardCharsets.ISO_8859_1).lines().toList();
+    }
+
+    @Test
+    void reportsFailedReadsOnStandardError(@TempDir Path dir) throws IOException {
+        Path out = dir.resolve("out.jsonl");
+        Files.writeString(dir.resolve("scans.log"), "(01)123\n");
+
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        PrintStream capture = new PrintStream(stderr, true, StandardCharsets.UTF_8);
+        System.setErr(capture);
+        try {
+            // Invalid lines go to standard error, which must still be open afterwards
+            assertThat(Gs1Cli.batch(new String[] {"batch", "--in", dir.resolve("scans.log").toString(),
+                    "--out", out.toString()})).isEqualTo(1);
+            // A directory opens but cannot be read
+            assertThat(Gs1Cli.batch(new String[] {"batch", "--in", dir.toString(), "--out", out.toString()}))
+                    .isEqualTo(1);
+            System.err.println("still open");
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        assertThat(capture.checkError()).isFalse();
+        assertThat(stderr.toString(StandardCharsets.UTF_8))
+                .contains("{\"line\":1,\"ok\":false")
+                .contains("Batch failed: ")
+                .endsWith("still open" + System.lineSeparator());
+    }
+}
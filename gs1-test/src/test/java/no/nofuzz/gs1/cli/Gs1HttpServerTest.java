@@ -0,0 +1,223 @@
+package no.nofuzz.gs1.cli;
+
+import no.nofuzz.gs1.ai.ApplicationIdentifier;
+import no.nofuzz.gs1.ai.CharacterSet;
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1HttpServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Gs1HttpServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = Gs1HttpServer.builder(Gs1Parser.defaultParser())
+                .bindAddress(InetAddress.getLoopbackAddress())
+                .port(0)
+                .batchWindow(Duration.ofMillis(5))
+                .drainTimeout(Duration.ZERO)
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.port() + path);
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long metric(String metrics, String name) {
+        Matcher m = Pattern.compile("(?m)^" + name + " (\\d+)$").matcher(metrics);
+        assertThat(m.find()).as(name).isTrue();
+        return Long.parseLong(m.group(1));
+    }
+
+    @Test
+    void parsesSingleScans() throws Exception {
+        HttpResponse<String> ok = post("/parse", "(01)09501101530003(10)ABC\n");
+        assertThat(ok.statusCode()).isEqualTo(200);
+        assertThat(ok.headers().firstValue("Content-Type")).hasValue("application/json");
+        assertThat(ok.body()).isEqualTo("{\"ok\":true,\"elements\":{\"01\":\"09501101530003\",\"10\":\"ABC\"}}");
+
+        HttpResponse<String> invalid = post("/parse", "(10)A(10)B");
+        assertThat(invalid.statusCode()).isEqualTo(422);
+        assertThat(invalid.body()).contains("\"code\":\"INVALID_FORMAT\"");
+
+        HttpResponse<String> query = get("/parse?scan=%1D0109501101530003");
+        assertThat(query.statusCode()).isEqualTo(200);
+        assertThat(query.body()).contains("\"01\":\"09501101530003\"");
+    }
+
+    @Test
+    void parsesNewlineDelimitedAndJsonArrayBatches() throws Exception {
+        String expected = "[{\"ok\":true,\"elements\":{\"10\":\"A\"}},"
+                + "{\"ok\":false,\"error\":{\"code\":\"INVALID_FORMAT\",\"position\":9,\"ai\":\"10\","
+                + "\"message\":\"Duplicate AI 10 found in input\"}},"
+                + "{\"ok\":true,\"elements\":{\"21\":\"X\"}}]";
+
+        HttpResponse<String> lines = post("/parse/batch", "(10)A\r\n(10)A(10)B\n\n(21)X");
+        assertThat(lines.statusCode()).isEqualTo(200);
+        assertThat(lines.body()).isEqualTo(expected);
+
+        HttpResponse<String> array = post("/parse/batch", " [\"(10)A\", \"(10)A(10)B\",\"\\u001D21X\"]");
+        assertThat(array.statusCode()).isEqualTo(200);
+        assertThat(array.body()).isEqualTo(expected);
+
+        assertThat(post("/parse/batch", "[\"(10)A\"").statusCode()).isEqualTo(400);
+        assertThat(post("/parse/batch", "").body()).isEqualTo("[]");
+    }
+
+    @Test
+    void coalescesConcurrentSingleScansIntoMicroBatches() throws Exception {
+        int n = 200;
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri("/parse"))
+                    .POST(HttpRequest.BodyPublishers.ofString("(37)" + i)).build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < n; i++) {
+            assertThat(responses.get(i).get().body()).isEqualTo("{\"ok\":true,\"elements\":{\"37\":" + i + "}}");
+        }
+
+        String metrics = get("/metrics").body();
+        assertThat(metric(metrics, "gs1_microbatch_scans_total")).isEqualTo(n);
+        assertThat(metric(metrics, "gs1_microbatches_total")).isLessThan(n);
+        assertThat(metric(metrics, "gs1_scans_total")).isEqualTo(n);
+    }
+
+    @Test
+    void reportsHealthAndMetrics() throws Exception {
+        HttpResponse<String> health = get("/health");
+        assertThat(health.statusCode()).isEqualTo(200);
+        assertThat(health.body()).isEqualTo("{\"status\":\"UP\"}");
+
+        post("/parse", "(10)A(10)B");
+        HttpResponse<String> metrics = get("/metrics");
+        assertThat(metrics.headers().firstValue("Content-Type")).hasValue("text/plain; version=0.0.4");
+        assertThat(metrics.body()).contains("# TYPE gs1_scans_total counter");
+        assertThat(metric(metrics.body(), "gs1_scan_errors_total")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUnknownPathsAndMethods() throws Exception {
+        assertThat(get("/parse/other").statusCode()).isEqualTo(404);
+        assertThat(get("/parse").statusCode()).isEqualTo(400);
+        assertThat(get("/parse/batch").statusCode()).isEqualTo(405);
+
+        String metrics = get("/metrics").body();
+        assertThat(metric(metrics, "gs1_http_client_errors_total")).isEqualTo(3);
+        assertThat(metric(metrics, "gs1_http_server_errors_total")).isZero();
+    }
+
+    @Test
+    void batcherCompletesRequestsSubmittedWhileClosing() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            MicroBatcher batcher = new MicroBatcher(Gs1Parser.defaultParser(), Runnable::run, 0, 16);
+            List<CompletableFuture<?>> outcomes = Collections.synchronizedList(new ArrayList<>());
+            List<Thread> submitters = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread submitter = new Thread(() -> {
+                    CompletableFuture<?> outcome;
+                    do {
+                        outcome = batcher.submit("(10)A");
+                        outcomes.add(outcome);
+                    } while (!outcome.isCompletedExceptionally());
+                });
+                submitters.add(submitter);
+                submitter.start();
+            }
+            Thread.sleep(5);
+            batcher.close();
+            for (Thread submitter : submitters) {
+                submitter.join();
+            }
+
+            // Every request is either parsed or failed, none is left queued
+            CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0]))
+                    .exceptionally(e -> null)
+                    .get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void batcherParsesTheRestOfABatchAfterAnError() throws Exception {
+        Gs1Parser failing = Gs1Parser.builder()
+                .registerAi("99", new ApplicationIdentifier("99", null, 30, true, CharacterSet.ALPHANUMERIC, false,
+                        v -> {
+                            throw new StackOverflowError("value parser");
+                        }))
+                .build();
+        // Both requests fill one batch, in which the first fails
+        try (MicroBatcher batcher = new MicroBatcher(failing, Runnable::run, TimeUnit.SECONDS.toNanos(1), 2)) {
+            CompletableFuture<Gs1ParseOutcome> first = batcher.submit("(99)X");
+            CompletableFuture<Gs1ParseOutcome> second = batcher.submit("(10)A");
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+            assertThat(second.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+        }
+    }
+
+    @Test
+    void answersServerFaultsWithAJsonError() throws Exception {
+        server.close();
+        Gs1Parser failing = Gs1Parser.builder()
+                .registerAi("99", new ApplicationIdentifier("99", null, 30, true, CharacterSet.ALPHANUMERIC, false,
+                        v -> {
+                            throw new IllegalStateException("value parser failed");
+                        }))
+                .build();
+        server = Gs1HttpServer.builder(failing)
+                .bindAddress(InetAddress.getLoopbackAddress())
+                .port(0)
+                .drainTimeout(Duration.ZERO)
+                .build()
+                .start();
+
+        HttpResponse<String> response = post("/parse/batch", "(99)X\n");
+        assertThat(response.statusCode()).isEqualTo(500);
+        assertThat(response.body()).contains("\"code\":\"INTERNAL_ERROR\"").contains("value parser failed");
+
+        // Through the micro-batcher, a parser failure is not mistaken for a shutdown
+        response = post("/parse", "(99)X");
+        assertThat(response.statusCode()).isEqualTo(500);
+        assertThat(response.body()).contains("\"code\":\"INTERNAL_ERROR\"").contains("value parser failed");
+
+        String metrics = get("/metrics").body();
+        assertThat(metric(metrics, "gs1_http_server_errors_total")).isEqualTo(2);
+        assertThat(metric(metrics, "gs1_http_client_errors_total")).isZero();
+    }
+}
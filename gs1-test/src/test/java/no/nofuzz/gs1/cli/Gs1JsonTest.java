@@ -0,0 +1,53 @@
+package no.nofuzz.gs1.cli;
+
+import no.nofuzz.gs1.model.Gs1Result;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1JsonTest {
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+
+    @Test
+    void writesElementsInInputOrderWithTypedValues() {
+        Gs1Result result = parser.parse("(17)251231(3102)002599(30)12(10)X");
+
+        assertThat(Gs1Json.appendResult(new StringBuilder(), result).toString()).isEqualTo(
+                "{\"ok\":true,\"elements\":{\"17\":\"2025-12-31\",\"3102\":25.99,\"30\":12,\"10\":\"X\"}}");
+    }
+
+    @Test
+    void escapesStringsToAscii() {
+        StringBuilder sb = new StringBuilder();
+        Gs1Json.appendString(sb, "a\"b\\c\u001Ddæ");
+
+        assertThat(sb.toString()).isEqualTo("\"a\\\"b\\\\c\\u001dd\\u00e6\"");
+    }
+
+    @Test
+    void writesParseErrors() {
+        var error = parser.tryParse("(99)").getError();
+
+        assertThat(Gs1Json.appendError(new StringBuilder(), error).toString())
+                .startsWith("{\"ok\":false,\"error\":{\"code\":\"" + error.getCode() + "\"")
+                .endsWith("}}");
+    }
+
+    @Test
+    void readsArraysOfStrings() {
+        assertThat(Gs1Json.parseStringArray(" [ ] ")).isEmpty();
+        assertThat(Gs1Json.parseStringArray("[\"(10)A\",\n \"\\u001d10B\", \"a\\\"b\\\\\"]"))
+                .containsExactly("(10)A", "\u001D10B", "a\"b\\");
+    }
+
+    @Test
+    void rejectsMalformedArrays() {
+        for (String json : new String[] {"", "{}", "[\"a\"", "[\"a\",]", "[1]", "[\"a\"] x", "[\"\\x\"]"}) {
+            assertThatThrownBy(() -> Gs1Json.parseStringArray(json)).as(json)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package no.nofuzz.gs1.cli;
+
+import no.nofuzz.gs1.parser.Gs1Parser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Gs1TcpServerTest {
+
+    private Gs1TcpServer server;
+
+    @AfterEach
+    void stop() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private Gs1TcpServer start(Gs1TcpServer.Builder builder) throws IOException {
+        server = builder.bindAddress(InetAddress.getLoopbackAddress()).port(0).build().start();
+        return server;
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port());
+        socket.setSoTimeout(10_000);
+        return socket;
+    }
+
+    private static void send(Socket socket, String lines) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(lines.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void answersEachLineWithJson() throws IOException {
+        start(Gs1TcpServer.builder(Gs1Parser.defaultParser()));
+
+        try (Socket socket = connect()) {
+            send(socket, "(01)09501101530003(17)251231(10)ABC123\r\n"
+                    + "\n"
+                    + "\u001D3103000125\u001D3725\n"
+                    + "(10)A(10)B\n");
+            BufferedReader in = reader(socket);
+
+            assertThat(in.readLine()).isEqualTo(
+                    "{\"ok\":true,\"elements\":{\"01\":\"09501101530003\",\"17\":\"2025-12-31\",\"10\":\"ABC123\"}}");
+            assertThat(in.readLine()).isEqualTo(
+                    "{\"ok\":true,\"elements\":{\"3103\":0.125,\"37\":25}}");
+            assertThat(in.readLine()).isEqualTo(
+                    "{\"ok\":false,\"error\":{\"code\":\"INVALID_FORMAT\",\"position\":9,\"ai\":\"10\","
+                            + "\"message\":\"Duplicate AI 10 found in input\"}}");
+        }
+    }
+
+    @Test
+    void servesManyConcurrentConnections() throws Exception {
+        start(Gs1TcpServer.builder(Gs1Parser.defaultParser()));
+        ExecutorService clients = Executors.newFixedThreadPool(50);
+        try {
+            List<Future<Integer>> answered = new ArrayList<>();
+            for (int c = 0; c < 200; c++) {
+                String lot = "LOT" + (char) ('A' + c % 26) + (char) ('A' + c / 26);
+                answered.add(clients.submit(() -> {
+                    try (Socket socket = connect()) {
+                        BufferedReader in = reader(socket);
+                        int ok = 0;
+                        for (int i = 0; i < 10; i++) {
+                            send(socket, "(10)" + lot + "\n");
+                            if (in.readLine().equals("{\"ok\":true,\"elements\":{\"10\":\"" + lot + "\"}}")) {
+                                ok++;
+                            }
+                        }
+                        return ok;
+                    }
+                }));
+            }
+            for (Future<Integer> f : answered) {
+                assertThat(f.get()).isEqualTo(10);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void answersPipelinedLinesInOrder() throws Exception {
+        start(Gs1TcpServer.builder(Gs1Parser.defaultParser()).maxPending(16));
+        int n = 20_000;
+
+        try (Socket socket = connect()) {
+            ExecutorService writer = Executors.newSingleThreadExecutor();
+            try {
+                // The server only reads ahead as far as the client drains responses
+                Future<?> sent = writer.submit((Callable<Void>) () -> {
+                    StringBuilder sb = new StringBuilder();
+                    for (int i = 0; i < n; i++) {
+                        sb.append("(37)").append(i).append('\n');
+                    }
+                    send(socket, sb.toString());
+                    return null;
+                });
+                BufferedReader in = reader(socket);
+                for (int i = 0; i < n; i++) {
+                    assertThat(in.readLine()).isEqualTo("{\"ok\":true,\"elements\":{\"37\":" + i + "}}");
+                }
+                sent.get();
+            } finally {
+                writer.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void closesIdleConnectionsAfterReadTimeout() throws IOException {
+        start(Gs1TcpServer.builder(Gs1Parser.defaultParser()).readTimeout(Duration.ofMillis(200)));
+
+        try (Socket socket = connect()) {
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void drainsOpenConnectionsOnClose() throws Exception {
+        start(Gs1TcpServer.builder(Gs1Parser.defaultParser()));
+
+        try (Socket socket = connect()) {
+            BufferedReader in = reader(socket);
+            send(socket, "(10)A\n");
+            assertThat(in.readLine()).contains("\"A\"");
+            assertThat(server.activeConnections()).isEqualTo(1);
+
+            // The last line has no terminator; draining still answers it
+            send(socket, "(10)B\n(10)C");
+            Thread.sleep(100);
+            server.close();
+
+            assertThat(in.readLine()).contains("\"B\"");
+            assertThat(in.readLine()).contains("\"C\"");
+            assertThat(in.readLine()).isNull();
+        }
+        assertThat(server.activeConnections()).isZero();
+    }
+
+    @Test
+    void rejectsConnectionsBeyondTheLimit() throws Exception {
+        start(Gs1TcpServer.builder(Gs1Parser.defaultParser()).maxConnections(1));
+
+        try (Socket first = connect(); Socket second = connect()) {
+            assertThat(reader(second).readLine()).contains("\"SERVER_BUSY\"");
+
+            send(first, "(10)A\n");
+            assertThat(reader(first).readLine()).contains("\"A\"");
+        }
+    }
+
+    @Test
+    void closesConnectionOnOverlongLine() throws IOException {
+        start(Gs1TcpServer.builder(Gs1Parser.defaultParser()).maxLineLength(64));
+
+        try (Socket socket = connect()) {
+            send(socket, "(10)A\n" + "9".repeat(100));
+            BufferedReader in = reader(socket);
+
+            assertThat(in.readLine()).contains("\"A\"");
+            assertThat(in.readLine()).contains("\"LINE_TOO_LONG\"");
+            assertThat(in.readLine()).isNull();
+        }
+    }
+}
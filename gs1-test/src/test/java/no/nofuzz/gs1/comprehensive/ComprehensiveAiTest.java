@@ -140,25 +140,25 @@ public class ComprehensiveAiTest {
     @Test
     public void parsesAI3122_WidthMeters() {
         Gs1Result result = parser.parse("(3122)001500");
-        assertEquals("15.00", result.getOrThrow("3122")); // 15.00 meters
+        assertEquals("15.00", result.getOrThrow("3122").toString()); // 15.00 meters
     }
 
     @Test
     public void parsesAI3242_WidthInches() {
         Gs1Result result = parser.parse("(3242)004800");
-        assertEquals("48.00", result.getOrThrow("3242")); // 48.00 inches
+        assertEquals("48.00", result.getOrThrow("3242").toString()); // 48.00 inches
     }
 
     @Test
     public void parsesAI3252_WidthFeet() {
         Gs1Result result = parser.parse("(3252)001200");
-        assertEquals("12.00", result.getOrThrow("3252")); // 12.00 feet
+        assertEquals("12.00", result.getOrThrow("3252").toString()); // 12.00 feet
     }
 
     @Test
     public void parsesAI3262_WidthYards() {
         Gs1Result result = parser.parse("(3262)000500");
-        assertEquals("5.00", result.getOrThrow("3262")); // 5.00 yards
+        assertEquals("5.00", result.getOrThrow("3262").toString()); // 5.00 yards
     }
 
     // ========================================
@@ -168,25 +168,25 @@ public class ComprehensiveAiTest {
     @Test
     public void parsesAI3132_HeightMeters() {
         Gs1Result result = parser.parse("(3132)000250");
-        assertEquals("2.50", result.getOrThrow("3132")); // 2.50 meters
+        assertEquals("2.50", result.getOrThrow("3132").toString()); // 2.50 meters
     }
 
     @Test
     public void parsesAI3272_HeightInches() {
         Gs1Result result = parser.parse("(3272)007200");
-        assertEquals("72.00", result.getOrThrow("3272")); // 72.00 inches
+        assertEquals("72.00", result.getOrThrow("3272").toString()); // 72.00 inches
     }
 
     @Test
     public void parsesAI3282_HeightFeet() {
         Gs1Result result = parser.parse("(3282)000800");
-        assertEquals("8.00", result.getOrThrow("3282")); // 8.00 feet
+        assertEquals("8.00", result.getOrThrow("3282").toString()); // 8.00 feet
     }
 
     @Test
     public void parsesAI3292_HeightYards() {
         Gs1Result result = parser.parse("(3292)000300");
-        assertEquals("3.00", result.getOrThrow("3292")); // 3.00 yards
+        assertEquals("3.00", result.getOrThrow("3292").toString()); // 3.00 yards
     }
 
     // ========================================
@@ -196,13 +196,13 @@ public class ComprehensiveAiTest {
     @Test
     public void parsesAI3142_AreaSquareMeters() {
         Gs1Result result = parser.parse("(3142)012500");
-        assertEquals("125.00", result.getOrThrow("3142")); // 125.00 m²
+        assertEquals("125.00", result.getOrThrow("3142").toString()); // 125.00 m²
     }
 
     @Test
     public void parsesAI3145_AreaSquareMeters_5Decimals() {
         Gs1Result result = parser.parse("(3145)000123");
-        assertEquals("0.00123", result.getOrThrow("3145")); // 0.00123 m²
+        assertEquals("0.00123", result.getOrThrow("3145").toString()); // 0.00123 m²
     }
 
     // ========================================
@@ -212,13 +212,13 @@ public class ComprehensiveAiTest {
     @Test
     public void parsesAI3152_VolumeLiters() {
         Gs1Result result = parser.parse("(3152)005000");
-        assertEquals("50.00", result.getOrThrow("3152")); // 50.00 liters
+        assertEquals("50.00", result.getOrThrow("3152").toString()); // 50.00 liters
     }
 
     @Test
     public void parsesAI3162_VolumeCubicMeters() {
         Gs1Result result = parser.parse("(3162)000350");
-        assertEquals("3.50", result.getOrThrow("3162")); // 3.50 m³
+        assertEquals("3.50", result.getOrThrow("3162").toString()); // 3.50 m³
     }
 
     // ========================================
@@ -228,37 +228,37 @@ public class ComprehensiveAiTest {
     @Test
     public void parsesAI3312_LogisticLength() {
         Gs1Result result = parser.parse("(3312)120000");
-        assertEquals("1200.00", result.getOrThrow("3312")); // 1200.00 cm (logistic)
+        assertEquals("1200.00", result.getOrThrow("3312").toString()); // 1200.00 cm (logistic)
     }
 
     @Test
     public void parsesAI3322_LogisticWidth() {
         Gs1Result result = parser.parse("(3322)080000");
-        assertEquals("800.00", result.getOrThrow("3322")); // 800.00 cm
+        assertEquals("800.00", result.getOrThrow("3322").toString()); // 800.00 cm
     }
 
     @Test
     public void parsesAI3332_LogisticHeight() {
         Gs1Result result = parser.parse("(3332)100000");
-        assertEquals("1000.00", result.getOrThrow("3332")); // 1000.00 cm
+        assertEquals("1000.00", result.getOrThrow("3332").toString()); // 1000.00 cm
     }
 
     @Test
     public void parsesAI3342_LogisticArea() {
         Gs1Result result = parser.parse("(3342)096000");
-        assertEquals("960.00", result.getOrThrow("3342")); // 960.00 cm² logistic
+        assertEquals("960.00", result.getOrThrow("3342").toString()); // 960.00 cm² logistic
     }
 
     @Test
     public void parsesAI3352_LogisticVolumeLiters() {
         Gs1Result result = parser.parse("(3352)096000");
-        assertEquals("960.00", result.getOrThrow("3352")); // 960.00 liters
+        assertEquals("960.00", result.getOrThrow("3352").toString()); // 960.00 liters
     }
 
     @Test
     public void parsesAI3362_LogisticVolumeCubic() {
         Gs1Result result = parser.parse("(3362)000960");
-        assertEquals("9.60", result.getOrThrow("3362")); // 9.60 m³
+        assertEquals("9.60", result.getOrThrow("3362").toString()); // 9.60 m³
     }
 
     // ========================================
@@ -278,10 +278,10 @@ public class ComprehensiveAiTest {
 
         assertEquals("006141411234567897", result.getOrThrow("00"));
         assertEquals("09501101530003", result.getOrThrow("02"));
-        assertEquals("1250.00", result.getOrThrow("3302"));
-        assertEquals("1200.00", result.getOrThrow("3312"));
-        assertEquals("800.00", result.getOrThrow("3322"));
-        assertEquals("1000.00", result.getOrThrow("3332"));
+        assertEquals("1250.00", result.getOrThrow("3302").toString());
+        assertEquals("1200.00", result.getOrThrow("3312").toString());
+        assertEquals("800.00", result.getOrThrow("3322").toString());
+        assertEquals("1000.00", result.getOrThrow("3332").toString());
     }
 
     @Test
@@ -336,9 +336,9 @@ public class ComprehensiveAiTest {
 
         assertEquals("09501101530003", result.getOrThrow("01"));
         assertEquals("COTTON-WHITE", result.getOrThrow("22"));
-        assertEquals("15.00", result.getOrThrow("3122"));
-        assertEquals("500.00", result.getOrThrow("3112"));
-        assertEquals("750.00", result.getOrThrow("3142"));
+        assertEquals("15.00", result.getOrThrow("3122").toString());
+        assertEquals("500.00", result.getOrThrow("3112").toString());
+        assertEquals("750.00", result.getOrThrow("3142").toString());
     }
 
     @Test
@@ -352,6 +352,6 @@ public class ComprehensiveAiTest {
 
         assertEquals("09501101530003", result.getOrThrow("01"));
         assertEquals("BATCH-789", result.getOrThrow("10"));
-        assertEquals("50.00", result.getOrThrow("3152"));
+        assertEquals("50.00", result.getOrThrow("3152").toString());
     }
 }
@@ -0,0 +1,377 @@
+package no.nofuzz.gs1.flow;
+
+import no.nofuzz.gs1.ai.ApplicationIdentifier;
+import no.nofuzz.gs1.ai.CharacterSet;
+import no.nofuzz.gs1.exception.Gs1ParseError;
+import no.nofuzz.gs1.exception.Gs1ParseException;
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import no.nofuzz.gs1.model.Gs1Result;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Gs1ParseProcessorTest {
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static String lot(int i) {
+        StringBuilder sb = new StringBuilder("L");
+        do {
+            sb.append((char) ('A' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return sb.toString();
+    }
+
+    /**
+     * Publishes (10)lot(i) for i below count, where the indexes in {@code invalid}
+     * repeat the AI and fail to parse. Records the demand it receives.
+     */
+    private static final class LotPublisher implements Flow.Publisher<CharSequence> {
+        final int count;
+        final int invalidEvery;
+        final AtomicLong requested = new AtomicLong();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicLong emitted = new AtomicLong();
+        private final AtomicLong pending = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        LotPublisher(int count, int invalidEvery) {
+            this.count = count;
+            this.invalidEvery = invalidEvery;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super CharSequence> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                    pending.addAndGet(n);
+                    if (wip.getAndIncrement() != 0) {
+                        return;
+                    }
+                    do {
+                        while (pending.get() > 0 && !cancelled.get() && emitted.get() < count) {
+                            pending.decrementAndGet();
+                            int i = (int) emitted.getAndIncrement();
+                            subscriber.onNext(invalidEvery > 0 && i % invalidEvery == 0
+                                    ? "(10)" + lot(i) + "(10)" + lot(i)
+                                    : "(10)" + lot(i));
+                        }
+                        if (emitted.get() == count && !cancelled.getAndSet(true)) {
+                            subscriber.onComplete();
+                        }
+                    } while (wip.decrementAndGet() != 0);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled.set(true);
+                }
+            });
+        }
+    }
+
+    private static final class TestSubscriber<T> implements Flow.Subscriber<T> {
+        final List<T> items = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(1);
+        final long initialRequest;
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+
+        TestSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertThat(done.await(10, TimeUnit.SECONDS)).as("terminated").isTrue();
+        }
+    }
+
+    @Test
+    void emitsResultsInInputOrder() throws InterruptedException {
+        int n = 20_000;
+        LotPublisher publisher = new LotPublisher(n, 0);
+        Gs1ParseProcessor processor = Gs1ParseProcessor.builder(parser)
+                .executor(executor).batchSize(16).parallelism(4).build();
+        TestSubscriber<Gs1Result> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.await();
+
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.items).hasSize(n);
+        for (int i = 0; i < n; i++) {
+            assertThat(subscriber.items.get(i).getString("10")).isEqualTo(lot(i));
+        }
+    }
+
+    @Test
+    void honorsDownstreamDemand() throws InterruptedException {
+        LotPublisher publisher = new LotPublisher(100_000, 0);
+        Gs1ParseProcessor processor = Gs1ParseProcessor.builder(parser)
+                .executor(executor).batchSize(8).parallelism(2).build();
+        TestSubscriber<Gs1Result> subscriber = new TestSubscriber<>(5);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        awaitItems(subscriber, 5);
+
+        assertThat(subscriber.items).hasSize(5);
+        // At most 2 * batchSize * parallelism items outstanding, plus one batch of replenishment
+        assertThat(publisher.requested.get()).isLessThanOrEqualTo(2 * 8 * 2 + 8);
+
+        subscriber.subscription.request(20);
+        awaitItems(subscriber, 25);
+        assertThat(subscriber.items).hasSize(25);
+        assertThat(publisher.requested.get()).isLessThanOrEqualTo(25 + 2 * 8 * 2 + 8);
+        assertThat(subscriber.done.getCount()).isEqualTo(1);
+
+        subscriber.subscription.cancel();
+        assertThat(publisher.cancelled).isTrue();
+    }
+
+    @Test
+    void errorsInValueParsersFailTheStream() throws InterruptedException {
+        Gs1Parser failing = Gs1Parser.builder()
+                .registerAi("10", new ApplicationIdentifier("10", null, 20, true, CharacterSet.CSET82, false, v -> {
+                    throw new StackOverflowError("value parser");
+                }))
+                .build();
+        LotPublisher publisher = new LotPublisher(100, 0);
+        Gs1ParseProcessor processor = Gs1ParseProcessor.builder(failing).executor(executor).build();
+        TestSubscriber<Gs1Result> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.await();
+
+        assertThat(subscriber.error).isInstanceOf(StackOverflowError.class);
+        assertThat(publisher.cancelled).isTrue();
+    }
+
+    @Test
+    void failsStreamOnFirstInvalidInput() throws InterruptedException {
+        LotPublisher publisher = new LotPublisher(1_000, 500);
+        Gs1ParseProcessor processor = Gs1ParseProcessor.builder(parser).executor(executor).build();
+        TestSubscriber<Gs1Result> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.await();
+
+        // Index 0 is invalid
+        assertThat(subscriber.items).isEmpty();
+        assertThat(subscriber.error).isInstanceOf(Gs1ParseException.class)
+                .hasMessageContaining("Duplicate AI 10");
+        assertThat(publisher.cancelled).isTrue();
+    }
+
+    @Test
+    void routesInvalidInputsToHandler() throws InterruptedException {
+        int n = 5_000;
+        LotPublisher publisher = new LotPublisher(n, 7);
+        List<String> rejected = Collections.synchronizedList(new ArrayList<>());
+        Gs1ParseProcessor processor = Gs1ParseProcessor.builder(parser)
+                .executor(executor)
+                .onParseError((input, error) -> rejected.add(input.toString()))
+                .build();
+        TestSubscriber<Gs1Result> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.await();
+
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.items).hasSize(n - (n + 6) / 7);
+        assertThat(rejected).hasSize((n + 6) / 7).startsWith("(10)LA(10)LA", "(10)LH(10)LH");
+    }
+
+    @Test
+    void outcomeProcessorEmitsFailuresInBand() throws InterruptedException {
+        int n = 1_000;
+        LotPublisher publisher = new LotPublisher(n, 3);
+        Gs1OutcomeProcessor processor = Gs1OutcomeProcessor.builder(parser)
+                .executor(executor).batchSize(4).parallelism(3).build();
+        TestSubscriber<Gs1ParseOutcome> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.await();
+
+        assertThat(subscriber.items).hasSize(n);
+        for (int i = 0; i < n; i++) {
+            Gs1ParseOutcome outcome = subscriber.items.get(i);
+            if (i % 3 == 0) {
+                Gs1ParseError error = outcome.getError();
+                assertThat(error.getAi()).isEqualTo("10");
+            } else {
+                assertThat(outcome.getResult().getString("10")).isEqualTo(lot(i));
+            }
+        }
+    }
+
+    @Test
+    void propagatesUpstreamErrorAfterBufferedItems() throws InterruptedException {
+        Gs1ParseProcessor processor = Gs1ParseProcessor.of(parser);
+        TestSubscriber<Gs1Result> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        processor.onNext("(10)A");
+        processor.onError(new IllegalStateException("source failed"));
+        subscriber.await();
+
+        assertThat(subscriber.items).hasSize(1);
+        assertThat(subscriber.error).hasMessage("source failed");
+    }
+
+    @Test
+    void rejectsSecondSubscriber() throws InterruptedException {
+        Gs1ParseProcessor processor = Gs1ParseProcessor.of(parser);
+        processor.subscribe(new TestSubscriber<>(1));
+        TestSubscriber<Gs1Result> second = new TestSubscriber<>(1);
+
+        processor.subscribe(second);
+        second.await();
+
+        assertThat(second.error).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void nonPositiveRequestFailsTheStream() throws InterruptedException {
+        LotPublisher publisher = new LotPublisher(10, 0);
+        Gs1ParseProcessor processor = Gs1ParseProcessor.of(parser);
+        TestSubscriber<Gs1Result> subscriber = new TestSubscriber<>(0);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        subscriber.await();
+
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+        assertThat(publisher.cancelled).isTrue();
+    }
+
+    @Test
+    void completesOnlyAfterTheLastPartialBatchIsEmitted() throws Exception {
+        // The lock that guards batch sealing, held to line up the worker and the emitter
+        Field lockField = AbstractGs1Processor.class.getDeclaredField("lock");
+        lockField.setAccessible(true);
+
+        for (int run = 0; run < 50; run++) {
+            List<Thread> workers = Collections.synchronizedList(new ArrayList<>());
+            Gs1ParseProcessor processor = Gs1ParseProcessor.builder(parser)
+                    .executor(task -> {
+                        Thread worker = new Thread(task);
+                        workers.add(worker);
+                        worker.start();
+                    })
+                    .parallelism(1)
+                    .batchSize(4)
+                    .build();
+            TestSubscriber<Gs1Result> subscriber = new TestSubscriber<>(0);
+            processor.subscribe(subscriber);
+            processor.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+
+            Thread emitter = new Thread(() -> subscriber.subscription.request(Long.MAX_VALUE));
+            synchronized (lockField.get(processor)) {
+                // The first item is parsed at once, the second waits in the current batch
+                processor.onNext("(10)A");
+                processor.onNext("(10)B");
+                processor.onComplete();
+
+                // The worker has finished the first batch and waits to seal the second
+                awaitBlocked(workers.get(0));
+                // The emitter has emitted the first item and waits to check for completion
+                emitter.start();
+                awaitBlocked(emitter);
+            }
+            subscriber.await();
+
+            assertThat(subscriber.completed).isTrue();
+            assertThat(subscriber.items).extracting(result -> result.getString("10")).containsExactly("A", "B");
+        }
+    }
+
+    private static void awaitItems(TestSubscriber<?> subscriber, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (subscriber.items.size() < count) {
+            assertThat(System.nanoTime()).as("%d items received", count).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.BLOCKED) {
+            assertThat(System.nanoTime()).as("%s blocked", thread.getName()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+}
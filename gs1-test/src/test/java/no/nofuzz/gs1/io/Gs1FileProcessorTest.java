@@ -0,0 +1,315 @@
+package no.nofuzz.gs1.io;
+
+import no.nofuzz.gs1.exception.Gs1ErrorCode;
+import no.nofuzz.gs1.exception.Gs1ParseError;
+import no.nofuzz.gs1.parser.Gs1ParseContext;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1FileProcessorTest {
+
+    private static final int LINES = 5_000;
+
+    @TempDir
+    Path dir;
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+
+    /**
+     * Records the lot number of each successful line and the offset of each failed line.
+     */
+    private static final class CollectingSink implements Gs1LineSink {
+        final Map<Long, String> results = new ConcurrentHashMap<>();
+        final Map<Long, String> errors = new ConcurrentHashMap<>();
+
+        @Override
+        public void result(long offset, Gs1ParseContext context) {
+            results.put(offset, (String) context.getOrThrow("10"));
+        }
+
+        @Override
+        public void error(long offset, CharSequence line, Gs1ParseError error) {
+            assertThat(error.getCode()).isEqualTo(Gs1ErrorCode.INVALID_FORMAT);
+            errors.put(offset, line.toString());
+        }
+    }
+
+    // Lot numbers without digits, which lenient mode could mistake for a following AI
+    private static String lot(int i) {
+        StringBuilder sb = new StringBuilder("LOT");
+        do {
+            sb.append((char) ('A' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return sb.toString();
+    }
+
+    // Every 10th line is invalid, every 3rd ends in CRLF and blank lines are interspersed
+    private static byte[] corpus(Map<Long, String> expectedResults, Map<Long, String> expectedErrors) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            long offset = sb.length();
+            if (i % 10 == 0) {
+                String line = "(10)A(10)B" + i;
+                expectedErrors.put(offset, line);
+                sb.append(line);
+            } else {
+                expectedResults.put(offset, lot(i));
+                sb.append("\u001D0109501101530003").append("10").append(lot(i));
+            }
+            sb.append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 17 == 0) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 64, 1000, 1 << 20})
+    void processesMappedFilesInLineAlignedChunks(int chunkSize) throws IOException {
+        Map<Long, String> expectedResults = new ConcurrentHashMap<>();
+        Map<Long, String> expectedErrors = new ConcurrentHashMap<>();
+        Path file = Files.write(dir.resolve("scans.log"), corpus(expectedResults, expectedErrors));
+
+        CollectingSink sink = new CollectingSink();
+        Gs1FileProcessor.Summary summary = Gs1FileProcessor.builder(parser).chunkSize(chunkSize).build()
+                .process(file, sink);
+
+        assertThat(summary).isEqualTo(new Gs1FileProcessor.Summary(LINES, LINES / 10));
+        assertThat(sink.results).isEqualTo(expectedResults);
+        assertThat(sink.errors).isEqualTo(expectedErrors);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 64, 1 << 20})
+    void processesGzipFilesThroughTheStreamingPath(int chunkSize) throws IOException {
+        Map<Long, String> expectedResults = new ConcurrentHashMap<>();
+        Map<Long, String> expectedErrors = new ConcurrentHashMap<>();
+        byte[] corpus = corpus(expectedResults, expectedErrors);
+        Path file = dir.resolve("scans.log.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(corpus);
+        }
+
+        CollectingSink sink = new CollectingSink();
+        Gs1FileProcessor.Summary summary = Gs1FileProcessor.builder(parser).chunkSize(chunkSize).build()
+                .process(file, sink);
+
+        assertThat(summary).isEqualTo(new Gs1FileProcessor.Summary(LINES, LINES / 10));
+        assertThat(sink.results).isEqualTo(expectedResults);
+        assertThat(sink.errors).isEqualTo(expectedErrors);
+    }
+
+    @Test
+    void handlesInputWithoutTrailingNewline() throws IOException {
+        CollectingSink sink = new CollectingSink();
+        byte[] input = "(10)A\n(10)B".getBytes(StandardCharsets.US_ASCII);
+        Gs1FileProcessor processor = Gs1FileProcessor.builder(parser).chunkSize(4).build();
+
+        assertThat(processor.process(new ByteArrayInputStream(input), sink).lines()).isEqualTo(2);
+        assertThat(sink.results).containsExactlyInAnyOrderEntriesOf(Map.of(0L, "A", 6L, "B"));
+
+        CollectingSink fileSink = new CollectingSink();
+        processor.process(Files.write(dir.resolve("short.log"), input), fileSink);
+        assertThat(fileSink.results).isEqualTo(sink.results);
+    }
+
+    @Test
+    void emptyFilesHaveNoLines() throws IOException {
+        Path file = Files.write(dir.resolve("empty.log"), new byte[0]);
+
+        assertThat(Gs1FileProcessor.builder(parser).build().process(file, (offset, context) -> { }))
+                .isEqualTo(new Gs1FileProcessor.Summary(0, 0));
+    }
+
+    @Test
+    void sinkFailuresArePropagated() throws IOException {
+        Path file = Files.write(dir.resolve("one.log"), "(10)A\n".getBytes(StandardCharsets.US_ASCII));
+        Gs1LineSink sink = (offset, context) -> {
+            throw new IllegalStateException("sink failed");
+        };
+
+        assertThatThrownBy(() -> Gs1FileProcessor.builder(parser).build().process(file, sink))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("sink failed");
+    }
+
+    @Test
+    void boundsTheMappedChunksInFlight() throws IOException {
+        Path file = Files.write(dir.resolve("scans.log"), corpus(new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        AtomicInteger outstanding = new AtomicInteger();
+        AtomicInteger maxOutstanding = new AtomicInteger();
+        try {
+            Gs1FileProcessor processor = Gs1FileProcessor.builder(parser)
+                    .chunkSize(1)
+                    .executor(task -> {
+                        maxOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+                        worker.execute(() -> {
+                            try {
+                                task.run();
+                            } finally {
+                                outstanding.decrementAndGet();
+                            }
+                        });
+                    })
+                    .build();
+
+            assertThat(processor.process(file, (offset, context) -> { }).lines()).isEqualTo(LINES);
+        } finally {
+            worker.shutdownNow();
+        }
+        // Two chunks per processor, plus one submitted as a finishing task releases its permit
+        assertThat(maxOutstanding.get()).isLessThanOrEqualTo(2 * Runtime.getRuntime().availableProcessors() + 1);
+    }
+
+    @Test
+    void stopsReadingAtTheFirstFailedChunk() {
+        LineStream in = new LineStream("(10)A\n", 1L << 28);
+        Gs1LineSink sink = (offset, context) -> {
+            throw new IllegalStateException("sink failed");
+        };
+
+        assertThatThrownBy(() -> Gs1FileProcessor.builder(parser).chunkSize(64).build().process(in, sink))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("sink failed");
+        assertThat(in.read).isLessThan(1 << 20);
+    }
+
+    @Test
+    void keepsChunkFailuresThatFollowAReadFailure() {
+        byte[] chunk = "(10)A\n(10)B\n".getBytes(StandardCharsets.US_ASCII);
+        List<Runnable> queued = new ArrayList<>();
+        // Fills the first chunk, then fails once its parse has failed too
+        InputStream in = new InputStream() {
+            int read;
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0];
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (read == chunk.length) {
+                    queued.forEach(Runnable::run);
+                    throw new IOException("read failed");
+                }
+                int n = Math.min(len, chunk.length - read);
+                System.arraycopy(chunk, read, b, off, n);
+                read += n;
+                return n;
+            }
+        };
+        Gs1LineSink sink = (offset, context) -> {
+            throw new IllegalStateException("sink failed");
+        };
+        Gs1FileProcessor processor = Gs1FileProcessor.builder(parser)
+                .chunkSize(chunk.length)
+                .executor(queued::add)
+                .build();
+
+        assertThatThrownBy(() -> processor.process(in, sink))
+                .isInstanceOf(IOException.class)
+                .hasMessage("read failed")
+                .satisfies(e -> assertThat(e.getSuppressed())
+                        .singleElement()
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasFieldOrPropertyWithValue("message", "sink failed"));
+    }
+
+    @Test
+    void rejectsLinesLongerThanTheLineBuffer() {
+        LineStream in = new LineStream("A", Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> Gs1FileProcessor.builder(parser).chunkSize(64).build()
+                .process(in, (offset, context) -> { }))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Line at offset 0 is longer than 1048576 bytes");
+        assertThat(in.read).isLessThanOrEqualTo(2 << 20);
+    }
+
+    @Test
+    void propagatesRejectedExecution() throws IOException {
+        Path file = Files.write(dir.resolve("one.log"), "(10)A\n".getBytes(StandardCharsets.US_ASCII));
+        Gs1FileProcessor processor = Gs1FileProcessor.builder(parser)
+                .executor(task -> {
+                    throw new RejectedExecutionException("shut down");
+                })
+                .build();
+
+        assertThatThrownBy(() -> processor.process(file, (offset, context) -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThatThrownBy(() -> processor.process(Files.newInputStream(file), (offset, context) -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    /**
+     * Repeats {@code pattern} for {@code length} bytes and counts the bytes read.
+     */
+    private static final class LineStream extends InputStream {
+        final byte[] pattern;
+        final long length;
+        long read;
+
+        LineStream(String pattern, long length) {
+            this.pattern = pattern.getBytes(StandardCharsets.US_ASCII);
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0];
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (read == length) {
+                return -1;
+            }
+            int n = (int) Math.min(len, length - read);
+            if (pattern.length == 1) {
+                Arrays.fill(b, off, off + n, pattern[0]);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    b[off + i] = pattern[(int) ((read + i) % pattern.length)];
+                }
+            }
+            read += n;
+            return n;
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveChunkSize() {
+        assertThatThrownBy(() -> Gs1FileProcessor.builder(parser).chunkSize(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
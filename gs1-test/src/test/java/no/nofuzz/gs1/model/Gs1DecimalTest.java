@@ -0,0 +1,60 @@
+package no.nofuzz.gs1.model;
+
+import no.nofuzz.gs1.parser.Gs1Parser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1DecimalTest {
+
+    @Test
+    void variableMeasureAisDecodeToFixedPoint() {
+        Gs1Result result = Gs1Parser.defaultParser().parse("(3102)001250(3300)050000");
+
+        Gs1Decimal net = (Gs1Decimal) result.getOrThrow("3102");
+        assertThat(net.unscaledValue()).isEqualTo(1250);
+        assertThat(net.scale()).isEqualTo(2);
+        assertThat(net.toBigDecimal()).isEqualTo(new BigDecimal("12.50"));
+
+        Gs1Decimal gross = (Gs1Decimal) result.getOrThrow("3300");
+        assertThat(gross).isEqualTo(Gs1Decimal.of(50_000, 0));
+    }
+
+    @Test
+    void formatsLikeBigDecimalPlainString() {
+        for (int scale = 0; scale <= 6; scale++) {
+            for (long unscaled : new long[] {0, 1, 45, 999_999, 123_456, 1_000_000, -1_250}) {
+                assertThat(Gs1Decimal.of(unscaled, scale).toString())
+                        .isEqualTo(BigDecimal.valueOf(unscaled, scale).toPlainString());
+            }
+        }
+    }
+
+    @Test
+    void decodesDigitRanges() {
+        assertThat(Gs1Decimal.parse("(3105)000001", 6, 12, 5).toString()).isEqualTo("0.00001");
+        assertThat(Gs1Decimal.parse("999999999999999999", 0).unscaledValue()).isEqualTo(999_999_999_999_999_999L);
+
+        assertThatThrownBy(() -> Gs1Decimal.parse("12A4", 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("12A4");
+        assertThatThrownBy(() -> Gs1Decimal.parse("1234567890123456789", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Gs1Decimal.of(1, 19))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void equalityIsScaleSensitiveButComparisonIsNumeric() {
+        Gs1Decimal a = Gs1Decimal.of(1250, 2);
+        Gs1Decimal b = Gs1Decimal.of(125, 1);
+
+        assertThat(a).isNotEqualTo(b);
+        assertThat(a.compareTo(b)).isZero();
+        assertThat(a).isEqualTo(Gs1Decimal.parse("001250", 2)).hasSameHashCodeAs(Gs1Decimal.parse("001250", 2));
+        assertThat(Gs1Decimal.of(1, 0)).isGreaterThan(Gs1Decimal.of(99, 2));
+    }
+}
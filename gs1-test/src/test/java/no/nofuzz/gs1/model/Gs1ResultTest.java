@@ -0,0 +1,90 @@
+package no.nofuzz.gs1.model;
+
+import no.nofuzz.gs1.ai.AiRegistry;
+import no.nofuzz.gs1.ai.StandardAis;
+import no.nofuzz.gs1.parser.Gs1Parser;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1ResultTest {
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+
+    @Test
+    void typedAccessorsReadValuesDirectly() {
+        Gs1Result result = parser.parse("(01)09501101530003(17)251231(10)ABC123(30)42(3102)001250");
+
+        assertThat(result.getString("01")).isEqualTo("09501101530003");
+        assertThat(result.getLong("01")).isEqualTo(9501101530003L);
+        assertThat(result.getString("10")).isEqualTo("ABC123");
+        assertThat(result.getInt("30")).isEqualTo(42);
+        assertThat(result.getLong("30")).isEqualTo(42L);
+        assertThat(result.getEpochDay("17")).isEqualTo(LocalDate.of(2025, 12, 31).toEpochDay());
+        assertThat(result.getDecimal("3102")).isEqualTo(Gs1Decimal.of(1250, 2));
+        assertThat(result.getString("3102")).isEqualTo("12.50");
+        assertThat(result.size()).isEqualTo(5);
+    }
+
+    @Test
+    void typedAccessorsRejectMissingAndMistypedValues() {
+        Gs1Result result = parser.parse("(01)09501101530003(10)ABC123");
+
+        assertThatThrownBy(() -> result.getString("21"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("AI 21 not found in result");
+        assertThatThrownBy(() -> result.getLong("10"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not numeric");
+        assertThatThrownBy(() -> result.getInt("01"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not fit in an int");
+        assertThatThrownBy(() -> result.getEpochDay("01"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not a date");
+        assertThatThrownBy(() -> result.getDecimal("10"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not a decimal");
+    }
+
+    @Test
+    void asMapIsBuiltOnceAndMatchesTheElements() {
+        Gs1Result result = parser.parse("(01)09501101530003(17)251231");
+
+        Map<String, Gs1Element> map = result.asMap();
+        assertThat(map).containsOnlyKeys("01", "17");
+        assertThat(map.get("17").value()).isEqualTo(LocalDate.of(2025, 12, 31));
+        assertThat(result.asMap()).isSameAs(map);
+        assertThat(result).hasToString("Gs1Result{01=09501101530003, 17=2025-12-31}");
+    }
+
+    @Test
+    void mapBackedResultsSupportTheSameAccessors() {
+        Gs1Result result = new Gs1Result(Map.of("30", new Gs1Element("30", 7)));
+
+        assertThat(result.getInt("30")).isEqualTo(7);
+        assertThat(result.contains("30")).isTrue();
+        assertThat(result.get("01")).isEmpty();
+        assertThat(result.size()).isEqualTo(1);
+    }
+
+    @Test
+    void builtResultsCannotBeChangedThroughTheBuilder() {
+        AiRegistry registry = StandardAis.defaultRegistry();
+        Gs1Result.Builder builder = Gs1Result.builder(registry, 1)
+                .add(registry.ordinal("10"), "ABC", 4)
+                .add(registry.ordinal("30"), 7, 11);
+        Gs1Result result = builder.build();
+
+        assertThat(result.getString("10")).isEqualTo("ABC");
+        assertThat(result.getInt("30")).isEqualTo(7);
+        assertThat(result.size()).isEqualTo(2);
+        assertThatThrownBy(() -> builder.add(registry.ordinal("21"), "X", 0))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalStateException.class);
+    }
+}
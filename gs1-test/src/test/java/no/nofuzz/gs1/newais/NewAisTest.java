@@ -77,50 +77,50 @@ public class NewAisTest {
     @Test
     public void parsesAI3100_weightKg_noDecimals() {
         Gs1Result result = parser.parse("(3100)123456");
-        assertEquals("123456", result.getOrThrow("3100"));
+        assertEquals("123456", result.getOrThrow("3100").toString());
     }
 
     @Test
     public void parsesAI3101_weightKg_1decimal() {
         Gs1Result result = parser.parse("(3101)123456");
-        assertEquals("12345.6", result.getOrThrow("3101"));
+        assertEquals("12345.6", result.getOrThrow("3101").toString());
     }
 
     @Test
     public void parsesAI3102_weightKg_2decimals() {
         Gs1Result result = parser.parse("(3102)123456");
-        assertEquals("1234.56", result.getOrThrow("3102"));
+        assertEquals("1234.56", result.getOrThrow("3102").toString());
     }
 
     @Test
     public void parsesAI3103_weightKg_3decimals() {
         Gs1Result result = parser.parse("(3103)123456");
-        assertEquals("123.456", result.getOrThrow("3103"));
+        assertEquals("123.456", result.getOrThrow("3103").toString());
     }
 
     @Test
     public void parsesAI3104_weightKg_4decimals() {
         Gs1Result result = parser.parse("(3104)123456");
-        assertEquals("12.3456", result.getOrThrow("3104"));
+        assertEquals("12.3456", result.getOrThrow("3104").toString());
     }
 
     @Test
     public void parsesAI3105_weightKg_5decimals() {
         Gs1Result result = parser.parse("(3105)123456");
-        assertEquals("1.23456", result.getOrThrow("3105"));
+        assertEquals("1.23456", result.getOrThrow("3105").toString());
     }
 
     @Test
     public void parsesAI3102_weightKg_smallValue() {
         // Value smaller than decimal places should add leading zeros
         Gs1Result result = parser.parse("(3102)000045");
-        assertEquals("0.45", result.getOrThrow("3102"));
+        assertEquals("0.45", result.getOrThrow("3102").toString());
     }
 
     @Test
     public void parsesAI3105_weightKg_verySmallValue() {
         Gs1Result result = parser.parse("(3105)000001");
-        assertEquals("0.00001", result.getOrThrow("3105"));
+        assertEquals("0.00001", result.getOrThrow("3105").toString());
     }
 
     // ========================================
@@ -130,19 +130,19 @@ public class NewAisTest {
     @Test
     public void parsesAI3110_lengthM_noDecimals() {
         Gs1Result result = parser.parse("(3110)005000");
-        assertEquals("5000", result.getOrThrow("3110"));
+        assertEquals("5000", result.getOrThrow("3110").toString());
     }
 
     @Test
     public void parsesAI3112_lengthM_2decimals() {
         Gs1Result result = parser.parse("(3112)012345");
-        assertEquals("123.45", result.getOrThrow("3112"));
+        assertEquals("123.45", result.getOrThrow("3112").toString());
     }
 
     @Test
     public void parsesAI3115_lengthM_5decimals() {
         Gs1Result result = parser.parse("(3115)000567");
-        assertEquals("0.00567", result.getOrThrow("3115"));
+        assertEquals("0.00567", result.getOrThrow("3115").toString());
     }
 
     // ========================================
@@ -152,13 +152,13 @@ public class NewAisTest {
     @Test
     public void parsesAI3200_weightLb_noDecimals() {
         Gs1Result result = parser.parse("(3200)025000");
-        assertEquals("25000", result.getOrThrow("3200"));
+        assertEquals("25000", result.getOrThrow("3200").toString());
     }
 
     @Test
     public void parsesAI3202_weightLb_2decimals() {
         Gs1Result result = parser.parse("(3202)012750");
-        assertEquals("127.50", result.getOrThrow("3202"));
+        assertEquals("127.50", result.getOrThrow("3202").toString());
     }
 
     // ========================================
@@ -168,13 +168,13 @@ public class NewAisTest {
     @Test
     public void parsesAI3210_lengthIn_noDecimals() {
         Gs1Result result = parser.parse("(3210)012000");
-        assertEquals("12000", result.getOrThrow("3210"));
+        assertEquals("12000", result.getOrThrow("3210").toString());
     }
 
     @Test
     public void parsesAI3212_lengthIn_2decimals() {
         Gs1Result result = parser.parse("(3212)048250");
-        assertEquals("482.50", result.getOrThrow("3212"));
+        assertEquals("482.50", result.getOrThrow("3212").toString());
     }
 
     // ========================================
@@ -184,13 +184,13 @@ public class NewAisTest {
     @Test
     public void parsesAI3220_lengthFt_noDecimals() {
         Gs1Result result = parser.parse("(3220)001000");
-        assertEquals("1000", result.getOrThrow("3220"));
+        assertEquals("1000", result.getOrThrow("3220").toString());
     }
 
     @Test
     public void parsesAI3222_lengthFt_2decimals() {
         Gs1Result result = parser.parse("(3222)010500");
-        assertEquals("105.00", result.getOrThrow("3222"));
+        assertEquals("105.00", result.getOrThrow("3222").toString());
     }
 
     // ========================================
@@ -200,19 +200,19 @@ public class NewAisTest {
     @Test
     public void parsesAI3300_grossWeightKg_noDecimals() {
         Gs1Result result = parser.parse("(3300)050000");
-        assertEquals("50000", result.getOrThrow("3300"));
+        assertEquals("50000", result.getOrThrow("3300").toString());
     }
 
     @Test
     public void parsesAI3302_grossWeightKg_2decimals() {
         Gs1Result result = parser.parse("(3302)050025");
-        assertEquals("500.25", result.getOrThrow("3302"));
+        assertEquals("500.25", result.getOrThrow("3302").toString());
     }
 
     @Test
     public void parsesAI3305_grossWeightKg_5decimals() {
         Gs1Result result = parser.parse("(3305)000123");
-        assertEquals("0.00123", result.getOrThrow("3305"));
+        assertEquals("0.00123", result.getOrThrow("3305").toString());
     }
 
     // ========================================
@@ -226,7 +226,7 @@ public class NewAisTest {
 
         assertEquals("09501101530003", result.getOrThrow("01"));
         assertEquals("LOT42", result.getOrThrow("10"));
-        assertEquals("12.50", result.getOrThrow("3102"));  // 12.50 kg
+        assertEquals("12.50", result.getOrThrow("3102").toString());  // 12.50 kg
         assertEquals(LocalDate.of(2025, 6, 30), result.getOrThrow("17"));
         assertEquals(LocalDate.of(2025, 6, 28), result.getOrThrow("16"));
     }
@@ -238,7 +238,7 @@ public class NewAisTest {
 
         assertEquals("006141411234567897", result.getOrThrow("00"));
         assertEquals("09501101530003", result.getOrThrow("02"));
-        assertEquals("1250.00", result.getOrThrow("3302"));  // 1250.00 kg
+        assertEquals("1250.00", result.getOrThrow("3302").toString());  // 1250.00 kg
     }
 
     @Test
@@ -247,7 +247,7 @@ public class NewAisTest {
         Gs1Result result = parser.parse("(01)09501101530003(3112)005000(10)BATCH789");
 
         assertEquals("09501101530003", result.getOrThrow("01"));
-        assertEquals("50.00", result.getOrThrow("3112"));  // 50.00 meters
+        assertEquals("50.00", result.getOrThrow("3112").toString());  // 50.00 meters
         assertEquals("BATCH789", result.getOrThrow("10"));
     }
 
@@ -257,7 +257,7 @@ public class NewAisTest {
         Gs1Result result = parser.parse("(01)09501101530003(3222)001600(10)LUMBER-A");
 
         assertEquals("09501101530003", result.getOrThrow("01"));
-        assertEquals("16.00", result.getOrThrow("3222"));  // 16.00 feet
+        assertEquals("16.00", result.getOrThrow("3222").toString());  // 16.00 feet
         assertEquals("LUMBER-A", result.getOrThrow("10"));
     }
 }
@@ -0,0 +1,137 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.exception.Gs1ParseException;
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import no.nofuzz.gs1.model.Gs1Result;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingGs1ParserTest {
+
+    private static final String BARCODE = "(01)09501101530003(17)251231(10)ABC123";
+
+    @Test
+    void repeatedInputIsAnsweredFromTheCache() {
+        CachingGs1Parser parser = CachingGs1Parser.builder(Gs1Parser.defaultParser()).build();
+
+        Gs1Result first = parser.parse(BARCODE);
+        Gs1Result second = parser.parse(new StringBuilder(BARCODE));
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.asMap()).isEqualTo(Gs1Parser.defaultParser().parse(BARCODE).asMap());
+        CachingGs1Parser.Stats stats = parser.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void failuresAreOnlyCachedWhenEnabled() {
+        CachingGs1Parser plain = CachingGs1Parser.builder(Gs1Parser.defaultParser()).build();
+        CachingGs1Parser negative = CachingGs1Parser.builder(Gs1Parser.defaultParser()).cacheFailures(true).build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> plain.parse("(99999)X")).isInstanceOf(Gs1ParseException.class);
+            Gs1ParseOutcome outcome = negative.tryParse("(99999)X");
+            assertThat(outcome.isSuccess()).isFalse();
+        }
+
+        assertThat(plain.stats().hits()).isZero();
+        assertThat(plain.stats().size()).isZero();
+        assertThat(negative.stats().hits()).isEqualTo(2);
+        assertThatThrownBy(() -> negative.parse("(99999)X"))
+                .isInstanceOf(Gs1ParseException.class)
+                .hasMessage(Gs1Parser.defaultParser().tryParse("(99999)X").getError().getMessage());
+    }
+
+    @Test
+    void staysWithinMaximumWeight() {
+        CachingGs1Parser parser = CachingGs1Parser.builder(Gs1Parser.defaultParser())
+                .maximumWeight(500)
+                .weigher(String::length)
+                .build();
+
+        for (int i = 0; i < 2_000; i++) {
+            parser.parse("(10)LOT" + i);
+        }
+
+        CachingGs1Parser.Stats stats = parser.stats();
+        assertThat(stats.weight()).isLessThanOrEqualTo(500);
+        assertThat(stats.evictions()).isPositive();
+        assertThat(stats.size()).isEqualTo(stats.misses() - stats.evictions());
+    }
+
+    @Test
+    void frequentlyUsedEntriesSurviveAScanOfOneOffInputs() {
+        CachingGs1Parser parser = CachingGs1Parser.builder(Gs1Parser.defaultParser())
+                .maximumWeight(100)
+                .build();
+
+        List<String> hot = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            hot.add("(10)HOT" + i);
+        }
+        for (int round = 0; round < 10; round++) {
+            hot.forEach(parser::parse);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            parser.parse("(10)COLD" + i);
+        }
+
+        long before = parser.stats().hits();
+        hot.forEach(parser::parse);
+        assertThat(parser.stats().hits() - before).isGreaterThanOrEqualTo(18);
+    }
+
+    @Test
+    void invalidateAllEmptiesTheCache() {
+        CachingGs1Parser parser = CachingGs1Parser.builder(Gs1Parser.defaultParser()).build();
+        parser.parse(BARCODE);
+
+        parser.invalidateAll();
+
+        assertThat(parser.stats().size()).isZero();
+        assertThat(parser.stats().weight()).isZero();
+        parser.parse(BARCODE);
+        assertThat(parser.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentAccessKeepsTheCacheConsistent() throws Exception {
+        CachingGs1Parser parser = CachingGs1Parser.builder(Gs1Parser.defaultParser())
+                .maximumWeight(256)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        String lot = "LOT" + ((i * 31 + seed) % 1_000);
+                        assertThat(parser.parse("(10)" + lot).getString("10")).isEqualTo(lot);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        CachingGs1Parser.Stats stats = parser.stats();
+        assertThat(stats.hits() + stats.misses()).isEqualTo(160_000);
+        assertThat(stats.weight()).isLessThanOrEqualTo(256).isEqualTo(stats.size());
+    }
+}
@@ -0,0 +1,81 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.exception.Gs1ParseException;
+import no.nofuzz.gs1.model.Gs1Result;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1ByteInputTest {
+
+    private static final String DATAMATRIX = "\u001D0109501101530003" + "10ABC123\u001D" + "17251231";
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+
+    @Test
+    void parsesByteArray() {
+        Gs1Result result = parser.parse(DATAMATRIX.getBytes(StandardCharsets.US_ASCII));
+
+        assertThat(result.get("01")).hasValue("09501101530003");
+        assertThat(result.get("10")).hasValue("ABC123");
+        assertThat(result.get("17")).hasValue(LocalDate.of(2025, 12, 31));
+    }
+
+    @Test
+    void parsesByteArrayRange() {
+        byte[] frame = ("STX" + DATAMATRIX + "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        Gs1Result result = parser.parse(frame, 3, DATAMATRIX.length());
+
+        assertThat(result.asMap()).isEqualTo(parser.parse(DATAMATRIX).asMap());
+    }
+
+    @Test
+    void parsesHeapAndDirectBuffersWithoutMovingPosition() {
+        byte[] bytes = DATAMATRIX.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer heap = ByteBuffer.wrap(bytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+        direct.put((byte) 'X').put(bytes).flip().position(1);
+
+        assertThat(parser.parse(heap).asMap()).isEqualTo(parser.parse(DATAMATRIX).asMap());
+        assertThat(parser.parse(direct).asMap()).isEqualTo(parser.parse(DATAMATRIX).asMap());
+        assertThat(heap.position()).isZero();
+        assertThat(direct.position()).isEqualTo(1);
+    }
+
+    @Test
+    void reportsSameErrorPositionsAsStringInput() {
+        String input = "(01)09501101530003(99)ABC";
+        byte[] framed = ("##" + input).getBytes(StandardCharsets.US_ASCII);
+
+        Gs1ParseException fromString = catchParseException(() -> parser.parse(input));
+        Gs1ParseException fromBytes = catchParseException(() -> parser.parse(framed, 2, input.length()));
+
+        assertThat(fromBytes.getCode()).isEqualTo(fromString.getCode());
+        assertThat(fromBytes.getPosition()).isEqualTo(fromString.getPosition());
+        assertThat(fromBytes.getMessage()).isEqualTo(fromString.getMessage());
+    }
+
+    @Test
+    void rejectsEmptyAndNullByteInput() {
+        assertThatThrownBy(() -> parser.parse(new byte[0]))
+                .isInstanceOf(Gs1ParseException.class)
+                .hasMessageContaining("empty");
+        assertThatThrownBy(() -> parser.parse((ByteBuffer) null))
+                .isInstanceOf(Gs1ParseException.class);
+    }
+
+    private static Gs1ParseException catchParseException(Runnable parse) {
+        try {
+            parse.run();
+        } catch (Gs1ParseException e) {
+            return e;
+        }
+        throw new AssertionError("Expected Gs1ParseException");
+    }
+}
@@ -0,0 +1,106 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.model.Gs1CanonicalHash;
+import no.nofuzz.gs1.model.Gs1Result;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Gs1CanonicalKeyTest {
+
+    private static final char FNC1 = '\u001D';
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+
+    @Test
+    void gs1128AndDataMatrixInputsShareTheKey() {
+        Gs1Result parenthesis = parser.parse("(01)09501101530003(10)ABC123(17)251231");
+        Gs1Result dataMatrix = parser.parse(FNC1 + "0109501101530003" + "10ABC123" + FNC1 + "17251231");
+        Gs1Result bytes = parser.parse(("0109501101530003" + "10ABC123" + FNC1 + "17251231")
+                .getBytes(StandardCharsets.US_ASCII));
+
+        assertThat(dataMatrix.canonicalHash()).isEqualTo(parenthesis.canonicalHash());
+        assertThat(bytes.canonicalHash()).isEqualTo(parenthesis.canonicalHash());
+    }
+
+    @Test
+    void elementOrderDoesNotChangeTheKey() {
+        Gs1ParseContext first = parser.parse("(01)09501101530003(17)251231(10)ABC123", new Gs1ParseContext());
+        long hash = first.canonicalHash();
+        String form = first.canonicalForm();
+
+        Gs1ParseContext second = parser.parse("(10)ABC123(01)09501101530003(17)251231", new Gs1ParseContext());
+
+        assertThat(second.canonicalHash()).isEqualTo(hash);
+        assertThat(second.canonicalForm()).isEqualTo(form).isEqualTo("(01)09501101530003(10)ABC123(17)251231");
+    }
+
+    @Test
+    void hashMatchesTheCanonicalForm() {
+        Gs1ParseContext context = parser.parse(FNC1 + "10LOT7" + FNC1 + "0109501101530003", new Gs1ParseContext());
+
+        assertThat(parser.parse(context.canonicalForm()).canonicalHash()).isEqualTo(context.canonicalHash());
+    }
+
+    @Test
+    void differentElementStringsHaveDifferentKeys() {
+        Set<Long> hashes = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            hashes.add(parser.parse("(01)09501101530003(10)LOT" + i).canonicalHash());
+        }
+        // Moving a character between AI code and value must not collide
+        hashes.add(parser.parse("(10)ABC(21)123").canonicalHash());
+        hashes.add(parser.parse("(10)ABC1(21)23").canonicalHash());
+        // Swapping values between AIs must not collide
+        hashes.add(parser.parse("(10)X(21)Y").canonicalHash());
+        hashes.add(parser.parse("(10)Y(21)X").canonicalHash());
+
+        assertThat(hashes).hasSize(10_004);
+    }
+
+    @Test
+    void lazyResultsCarryTheKey() {
+        Gs1Parser lazy = Gs1Parser.builder().lazyValues(true).build();
+        String input = "(01)09501101530003(17)251231";
+
+        assertThat(lazy.tryParse(input).getResult().canonicalHash())
+                .isEqualTo(parser.parse(input).canonicalHash());
+    }
+
+    @Test
+    void resultsShareTheKeyOfTheirParse() {
+        Gs1ParseContext context = parser.parse("(01)09501101530003(17)251231(10)ABC", new Gs1ParseContext());
+        Gs1Result result = context.toResult();
+
+        assertThat(result.canonicalHash()).isEqualTo(context.canonicalHash());
+        assertThat(result.canonicalForm()).isEqualTo(context.canonicalForm())
+                .isEqualTo("(01)09501101530003(10)ABC(17)251231");
+        assertThat(parser.parse(result.canonicalForm()).canonicalHash()).isEqualTo(result.canonicalHash());
+    }
+
+    @Test
+    void valuesThatDecodeAlikeKeepDistinctKeys() {
+        // Day 00 is the last day of the month, but the element strings differ
+        Gs1Result lastDay = parser.parse("(17)251200");
+        Gs1Result explicit = parser.parse("(17)251231");
+
+        assertThat(lastDay.getEpochDay("17")).isEqualTo(explicit.getEpochDay("17"));
+        assertThat(lastDay.canonicalHash()).isNotEqualTo(explicit.canonicalHash());
+    }
+
+    @Test
+    void mapBackedResultsHashTheStringFormOfTheirValues() {
+        Gs1Result parsed = parser.parse("(10)ABC123(01)09501101530003");
+        Gs1Result built = new Gs1Result(parsed.asMap());
+
+        assertThat(built.canonicalHash()).isEqualTo(parsed.canonicalHash());
+        assertThat(built.canonicalForm()).isEqualTo(parsed.canonicalForm())
+                .isEqualTo("(01)09501101530003(10)ABC123");
+        assertThat(new Gs1Result(Map.of()).canonicalHash()).isEqualTo(Gs1CanonicalHash.of(0));
+    }
+}
@@ -0,0 +1,107 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.exception.Gs1ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class Gs1ElementHandlerTest {
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+
+    @Test
+    void pushesElementsInInputOrder() {
+        String input = "(01)09501101530003(17)251231(10)ABC123";
+        List<String> seen = new ArrayList<>();
+
+        parser.parse(input, (ai, in, start, end, value) ->
+                seen.add(ai + "=" + in.subSequence(start, end) + "->" + value));
+
+        assertThat(seen).containsExactly(
+                "01=09501101530003->09501101530003",
+                "17=251231->" + LocalDate.of(2025, 12, 31),
+                "10=ABC123->ABC123"
+        );
+    }
+
+    @Test
+    void reportsValueRangesIntoTheOriginalInput() {
+        String input = "\u001D0109501101530003" + "21SERIAL\u001D" + "3103001250";
+        List<int[]> ranges = new ArrayList<>();
+
+        parser.parse(input, (ai, in, start, end, value) -> ranges.add(new int[]{start, end}));
+
+        assertThat(ranges).hasSize(3);
+        assertThat(input.substring(ranges.get(1)[0], ranges.get(1)[1])).isEqualTo("SERIAL");
+        assertThat(input.substring(ranges.get(2)[0], ranges.get(2)[1])).isEqualTo("001250");
+    }
+
+    @Test
+    void tokenizerErrorsAreReportedBeforeAnyElement() {
+        List<String> seen = new ArrayList<>();
+
+        assertThatThrownBy(() -> parser.parse("(01)09501101530003(99)X", (ai, in, s, e, v) -> seen.add(ai)))
+                .isInstanceOf(Gs1ParseException.class)
+                .hasMessageContaining("Unknown AI 99");
+        assertThat(seen).isEmpty();
+    }
+
+    @Test
+    void rejectsDuplicatesLikeParse() {
+        assertThatThrownBy(() -> parser.parse("(10)A(21)B(10)C", (ai, in, s, e, v) -> { }))
+                .isInstanceOf(Gs1ParseException.class)
+                .hasMessageContaining("Duplicate AI 10");
+    }
+
+    @Test
+    void reusesACallerOwnedContext() {
+        Gs1ParseContext context = parser.parse("(21)SERIAL", new Gs1ParseContext());
+        List<String> seen = new ArrayList<>();
+
+        parser.parse("(01)09501101530003(10)A", context, (ai, in, s, e, v) -> seen.add(ai));
+        parser.parse("(10)B", context, (ai, in, s, e, v) -> seen.add(ai));
+
+        assertThat(seen).containsExactly("01", "10", "10");
+        assertThat(context.size()).isZero();
+        assertThat(context.contains("21")).isFalse();
+        assertThatThrownBy(() -> parser.parse("(10)A(10)B", context, (ai, in, s, e, v) -> { }))
+                .isInstanceOf(Gs1ParseException.class);
+        assertThat(parser.parse("(17)251231", context).size()).isEqualTo(1);
+    }
+
+    @Test
+    void handlerParseReusesAPerThreadContext() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        String input = "\u001D0109501101530003" + "11251231";
+        Gs1ParseContext context = new Gs1ParseContext();
+        Gs1ElementHandler handler = (ai, in, s, e, v) -> { };
+        long thread = Thread.currentThread().getId();
+
+        long perThread = 0;
+        long reused = 0;
+        for (int round = 0; round < 3; round++) {
+            long start = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 10_000; i++) {
+                parser.parse(input, handler);
+            }
+            long middle = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 10_000; i++) {
+                parser.parse(input, context, handler);
+            }
+            perThread = middle - start;
+            reused = threads.getThreadAllocatedBytes(thread) - middle;
+        }
+
+        // A fresh context per call would cost a token buffer, a bitset and index arrays
+        assertThat(perThread).isLessThan(reused + 10_000L * 100);
+    }
+}
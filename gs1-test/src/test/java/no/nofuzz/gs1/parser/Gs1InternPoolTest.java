@@ -0,0 +1,89 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.ai.StandardAis;
+import no.nofuzz.gs1.model.Gs1Result;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1InternPoolTest {
+
+    @Test
+    void repeatedValuesShareOneInstance() {
+        Gs1Parser parser = Gs1Parser.builder().internValues(1024).build();
+
+        Gs1Result first = parser.parse("(01)09501101530003(10)LOT42");
+        Gs1Result second = parser.parse("(01)09501101530003(10)LOT42");
+        Gs1Result fromBytes = parser.parse(("\u001D0109501101530003" + "10LOT42")
+                .getBytes(StandardCharsets.US_ASCII));
+
+        assertThat(second.getString("01")).isSameAs(first.getString("01"));
+        assertThat(second.getString("10")).isSameAs(first.getString("10"));
+        assertThat(fromBytes.getString("01")).isSameAs(first.getString("01"));
+    }
+
+    @Test
+    void withoutPoolValuesAreDistinctInstances() {
+        Gs1Parser parser = Gs1Parser.defaultParser();
+
+        assertThat(parser.parse("(10)LOT42").getString("10"))
+                .isNotSameAs(parser.parse("(10)LOT42").getString("10"));
+    }
+
+    @Test
+    void onlyConfiguredAisArePooled() {
+        Gs1Parser parser = Gs1Parser.builder().internValues(64, "01").build();
+
+        Gs1Result first = parser.parse("(01)09501101530003(10)LOT42");
+        Gs1Result second = parser.parse("(01)09501101530003(10)LOT42");
+
+        assertThat(second.getString("01")).isSameAs(first.getString("01"));
+        assertThat(second.getString("10")).isNotSameAs(first.getString("10"));
+    }
+
+    @Test
+    void poolIsBoundedAndAlwaysReturnsEqualValues() {
+        Gs1InternPool pool = new Gs1InternPool(StandardAis.defaultRegistry(), 4);
+        int ordinal = pool.registry().ordinal("10");
+
+        assertThat(pool.capacityPerAi()).isEqualTo(4);
+        for (int i = 0; i < 1_000; i++) {
+            String input = "(10)LOT" + i + ")";
+            assertThat(pool.intern(ordinal, input, 4, input.length() - 1)).isEqualTo("LOT" + i);
+        }
+        assertThatThrownBy(() -> new Gs1InternPool(StandardAis.defaultRegistry(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Gs1InternPool(StandardAis.defaultRegistry(), 8, "XX"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentParsesReturnCorrectValues() throws Exception {
+        Gs1Parser parser = Gs1Parser.builder().internValues(16).build();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        String lot = "LOT" + (i % 100);
+                        assertThat(parser.parse("(10)" + lot).getString("10")).isEqualTo(lot);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
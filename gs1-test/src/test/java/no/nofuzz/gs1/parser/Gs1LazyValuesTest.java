@@ -0,0 +1,151 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.ai.ApplicationIdentifier;
+import no.nofuzz.gs1.ai.CharacterSet;
+import no.nofuzz.gs1.exception.Gs1ErrorCode;
+import no.nofuzz.gs1.exception.Gs1ParseException;
+import no.nofuzz.gs1.model.Gs1Decimal;
+import no.nofuzz.gs1.model.Gs1Result;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1LazyValuesTest {
+
+    private static final String BARCODE = "(01)09501101530003(17)251231(3102)001250(30)42";
+
+    private final Gs1Parser lazy = Gs1Parser.builder().lazyValues(true).build();
+
+    @Test
+    void lazyResultsEqualEagerResults() {
+        Gs1Result result = lazy.parse(BARCODE);
+
+        assertThat(result.getOrThrow("17")).isEqualTo(LocalDate.of(2025, 12, 31));
+        assertThat(result.getDecimal("3102")).isEqualTo(Gs1Decimal.of(1250, 2));
+        assertThat(result.getInt("30")).isEqualTo(42);
+        assertThat(result.asMap()).isEqualTo(Gs1Parser.defaultParser().parse(BARCODE).asMap());
+        assertThat(result.toString()).isEqualTo(Gs1Parser.defaultParser().parse(BARCODE).toString());
+    }
+
+    @Test
+    void valuesAreDecodedOnFirstAccessOnly() {
+        AtomicInteger decodes = new AtomicInteger();
+        Gs1Parser parser = Gs1Parser.builder()
+                .lazyValues(true)
+                .registerAi("99", new ApplicationIdentifier("99", null, 30, true, CharacterSet.ALPHANUMERIC, false,
+                        v -> {
+                            decodes.incrementAndGet();
+                            return v.toLowerCase();
+                        }))
+                .build();
+
+        Gs1Result result = parser.parse("(01)09501101530003(99)ABC");
+        assertThat(result.contains("99")).isTrue();
+        assertThat(decodes).hasValue(0);
+
+        Object first = result.getOrThrow("99");
+        assertThat(result.get("99")).containsSame(first);
+        assertThat(first).isEqualTo("abc");
+        assertThat(decodes).hasValue(1);
+    }
+
+    @Test
+    void primitiveAccessorsDecodeOnceAndReadTheSlots() {
+        AtomicInteger decodes = new AtomicInteger();
+        Gs1Parser parser = Gs1Parser.builder()
+                .lazyValues(true)
+                .registerAi("99", new ApplicationIdentifier("99", null, 30, true, CharacterSet.NUMERIC, false,
+                        v -> {
+                            decodes.incrementAndGet();
+                            return Long.parseLong(v) * 1_000;
+                        }))
+                .build();
+
+        Gs1Result result = parser.parse("(01)09501101530003(17)251231(99)123456789");
+
+        assertThat(result.getLong("01")).isEqualTo(9501101530003L);
+        assertThat(result.getEpochDay("17")).isEqualTo(LocalDate.of(2025, 12, 31).toEpochDay());
+        assertThat(result.getLong("99")).isEqualTo(123_456_789_000L);
+        assertThat(result.getLong("99")).isEqualTo(123_456_789_000L);
+        assertThat(decodes).hasValue(1);
+        assertThatThrownBy(() -> result.getInt("99"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not fit in an int");
+        assertThatThrownBy(() -> result.getEpochDay("01"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not a date");
+    }
+
+    @Test
+    void structuralErrorsAreStillReportedAtParseTime() {
+        assertThatThrownBy(() -> lazy.parse("(17)25123"))
+                .isInstanceOf(Gs1ParseException.class);
+        assertThatThrownBy(() -> lazy.parse("(17)2512AB"))
+                .isInstanceOf(Gs1ParseException.class);
+    }
+
+    @Test
+    void conversionErrorsAreReportedOnAccess() {
+        Gs1Result result = lazy.parse("(01)09501101530003(17)251340");
+
+        assertThat(result.getString("01")).isEqualTo("09501101530003");
+        assertThatThrownBy(() -> result.getOrThrow("17"))
+                .isInstanceOf(Gs1ParseException.class)
+                .hasMessageContaining("Invalid value for AI 17")
+                .satisfies(e -> {
+                    assertThat(((Gs1ParseException) e).getCode()).isEqualTo(Gs1ErrorCode.VALUE_PARSE_ERROR);
+                    // The offset of the value, as an eager parse reports it
+                    assertThat(((Gs1ParseException) e).getPosition()).isEqualTo(22);
+                });
+        assertThatThrownBy(() -> Gs1Parser.defaultParser().parse("(01)09501101530003(17)251340"))
+                .extracting(e -> ((Gs1ParseException) e).getPosition())
+                .isEqualTo(22);
+    }
+
+    @Test
+    void undecodableValuesArePrintedRaw() {
+        Gs1Result result = lazy.parse("(17)251340(10)ABC");
+
+        assertThat(result).hasToString("Gs1Result{17=251340, 10=ABC}");
+        assertThat(lazy.parse("(17)251231").toString()).isEqualTo("Gs1Result{17=2025-12-31}");
+    }
+
+    @Test
+    void concurrentFirstAccessSeesOneInstance() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            Gs1Result result = lazy.parse(BARCODE);
+            int threads = 8;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Object> seen = new ArrayList<>();
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    Object value = result.getOrThrow("3102");
+                    synchronized (seen) {
+                        seen.add(value);
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            assertThat(seen).hasSize(threads).allSatisfy(v -> assertThat(v).isSameAs(seen.get(0)));
+        }
+    }
+}
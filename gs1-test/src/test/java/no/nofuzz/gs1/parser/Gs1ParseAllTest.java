@@ -0,0 +1,135 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.ai.ApplicationIdentifier;
+import no.nofuzz.gs1.ai.CharacterSet;
+import no.nofuzz.gs1.exception.Gs1ErrorCode;
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1ParseAllTest {
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+
+    // Every 7th input has a duplicate AI and fails
+    private static String input(int i) {
+        return i % 7 == 0
+                ? "(10)LOT" + i + "(10)LOT" + i
+                : "(01)09501101530003(10)LOT" + i;
+    }
+
+    private static List<String> inputs(int n) {
+        List<String> inputs = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            inputs.add(input(i));
+        }
+        return inputs;
+    }
+
+    private static void assertInInputOrder(List<Gs1ParseOutcome> outcomes, int n) {
+        assertThat(outcomes).hasSize(n);
+        for (int i = 0; i < n; i++) {
+            Gs1ParseOutcome outcome = outcomes.get(i);
+            if (i % 7 == 0) {
+                assertThat(outcome.isSuccess()).as("index %d", i).isFalse();
+                assertThat(outcome.getError().getCode()).isEqualTo(Gs1ErrorCode.INVALID_FORMAT);
+            } else {
+                assertThat(outcome.getResult().getString("10")).as("index %d", i).isEqualTo("LOT" + i);
+            }
+        }
+    }
+
+    @Test
+    void smallBatchesAreParsedSequentially() {
+        assertInInputOrder(parser.parseAll(inputs(100)), 100);
+    }
+
+    @Test
+    void largeBatchesKeepInputOrderAndPerIndexErrors() {
+        int n = 50_000;
+        assertInInputOrder(parser.parseAll(inputs(n)), n);
+        assertInInputOrder(parser.parseAll(inputs(n).toArray(new String[0])), n);
+    }
+
+    @Test
+    void nonRandomAccessListsAreSupported() {
+        int n = 5_000;
+        assertInInputOrder(parser.parseAll(new LinkedList<>(inputs(n))), n);
+    }
+
+    @Test
+    void runsOnCallerSuppliedExecutors() throws Exception {
+        int n = 20_000;
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertInInputOrder(parser.parseAll(inputs(n), pool), n);
+            assertInInputOrder(parser.parseAll(inputs(n), executor), n);
+        } finally {
+            pool.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void valueParserFailuresAreThrownUnwrappedOnEveryExecutor() {
+        Gs1Parser failing = Gs1Parser.builder()
+                .registerAi("99", new ApplicationIdentifier("99", null, 30, true, CharacterSet.ALPHANUMERIC, false,
+                        v -> {
+                            throw new IllegalStateException("value parser failed");
+                        }))
+                .build();
+        List<String> inputs = inputs(5_000);
+        inputs.set(4_000, "(99)X");
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // Fork/join rethrows a copy of the exception, wrapping the original as its cause
+            assertThatThrownBy(() -> failing.parseAll(inputs, pool))
+                    .isInstanceOf(IllegalStateException.class).hasMessageEndingWith("value parser failed");
+            assertThatThrownBy(() -> failing.parseAll(inputs, executor))
+                    .isInstanceOf(IllegalStateException.class).hasMessage("value parser failed");
+        } finally {
+            pool.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void streamOverloadKeepsEncounterOrder() {
+        int n = 20_000;
+        List<Gs1ParseOutcome> outcomes = parser.parseAll(IntStream.range(0, n).mapToObj(Gs1ParseAllTest::input))
+                .toList();
+
+        assertInInputOrder(outcomes, n);
+    }
+
+    @Test
+    void resultsMatchSingleParses() {
+        List<String> inputs = inputs(5_000);
+        List<Gs1ParseOutcome> outcomes = parser.parseAll(inputs);
+
+        for (int i = 1; i < inputs.size(); i += 97) {
+            if (i % 7 != 0) {
+                assertThat(outcomes.get(i).getResult().asMap()).isEqualTo(parser.parse(inputs.get(i)).asMap());
+            }
+        }
+    }
+
+    @Test
+    void returnedListIsUnmodifiable() {
+        List<Gs1ParseOutcome> outcomes = parser.parseAll(inputs(10));
+
+        assertThatThrownBy(() -> outcomes.set(0, null)).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
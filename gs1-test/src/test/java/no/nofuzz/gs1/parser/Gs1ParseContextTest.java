@@ -0,0 +1,125 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.ai.ApplicationIdentifier;
+import no.nofuzz.gs1.ai.CharacterSet;
+import no.nofuzz.gs1.exception.Gs1ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1ParseContextTest {
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+
+    @Test
+    void exposesSameReadApiAsResult() {
+        String input = "(01)09501101530003(17)251231(10)ABC123";
+        Gs1ParseContext context = parser.parse(input, new Gs1ParseContext());
+
+        assertThat(context.size()).isEqualTo(3);
+        assertThat(context.get("01")).hasValue("09501101530003");
+        assertThat(context.getOrThrow("17")).isEqualTo(LocalDate.of(2025, 12, 31));
+        assertThat(context.contains("10")).isTrue();
+        assertThat(context.contains("21")).isFalse();
+        assertThat(context.get("99")).isEmpty();
+        assertThat(context.asMap()).isEqualTo(parser.parse(input).asMap());
+        assertThatThrownBy(() -> context.getOrThrow("21"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("AI 21 not found");
+    }
+
+    @Test
+    void reuseClearsElementsOfThePreviousParse() {
+        Gs1ParseContext context = new Gs1ParseContext();
+
+        parser.parse("(01)09501101530003(10)LOT1", context);
+        parser.parse("(21)SERIAL(10)LOT2", context);
+
+        assertThat(context.size()).isEqualTo(2);
+        assertThat(context.contains("01")).isFalse();
+        assertThat(context.get("10")).hasValue("LOT2");
+        assertThat(context.get("21")).hasValue("SERIAL");
+    }
+
+    @Test
+    void reuseDoesNotReportStaleDuplicates() {
+        Gs1ParseContext context = new Gs1ParseContext();
+
+        for (int i = 0; i < 3; i++) {
+            parser.parse("(01)09501101530003", context);
+        }
+
+        assertThat(context.get("01")).hasValue("09501101530003");
+    }
+
+    @Test
+    void failedParseLeavesContextEmpty() {
+        Gs1ParseContext context = parser.parse("(01)09501101530003", new Gs1ParseContext());
+
+        assertThatThrownBy(() -> parser.parse("(10)A(10)B", context))
+                .isInstanceOf(Gs1ParseException.class);
+
+        assertThat(context.size()).isZero();
+        assertThat(context.contains("01")).isFalse();
+        assertThat(context.contains("10")).isFalse();
+    }
+
+    @Test
+    void snapshotSurvivesReuse() {
+        Gs1ParseContext context = new Gs1ParseContext();
+        var snapshot = parser.parse("(10)LOT1", context).toResult();
+
+        parser.parse("(10)LOT2", context);
+
+        assertThat(snapshot.get("10")).hasValue("LOT1");
+        assertThat(context.get("10")).hasValue("LOT2");
+    }
+
+    @Test
+    void detachedResultsLeaveNoElementsBehind() {
+        Gs1ParseContext context = new Gs1ParseContext();
+        var first = parser.tryParseDetached("(01)09501101530003(10)LOT1", context).getResult();
+        var second = parser.tryParseDetached("(21)SERIAL", context).getResult();
+
+        assertThat(first).hasToString("Gs1Result{01=09501101530003, 10=LOT1}");
+        assertThat(second).hasToString("Gs1Result{21=SERIAL}");
+        assertThat(second.contains("10")).isFalse();
+        assertThat(context.size()).isZero();
+        assertThat(context.contains("21")).isFalse();
+    }
+
+    @Test
+    void contextCanMoveBetweenParsersWithDifferentRegistries() {
+        Gs1ParseContext context = new Gs1ParseContext();
+        Gs1Parser custom = Gs1Parser.builder().withoutStandardAis()
+                .registerAi("99", new ApplicationIdentifier(
+                        "99", null, 10, true, CharacterSet.ANY, false, v -> v))
+                .build();
+
+        parser.parse("(10)LOT1", context);
+        custom.parse("(99)X", context);
+
+        assertThat(context.get("99")).hasValue("X");
+        assertThat(context.contains("10")).isFalse();
+    }
+
+    @Test
+    void parseFromWithinAValueParserDoesNotDisturbTheEnclosingParse() {
+        // AI 99 holds a nested element string, parsed by the same thread mid-parse
+        Gs1Parser nesting = Gs1Parser.builder()
+                .registerAi("99", new ApplicationIdentifier(
+                        "99", null, 30, true, CharacterSet.ANY, false, v -> parser.parse(v).get("10").orElseThrow()))
+                .build();
+
+        Gs1ParseContext context = new Gs1ParseContext();
+        var result = nesting.parse("\u001D0109501101530003" + "99(10)INNER\u001D" + "21SER1");
+
+        assertThat(result.get("99")).hasValue("INNER");
+        assertThat(result.get("01")).hasValue("09501101530003");
+        assertThat(result.get("21")).hasValue("SER1");
+        assertThat(nesting.parse("(21)SER2", context).get("21")).hasValue("SER2");
+    }
+}
@@ -0,0 +1,77 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.ai.ApplicationIdentifier;
+import no.nofuzz.gs1.ai.CharacterSet;
+import no.nofuzz.gs1.ai.StandardAis;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1ParserBuilderTest {
+
+    private static final Function<String, Object> UPPER_CASE = v -> v.toUpperCase();
+
+    @Test
+    void standardParsersShareTheStandardRegistry() {
+        assertThat(Gs1Parser.defaultParser().registry()).isSameAs(StandardAis.defaultRegistry());
+        assertThat(Gs1Parser.strictParser().registry()).isSameAs(StandardAis.defaultRegistry());
+        assertThat(Gs1Parser.builder().build().registry()).isSameAs(StandardAis.defaultRegistry());
+    }
+
+    @Test
+    void identicalConfigurationsShareARegistryThroughACache() {
+        Gs1RegistryCache cache = new Gs1RegistryCache(8);
+        Gs1Parser first = Gs1Parser.builder().registryCache(cache).registerAi("99", internal()).build();
+        Gs1Parser second = Gs1Parser.builder().registryCache(cache).registerAi("99", internal())
+                .mode(Gs1ComplianceMode.STRICT).build();
+        Gs1Parser withoutStandard = Gs1Parser.builder().registryCache(cache)
+                .withoutStandardAis().registerAi("99", internal()).build();
+
+        assertThat(second.registry()).isSameAs(first.registry());
+        assertThat(withoutStandard.registry()).isNotSameAs(first.registry());
+        assertThat(withoutStandard.registry().size()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(first.parse("(01)09501101530003(99)abc").getString("99")).isEqualTo("ABC");
+    }
+
+    @Test
+    void registriesAreOnlySharedWithinACache() {
+        Gs1Parser uncached = Gs1Parser.builder().registerAi("99", internal()).build();
+        Gs1Parser otherCache = Gs1Parser.builder().registryCache(new Gs1RegistryCache(8))
+                .registerAi("99", internal()).build();
+
+        assertThat(Gs1Parser.builder().registerAi("99", internal()).build().registry())
+                .isNotSameAs(uncached.registry());
+        assertThat(otherCache.registry()).isNotSameAs(uncached.registry());
+        assertThat(uncached.parse("(99)abc").getString("99")).isEqualTo("ABC");
+    }
+
+    @Test
+    void cacheKeepsTheMostRecentConfigurations() {
+        Gs1RegistryCache cache = new Gs1RegistryCache(1);
+        Gs1Parser first = Gs1Parser.builder().registryCache(cache).registerAi("99", internal()).build();
+        Gs1Parser.builder().registryCache(cache).withoutStandardAis().registerAi("99", internal()).build();
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(Gs1Parser.builder().registryCache(cache).registerAi("99", internal()).build().registry())
+                .isNotSameAs(first.registry());
+        assertThat(Gs1Parser.builder().registryCache(cache).build().registry())
+                .isSameAs(StandardAis.defaultRegistry());
+        assertThatThrownBy(() -> new Gs1RegistryCache(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void customAisDoNotLeakIntoTheStandardRegistry() {
+        Gs1Parser.builder().registerAi("99", internal()).build();
+
+        assertThat(StandardAis.defaultRegistry().find("99")).isEmpty();
+        assertThat(Gs1Parser.defaultParser().tryParse("(99)abc").isSuccess()).isFalse();
+    }
+
+    private static ApplicationIdentifier internal() {
+        return new ApplicationIdentifier("99", null, 30, true, CharacterSet.ANY, false, UPPER_CASE);
+    }
+}
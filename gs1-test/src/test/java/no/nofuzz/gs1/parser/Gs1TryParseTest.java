@@ -0,0 +1,129 @@
+package no.nofuzz.gs1.parser;
+
+import no.nofuzz.gs1.exception.Gs1ErrorCode;
+import no.nofuzz.gs1.exception.Gs1ParseError;
+import no.nofuzz.gs1.exception.Gs1ParseException;
+import no.nofuzz.gs1.model.Gs1ParseOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Gs1TryParseTest {
+
+    private final Gs1Parser parser = Gs1Parser.defaultParser();
+    private final Gs1Parser strictParser = Gs1Parser.strictParser();
+
+    @Test
+    void returnsResultForValidInput() {
+        Gs1ParseOutcome outcome = parser.tryParse("(01)09501101530003(10)ABC123");
+
+        assertThat(outcome.isSuccess()).isTrue();
+        assertThat(outcome.getError()).isNull();
+        assertThat(outcome.getResult().get("10")).hasValue("ABC123");
+        assertThat(outcome.orElseThrow()).isSameAs(outcome.getResult());
+    }
+
+    @Test
+    void returnsStructuredErrorForInvalidInput() {
+        Gs1ParseOutcome outcome = parser.tryParse("(01)09501101530003(99)ABC");
+
+        assertThat(outcome.isSuccess()).isFalse();
+        assertThat(outcome.getResult()).isNull();
+
+        Gs1ParseError error = outcome.getError();
+        assertThat(error.getCode()).isEqualTo(Gs1ErrorCode.UNKNOWN_AI);
+        assertThat(error.getPosition()).isEqualTo(19);
+        assertThat(error.getAi()).isEqualTo("99");
+        assertThat(error.getMessage()).isEqualTo("Unknown AI 99");
+    }
+
+    @Test
+    void reportsAiOfValueErrors() {
+        Gs1ParseError error = strictParser.tryParse("(01)09501101530004").getError();
+
+        assertThat(error.getCode()).isEqualTo(Gs1ErrorCode.VALUE_PARSE_ERROR);
+        assertThat(error.getAi()).isEqualTo("01");
+        assertThat(error.getPosition()).isEqualTo(4);
+        assertThat(error.getMessage()).contains("Invalid check digit");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "(01)123",
+            "(01)09501101530003(10)A(10)B",
+            "(17)251340",
+            "10ABC17251231",
+            "\u001D01123",
+            "(10)",
+            "01095011015300031",
+            "X(01)09501101530003",
+            "(01"
+    })
+    void errorsMatchTheThrowingApi(String input) {
+        Gs1ParseError error = parser.tryParse(input).getError();
+
+        assertThatThrownBy(() -> parser.parse(input))
+                .isInstanceOfSatisfying(Gs1ParseException.class, e -> {
+                    assertThat(e.getCode()).isEqualTo(error.getCode());
+                    assertThat(e.getPosition()).isEqualTo(error.getPosition());
+                    assertThat(e.getMessage()).isEqualTo(error.getMessage());
+                });
+    }
+
+    @Test
+    void orElseThrowRaisesTheError() {
+        Gs1ParseOutcome outcome = parser.tryParse("(99)X");
+
+        assertThatThrownBy(outcome::orElseThrow)
+                .isInstanceOf(Gs1ParseException.class)
+                .hasMessage("Unknown AI 99");
+    }
+
+    @Test
+    void contextVariantReturnsNullOnSuccessAndClearsContextOnFailure() {
+        Gs1ParseContext context = new Gs1ParseContext();
+
+        assertThat(parser.tryParse("(10)LOT", context)).isNull();
+        assertThat(context.get("10")).hasValue("LOT");
+
+        Gs1ParseError error = parser.tryParse("(10)LOT(10)LOT", context);
+        assertThat(error.getCode()).isEqualTo(Gs1ErrorCode.INVALID_FORMAT);
+        assertThat(context.size()).isZero();
+    }
+
+    @Test
+    void parseExceptionsAreStackless() {
+        assertThatThrownBy(() -> parser.parse("(99)X"))
+                .isInstanceOfSatisfying(Gs1ParseException.class,
+                        e -> assertThat(e.getStackTrace()).isEmpty());
+    }
+
+    @Test
+    void parseExceptionsAreSerializable() throws Exception {
+        Gs1ParseException thrown = parser.tryParse("(99x)1").getError().toException();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(thrown);
+        }
+        Object read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = in.readObject();
+        }
+
+        assertThat(read).isInstanceOfSatisfying(Gs1ParseException.class, e -> {
+            assertThat(e.getCode()).isEqualTo(thrown.getCode());
+            assertThat(e.getPosition()).isEqualTo(thrown.getPosition());
+            assertThat(e.getMessage()).isEqualTo(thrown.getMessage());
+        });
+    }
+}
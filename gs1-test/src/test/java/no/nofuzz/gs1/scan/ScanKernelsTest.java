@@ -0,0 +1,106 @@
+package no.nofuzz.gs1.scan;
+
+import no.nofuzz.gs1.ai.CharacterSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScanKernelsTest {
+
+    private static final byte FNC1 = 29;
+
+    @Test
+    void preferredKernelAgreesWithScalarForFnc1Search() {
+        ScanKernel scalar = ScanKernels.scalar();
+        ScanKernel preferred = ScanKernels.preferred();
+        Random random = new Random(42);
+
+        for (int n = 0; n < 2_000; n++) {
+            byte[] bytes = randomBytes(random, random.nextInt(300));
+            int from = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            int to = from + random.nextInt(bytes.length - from + 1);
+
+            assertThat(preferred.indexOf(bytes, from, to, FNC1))
+                    .isEqualTo(scalar.indexOf(bytes, from, to, FNC1));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(CharacterSet.class)
+    void preferredKernelAgreesWithScalarForCharacterSets(CharacterSet set) {
+        ScanKernel scalar = ScanKernels.scalar();
+        ScanKernel preferred = ScanKernels.preferred();
+        Random random = new Random(set.ordinal());
+
+        for (int n = 0; n < 2_000; n++) {
+            byte[] bytes = new byte[random.nextInt(300)];
+            for (int i = 0; i < bytes.length; i++) {
+                // Mostly members, with the occasional arbitrary byte
+                bytes[i] = random.nextInt(40) == 0 ? (byte) random.nextInt(256) : (byte) ('0' + random.nextInt(10));
+            }
+            int from = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            int to = from + random.nextInt(bytes.length - from + 1);
+
+            assertThat(preferred.indexOfInvalid(bytes, from, to, set))
+                    .isEqualTo(scalar.indexOfInvalid(bytes, from, to, set));
+        }
+    }
+
+    @Test
+    void everyByteIsClassifiedLikeCharacterSetContains() {
+        byte[] bytes = new byte[1];
+        for (CharacterSet set : CharacterSet.values()) {
+            for (int b = 0; b < 256; b++) {
+                // Place the byte past a vector's worth of valid input so the vector loop sees it
+                byte[] padded = new byte[130];
+                Arrays.fill(padded, (byte) '0');
+                padded[129] = (byte) b;
+                int expected = set.contains((char) b) ? -1 : 129;
+
+                assertThat(ScanKernels.preferred().indexOfInvalid(padded, 0, padded.length, set))
+                        .as("%s byte %d", set, b)
+                        .isEqualTo(expected);
+                bytes[0] = (byte) b;
+                assertThat(ScanKernels.scalar().indexOfInvalid(bytes, 0, 1, set))
+                        .isEqualTo(expected < 0 ? -1 : 0);
+            }
+        }
+    }
+
+    @Test
+    void dispatchesOnInputType() {
+        String text = "AB12" + (char) FNC1 + "CD";
+        byte[] bytes = ("xx" + text).getBytes(StandardCharsets.ISO_8859_1);
+        AsciiCharSequence array = AsciiCharSequence.of(bytes, 2, text.length());
+        ByteBuffer direct = ByteBuffer.allocateDirect(text.length()).put(text.getBytes(StandardCharsets.ISO_8859_1)).flip();
+        // A view into the middle of a buffer, as the lines of a mapped file are
+        CharSequence directSlice = AsciiCharSequence.of(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip())
+                .subSequence(2, bytes.length);
+        CharSequence other = CharBuffer.wrap(text);
+
+        for (CharSequence s : new CharSequence[] {text, array, AsciiCharSequence.of(direct), directSlice, other}) {
+            assertThat(ScanKernels.indexOf(s, (char) FNC1, 0, s.length())).as("%s", s.getClass()).isEqualTo(4);
+            assertThat(ScanKernels.indexOf(s, (char) FNC1, 0, 4)).isEqualTo(-1);
+            assertThat(ScanKernels.indexOf(s, (char) FNC1, 5, s.length())).isEqualTo(-1);
+            assertThat(ScanKernels.indexOfInvalid(s, 0, s.length(), CharacterSet.CSET39)).isEqualTo(4);
+            assertThat(ScanKernels.indexOfInvalid(s, 2, 4, CharacterSet.NUMERIC)).isEqualTo(-1);
+            assertThat(ScanKernels.indexOfInvalid(s, 0, s.length(), CharacterSet.ANY)).isEqualTo(-1);
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = random.nextInt(64) == 0 ? FNC1 : (byte) ('A' + random.nextInt(26));
+        }
+        return bytes;
+    }
+}
@@ -1,14 +1,26 @@
 package no.nofuzz.gs1.tokenizer;
 
+import no.nofuzz.gs1.ai.ApplicationIdentifier;
+import no.nofuzz.gs1.ai.CharacterSet;
 import no.nofuzz.gs1.ai.StandardAis;
+import no.nofuzz.gs1.exception.Gs1ParseException;
 import no.nofuzz.gs1.parser.Gs1ComplianceMode;
+import no.nofuzz.gs1.parser.Gs1Token;
+import no.nofuzz.gs1.parser.Gs1TokenBuffer;
 import no.nofuzz.gs1.parser.Gs1Tokenizer;
+import no.nofuzz.gs1.parser.Tokenizer;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class Gs1TokenizerTest {
 
+    private static final char FNC1 = 29;
+
     @Test
     void tokenizesParenthesisBasedInput() {
         var tokenizer = new Gs1Tokenizer(StandardAis.defaultRegistry(), Gs1ComplianceMode.LENIENT);
@@ -19,4 +31,115 @@ class Gs1TokenizerTest {
         assertThat(tokens.get(0).ai()).isEqualTo("01");
         assertThat(tokens.get(1).raw()).isEqualTo("ABC");
     }
-}
\ No newline at end of file
+
+    @Test
+    void recordsValueOffsetsIntoTheInput() {
+        var tokenizer = new Gs1Tokenizer(StandardAis.defaultRegistry(), Gs1ComplianceMode.LENIENT);
+        var buffer = new Gs1TokenBuffer();
+        String input = FNC1 + "0109501101530003" + "10ABC" + FNC1 + "17251231";
+
+        tokenizer.tokenize(input, buffer);
+
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(buffer.input()).isSameAs(input);
+        assertThat(buffer.ai(0)).isEqualTo("01");
+        assertThat(buffer.valueStart(0)).isEqualTo(3);
+        assertThat(buffer.valueEnd(0)).isEqualTo(17);
+        assertThat(buffer.ai(1)).isEqualTo("10");
+        assertThat(buffer.value(1)).isEqualTo("ABC");
+        assertThat(buffer.ai(2)).isEqualTo("17");
+        assertThat(buffer.value(2)).isEqualTo("251231");
+    }
+
+    @Test
+    void reusedBufferOnlyHoldsTokensOfTheLatestInput() {
+        var tokenizer = new Gs1Tokenizer(StandardAis.defaultRegistry(), Gs1ComplianceMode.LENIENT);
+        var buffer = new Gs1TokenBuffer(1);
+
+        tokenizer.tokenize("(01)09501101530003(17)251231(10)ABC", buffer);
+        assertThat(buffer.size()).isEqualTo(3);
+
+        tokenizer.tokenize(new StringBuilder("(21)SERIAL"), buffer);
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.ai(0)).isEqualTo("21");
+        assertThat(buffer.value(0)).isEqualTo("SERIAL");
+        assertThat(buffer.token(0).pos()).isEqualTo(4);
+    }
+
+    @Test
+    void resolvesNonNumericCustomAisInFnc1Input() {
+        ApplicationIdentifier custom = new ApplicationIdentifier(
+                "AB", null, 10, true, CharacterSet.ANY, false, v -> v);
+        var registry = StandardAis.defaultRegistry().withOverrides(Map.of("AB", custom));
+        var tokenizer = new Gs1Tokenizer(registry, Gs1ComplianceMode.LENIENT);
+
+        var tokens = tokenizer.tokenize(FNC1 + "0109501101530003" + "ABX1Y" + FNC1 + "10LOTAB");
+
+        assertThat(tokens).extracting(Gs1Token::ai).containsExactly("01", "AB", "10");
+        assertThat(tokens).extracting(Gs1Token::raw).containsExactly("09501101530003", "X1Y", "LOTAB");
+    }
+
+    @Test
+    void prefersLongerCustomAisOverStandardPrefixes() {
+        ApplicationIdentifier custom = new ApplicationIdentifier(
+                "21A", null, 10, true, CharacterSet.ANY, false, v -> v);
+        var registry = StandardAis.defaultRegistry().withOverrides(Map.of("21A", custom));
+        var tokenizer = new Gs1Tokenizer(registry, Gs1ComplianceMode.LENIENT);
+
+        var tokens = tokenizer.tokenize(FNC1 + "21AXYZ" + FNC1 + "21SERIAL");
+
+        assertThat(tokens).extracting(Gs1Token::ai).containsExactly("21A", "21");
+        assertThat(tokens).extracting(Gs1Token::raw).containsExactly("XYZ", "SERIAL");
+    }
+
+    @Test
+    void longerCustomAisDoNotHideAmbiguousNumericAis() {
+        ApplicationIdentifier custom = new ApplicationIdentifier(
+                "21A", null, 10, true, CharacterSet.ANY, false, v -> v);
+        var registry = StandardAis.defaultRegistry().withOverrides(Map.of("21A", custom));
+        var tokenizer = new Gs1Tokenizer(registry, Gs1ComplianceMode.LENIENT);
+
+        assertThatThrownBy(() -> tokenizer.tokenize(FNC1 + "10LOT21AXYZ"))
+                .isInstanceOf(Gs1ParseException.class)
+                .hasMessageContaining("Missing FNC1 after variable-length AI 10");
+    }
+
+    @Test
+    void externalTokenizersOnlyImplementTheListMethod() {
+        Tokenizer tokenizer = input -> List.of(new Gs1Token("01", "09501101530003", 4), new Gs1Token("10", "ABC", 22));
+        var buffer = new Gs1TokenBuffer();
+
+        tokenizer.tokenize("(01)09501101530003(10)ABC", buffer);
+
+        assertThat(buffer.size()).isEqualTo(2);
+        assertThat(buffer.ai(1)).isEqualTo("10");
+        assertThat(buffer.value(1)).isEqualTo("ABC");
+        assertThat(buffer.canonicalForm()).isEqualTo("(01)09501101530003(10)ABC");
+    }
+
+    @Test
+    void bufferRejectsTokensOutsideTheInput() {
+        var buffer = new Gs1TokenBuffer();
+        buffer.reset(StandardAis.defaultRegistry(), "(10)ABC");
+
+        assertThatThrownBy(() -> buffer.add(StandardAis.defaultRegistry().ordinal("10"), 4, 8))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> buffer.add(-1, 4, 7))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void bufferRejectsOffsetsBeyondTwentyFourBits() {
+        int ordinal = StandardAis.defaultRegistry().ordinal("10");
+        var buffer = new Gs1TokenBuffer();
+        buffer.reset(StandardAis.defaultRegistry(), "A".repeat((1 << 24) + 8));
+
+        buffer.add(ordinal, (1 << 24) - 4, (1 << 24) - 1);
+        assertThat(buffer.value(0)).isEqualTo("AAA");
+        assertThatThrownBy(() -> buffer.add(ordinal, (1 << 24) - 4, 1 << 24))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> buffer.add(ordinal, (1 << 24) + 1, (1 << 24) + 4))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+}